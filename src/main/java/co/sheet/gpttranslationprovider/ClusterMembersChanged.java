@@ -0,0 +1,11 @@
+package co.sheet.gpttranslationprovider;
+
+/**
+ * Published when the number of live instances changes. Not a transactional event: it is only meaningful to the running instance and is
+ * not stored.
+ *
+ * @param members live instances, this one included
+ */
+public record ClusterMembersChanged(int members) {
+
+}
@@ -0,0 +1,30 @@
+package co.sheet.gpttranslationprovider;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Priority lane of a translation. Queued work is drained from the lanes in proportion to their weights, so interactive requests overtake
+ * bulk imports without starving them.
+ */
+public enum Lane {
+    INTERACTIVE(6),
+    BULK(3),
+    RESUBMISSION(1);
+
+    final int weight;
+
+    Lane(int weight) {
+        this.weight = weight;
+    }
+
+    public int weight() {
+        return weight;
+    }
+
+    public static Map<Lane, Integer> weights() {
+        return Arrays.stream(values()).collect(Collectors.toMap(lane -> lane, Lane::weight, Integer::sum, () -> new EnumMap<>(Lane.class)));
+    }
+}
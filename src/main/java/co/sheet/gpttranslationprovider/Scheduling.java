@@ -0,0 +1,37 @@
+package co.sheet.gpttranslationprovider;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * How a translation is scheduled, carried along with its events.
+ *
+ * @param deadline queued work is dropped once this has passed, {@code null} for no deadline
+ */
+public record Scheduling(Lane lane, Instant createdAt, Instant deadline) {
+
+    /**
+     * Scheduling of events stored before they had one, they can only reach the listeners as resubmissions.
+     */
+    public static final Scheduling RESUBMITTED = new Scheduling(Lane.RESUBMISSION, Instant.EPOCH, null);
+
+    public static Scheduling interactive(Duration timeout) {
+        return of(Lane.INTERACTIVE, timeout);
+    }
+
+    public static Scheduling bulk(Duration timeout) {
+        return of(Lane.BULK, timeout);
+    }
+
+    private static Scheduling of(Lane lane, Duration timeout) {
+        var now = Instant.now();
+        return new Scheduling(lane, now, timeout == null ? null : now.plus(timeout));
+    }
+
+    /**
+     * Scheduling of the event when its publication is resubmitted: the resubmission lane, with the original creation and deadline.
+     */
+    public Scheduling resubmitted() {
+        return new Scheduling(Lane.RESUBMISSION, createdAt, deadline);
+    }
+}
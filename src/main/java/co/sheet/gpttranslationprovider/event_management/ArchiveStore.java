@@ -0,0 +1,25 @@
+package co.sheet.gpttranslationprovider.event_management;
+
+/**
+ * Append-only storage of the publication archive, local files by default. Provide a bean of this type to keep the archive in a blob store
+ * instead.
+ */
+public interface ArchiveStore {
+
+    /**
+     * Appends the content to the named object, creating it if needed.
+     *
+     * @return offset of the content within the object
+     */
+    long append(String name, byte[] content);
+
+    /**
+     * @return the given range of the named object
+     */
+    byte[] read(String name, long offset, int length);
+
+    /**
+     * @return the whole named object, empty if it does not exist
+     */
+    byte[] read(String name);
+}
@@ -0,0 +1,129 @@
+package co.sheet.gpttranslationprovider.event_management;
+
+import co.sheet.gpttranslationprovider.open_ai.OpenAiService;
+import co.sheet.gpttranslationprovider.open_ai.ReadyToTranslateEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.modulith.events.core.EventSerializer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Publishes many {@link ReadyToTranslateEvent}s at once, for {@code translateAll}. Instead of one {@code event_publication} insert per
+ * {@code publishEvent}, the publications are registered with multi-row inserts of {@code rows-per-statement} rows, in transactions of
+ * {@code chunk-size} events that commit on their own, so a large request holds no connection for long.
+ * <p>
+ * After its chunk committed, every event is translated on a virtual thread and its publication completed by id. A failed translation
+ * leaves the publication incomplete; it is retried and resubmitted to the in-memory listener like any other. With the {@link WorkQueue},
+ * the chunks go to the queue instead.
+ */
+@Slf4j
+@Component
+public class BulkPublications {
+
+    final JdbcTemplate jdbcTemplate;
+    final JdbcClient jdbcClient;
+    final EventSerializer eventSerializer;
+    final OpenAiService openAiService;
+    final ObjectProvider<WorkQueue> workQueue;
+    final BulkPublicationConfig config;
+    final TransactionTemplate chunkTransaction;
+    final ExecutorService dispatchers =
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("bulk-publication-", 0).factory());
+    final Timer chunkTimer;
+
+    BulkPublications(
+        JdbcTemplate jdbcTemplate,
+        JdbcClient jdbcClient,
+        EventSerializer eventSerializer,
+        OpenAiService openAiService,
+        ObjectProvider<WorkQueue> workQueue,
+        BulkPublicationConfig config,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jdbcClient = jdbcClient;
+        this.eventSerializer = eventSerializer;
+        this.openAiService = openAiService;
+        this.workQueue = workQueue;
+        this.config = config;
+        // every chunk commits on its own, also when the caller has a transaction
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.chunkTimer = meterRegistry.timer("translation.bulk-publication.chunk");
+    }
+
+    public void publishAll(List<ReadyToTranslateEvent> events) {
+        for (var from = 0; from < events.size(); from += config.chunkSize()) {
+            var chunk = events.subList(from, Math.min(events.size(), from + config.chunkSize()));
+            var queue = workQueue.getIfAvailable();
+            if (queue != null) {
+                chunkTimer.record(() -> chunkTransaction.executeWithoutResult(_ -> queue.enqueueAll(chunk, config.rowsPerStatement())));
+                continue;
+            }
+            var publications = chunkTimer.record(() -> chunkTransaction.execute(_ -> register(chunk)));
+            publications.forEach(publication -> dispatchers.execute(() -> dispatch(publication)));
+        }
+        log.debug("Published {} translation events in chunks of {}", events.size(), config.chunkSize());
+    }
+
+    @PreDestroy
+    void close() {
+        dispatchers.shutdown();
+    }
+
+    private List<Publication> register(List<ReadyToTranslateEvent> chunk) {
+        var publicationDate = OffsetDateTime.now(ZoneOffset.UTC);
+        var publications = new ArrayList<Publication>(chunk.size());
+        for (var from = 0; from < chunk.size(); from += config.rowsPerStatement()) {
+            var rows = chunk.subList(from, Math.min(chunk.size(), from + config.rowsPerStatement()));
+            var values = new ArrayList<>(rows.size() * 5);
+            for (var event : rows) {
+                var publication = new Publication(UUID.randomUUID(), publicationDate, event);
+                publications.add(publication);
+                values.addAll(List.of(publication.id(), OpenAiService.LISTENER_ID, ReadyToTranslateEvent.class.getName(),
+                    eventSerializer.serialize(event).toString(), publicationDate));
+            }
+            jdbcTemplate.update("INSERT INTO event_publication (id, listener_id, event_type, serialized_event, publication_date) VALUES "
+                + String.join(", ", Collections.nCopies(rows.size(), "(?, ?, ?, ?, ?)")), values.toArray());
+        }
+        return publications;
+    }
+
+    private void dispatch(Publication publication) {
+        try {
+            openAiService.process(publication.event());
+        } catch (RuntimeException e) {
+            log.warn("Translation of publication {} failed, it stays incomplete and is retried", publication.id(), e);
+            return;
+        }
+        // with the publication date, the update only looks into the partition of the publication
+        jdbcClient.sql("""
+                      UPDATE event_publication SET completion_date = :now
+                      WHERE id = :id AND publication_date = :publicationDate AND completion_date IS NULL
+                      """)
+                  .param("now", OffsetDateTime.now(ZoneOffset.UTC))
+                  .param("id", publication.id())
+                  .param("publicationDate", publication.publicationDate())
+                  .update();
+    }
+
+    record Publication(UUID id, OffsetDateTime publicationDate, ReadyToTranslateEvent event) {
+
+    }
+}
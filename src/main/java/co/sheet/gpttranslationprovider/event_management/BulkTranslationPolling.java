@@ -0,0 +1,54 @@
+package co.sheet.gpttranslationprovider.event_management;
+
+import co.sheet.gpttranslationprovider.open_ai.BulkTranslations;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Service;
+
+@Component
+@RequiredArgsConstructor
+class BulkTranslationPolling {
+
+    final BulkTranslationPollingService service;
+
+    /**
+     * Submit pending bulk translation jobs and collect finished ones every minute.
+     */
+    @Scheduled(fixedDelayString = "${translation.bulk.poll-interval}")
+    void pollBulkTranslations() {
+        service.pollBulkTranslations();
+    }
+}
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+class BulkTranslationPollingService {
+
+    static final String LOCK_NAME = "bulk_translation_poll";
+
+    final BulkTranslations bulkTranslations;
+    final JobLeases jobLeases;
+    final JobsConfig jobsConfig;
+
+    /**
+     * Polls every shard of the jobs that is due and not taken by another instance, so the instances share the jobs of one poll.
+     */
+    void pollBulkTranslations() {
+        var schedule = jobsConfig.bulkPoll();
+        var shards = Math.max(1, schedule.shards());
+        while (true) {
+            var lease = jobLeases.tryAcquireShard(LOCK_NAME, shards, schedule.minInterval());
+            if (lease.isEmpty()) {
+                return;
+            }
+            try (var shard = lease.get()) {
+                bulkTranslations.processJobs(shard.shard, shards, shard::valid);
+            } catch (Exception e) {
+                log.error("Failed to poll bulk translation jobs, will retry on next poll", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package co.sheet.gpttranslationprovider.event_management;
+
+import co.sheet.gpttranslationprovider.ClusterMembersChanged;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tracks the live instances through heartbeat rows in {@code cluster_members} and splits the event backlog between them. Publications
+ * are assigned to one of {@code buckets} buckets by {@code order_id}, so all keys of an order land in the same bucket, and the buckets are
+ * placed on a {@link HashRing} of the live instances. Each instance only works on the buckets it owns.
+ * <p>
+ * Ownership follows the membership: a new instance owns no bucket until its first heartbeat and then takes over its share, the buckets of
+ * an instance that stopped heartbeating move to the others after {@code member-timeout}. Until the instances agree on the members, a
+ * bucket may briefly have two owners or none; the retries claim their rows with {@code SKIP LOCKED}, so the worst case is a short delay.
+ * <p>
+ * Changes of the number of live instances are published as {@link ClusterMembersChanged}, for the budgets shared by all instances.
+ */
+@Slf4j
+@Component
+class ClusterMembership {
+
+    final JdbcClient jdbcClient;
+    final ClusterConfig config;
+    final ApplicationEventPublisher publisher;
+    final String instanceId;
+    volatile Shard localShard;
+    // an instance counts itself alone until its first heartbeat
+    int members = 1;
+
+    ClusterMembership(JdbcClient jdbcClient, ClusterConfig config, ApplicationEventPublisher publisher) {
+        this.jdbcClient = jdbcClient;
+        this.config = config;
+        this.publisher = publisher;
+        this.instanceId = InstanceIds.generate();
+        // a starting instance owns nothing until its first heartbeat tells it its share
+        this.localShard = config.enabled() ? Shard.none(config.buckets()) : Shard.all(config.buckets());
+    }
+
+    /**
+     * @return the buckets of the backlog this instance works on
+     */
+    Shard localShard() {
+        return localShard;
+    }
+
+    @Scheduled(fixedDelayString = "${translation.cluster.heartbeat}")
+    void heartbeat() {
+        if (!config.enabled()) {
+            return;
+        }
+        var now = Instant.now();
+        try {
+            var renewed = jdbcClient.sql("UPDATE cluster_members SET heartbeat_at = :now WHERE instance_id = :instanceId")
+                                    .param("now", now)
+                                    .param("instanceId", instanceId)
+                                    .update();
+            if (renewed == 0) {
+                jdbcClient.sql("INSERT INTO cluster_members (instance_id, heartbeat_at) VALUES (:instanceId, :now)")
+                          .param("instanceId", instanceId)
+                          .param("now", now)
+                          .update();
+                log.info("Joined the cluster as {}", instanceId);
+            }
+            // every instance cleans up, the statement is cheap and idempotent
+            jdbcClient.sql("DELETE FROM cluster_members WHERE heartbeat_at < :expiredBefore")
+                      .param("expiredBefore", now.minus(config.memberTimeout().multipliedBy(10)))
+                      .update();
+
+            var members = jdbcClient.sql("SELECT instance_id FROM cluster_members WHERE heartbeat_at >= :liveAfter ORDER BY instance_id")
+                                    .param("liveAfter", now.minus(config.memberTimeout()))
+                                    .query(String.class)
+                                    .list();
+            rebalance(members);
+        } catch (DataAccessException e) {
+            // the instance keeps its current shard, the next heartbeat tries again
+            log.warn("Failed to renew the cluster membership of {}", instanceId, e);
+        }
+    }
+
+    @PreDestroy
+    void leave() {
+        if (!config.enabled()) {
+            return;
+        }
+        try {
+            jdbcClient.sql("DELETE FROM cluster_members WHERE instance_id = :instanceId").param("instanceId", instanceId).update();
+        } catch (DataAccessException e) {
+            log.warn("Failed to leave the cluster, the membership of {} expires on its own", instanceId, e);
+        }
+    }
+
+    private void rebalance(List<String> members) {
+        var live = new TreeSet<>(members);
+        // the own heartbeat may not be visible yet
+        live.add(instanceId);
+        var ring = new HashRing(live, config.virtualNodes());
+        var owned = IntStream.range(0, config.buckets())
+                             .filter(bucket -> instanceId.equals(ring.owner("bucket-" + bucket)))
+                             .boxed()
+                             .toList();
+        var shard = new Shard(config.buckets(), owned);
+        if (!shard.equals(localShard)) {
+            log.info("Owning {} of {} backlog buckets among {} instances", owned.size(), config.buckets(), live.size());
+        }
+        localShard = shard;
+        if (live.size() != members) {
+            members = live.size();
+            publisher.publishEvent(new ClusterMembersChanged(members));
+        }
+    }
+
+    /**
+     * Buckets owned by one instance, a publication is in bucket {@code order_id mod buckets}, or 0 without an order.
+     */
+    record Shard(int buckets, List<Integer> owned) {
+
+        static Shard all(int buckets) {
+            return new Shard(buckets, IntStream.range(0, buckets).boxed().toList());
+        }
+
+        static Shard none(int buckets) {
+            return new Shard(buckets, List.of());
+        }
+
+        Shard bucket(int bucket) {
+            return new Shard(buckets, List.of(bucket));
+        }
+
+        boolean ownsAll() {
+            return owned.size() == buckets;
+        }
+    }
+}
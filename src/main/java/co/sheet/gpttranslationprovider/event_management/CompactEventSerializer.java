@@ -0,0 +1,145 @@
+package co.sheet.gpttranslationprovider.event_management;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import org.springframework.modulith.events.core.EventSerializer;
+
+/**
+ * Serializes the events of the publication registry into a compressed envelope instead of plain JSON once their JSON is at least
+ * {@code min-length} characters long:
+ * <pre>
+ * {"translationRequest":{"orderId":1,"masterCopyKeyId":2},"@encoding":"smile+deflate","@payload":"eJzL..."}
+ * </pre>
+ * The order and master copy key ids stay readable for the generated columns of migration V5, the whole event is in the Base64 payload. The
+ * envelope is only used when it is shorter than the JSON, so short events are stored as before. Plain JSON rows, including all rows
+ * written before, are read as they are.
+ * <p>
+ * The output is deterministic: the publication registry finds a publication by its serialized event.
+ */
+class CompactEventSerializer implements EventSerializer {
+
+    static final String ENCODING = "@encoding";
+    static final String PAYLOAD = "@payload";
+    static final String TRANSLATION_REQUEST = "translationRequest";
+
+    final ObjectMapper jsonMapper;
+    final ObjectMapper smileMapper;
+    final EventEncodingConfig config;
+
+    CompactEventSerializer(ObjectMapper objectMapper, EventEncodingConfig config) {
+        this.jsonMapper = objectMapper;
+        this.smileMapper = objectMapper.copyWith(new SmileFactory());
+        this.config = config;
+    }
+
+    @Override
+    public Object serialize(Object event) {
+        try {
+            var json = jsonMapper.writeValueAsString(event);
+            if (config.format() == Format.JSON || json.length() < config.minLength()) {
+                return json;
+            }
+            var encoded = config.format() == Format.SMILE_DEFLATE ? smileMapper.writeValueAsBytes(event) : json.getBytes(StandardCharsets.UTF_8);
+
+            var envelope = jsonMapper.createObjectNode();
+            var translationRequest = jsonMapper.readTree(json).path(TRANSLATION_REQUEST);
+            if (translationRequest.isObject()) {
+                var ids = envelope.putObject(TRANSLATION_REQUEST);
+                ids.set("orderId", translationRequest.path("orderId"));
+                ids.set("masterCopyKeyId", translationRequest.path("masterCopyKeyId"));
+            }
+            envelope.put(ENCODING, config.format().label);
+            envelope.put(PAYLOAD, Base64.getEncoder().encodeToString(deflate(encoded)));
+
+            var compact = jsonMapper.writeValueAsString(envelope);
+            return compact.length() < json.length() ? compact : json;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to serialize event " + event, e);
+        }
+    }
+
+    @Override
+    public <T> T deserialize(Object serialized, Class<T> type) {
+        try {
+            var tree = jsonMapper.readTree(serialized.toString());
+            var payload = tree.path(PAYLOAD);
+            if (!payload.isTextual()) {
+                return jsonMapper.treeToValue(tree, type);
+            }
+            var format = Format.ofLabel(tree.path(ENCODING).asText());
+            var encoded = inflate(Base64.getDecoder().decode(payload.asText()));
+            return (format == Format.SMILE_DEFLATE ? smileMapper : jsonMapper).readValue(encoded, type);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to deserialize " + type.getName() + " from " + serialized, e);
+        }
+    }
+
+    static byte[] deflate(byte[] content) {
+        var deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(content);
+            deflater.finish();
+            var compressed = new ByteArrayOutputStream(Math.max(64, content.length / 2));
+            var buffer = new byte[4096];
+            while (!deflater.finished()) {
+                compressed.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return compressed.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static byte[] inflate(byte[] compressed) throws IOException {
+        var inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            var content = new ByteArrayOutputStream(compressed.length * 3);
+            var buffer = new byte[4096];
+            while (!inflater.finished()) {
+                var inflated = inflater.inflate(buffer);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated event payload");
+                }
+                content.write(buffer, 0, inflated);
+            }
+            return content.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt event payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    enum Format {
+        /**
+         * Plain JSON, as stored by the default serializer of Spring Modulith.
+         */
+        JSON("json"),
+        JSON_DEFLATE("json+deflate"),
+        SMILE_DEFLATE("smile+deflate");
+
+        final String label;
+
+        Format(String label) {
+            this.label = label;
+        }
+
+        static Format ofLabel(String label) {
+            for (var format : values()) {
+                if (format.label.equals(label)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unknown event encoding " + label);
+        }
+    }
+}
@@ -1,14 +1,11 @@
 package co.sheet.gpttranslationprovider.event_management;
 
-import java.time.Duration;
-import java.time.Instant;
+import co.sheet.gpttranslationprovider.open_ai.TranslationMemory;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.modulith.events.CompletedEventPublications;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 @Component
 @RequiredArgsConstructor
@@ -17,9 +14,9 @@ class DatabaseRetention {
     final CleanupService cleanupService;
 
     /**
-     * Clean up old completed events every day at 17:30.
+     * Clean up old completed events and expired shared translations every few minutes, in small batches.
      */
-    @Scheduled(cron = "0 30 17 * * *")
+    @Scheduled(fixedDelayString = "${translation.retention.interval}")
     void cleanOldEvents() {
         cleanupService.cleanupOldEvents();
     }
@@ -32,28 +29,24 @@ class CleanupService {
 
     static final String LOCK_NAME = "event_cleanup";
 
-    final CompletedEventPublications completeEvents;
-    final MultiInstanceLockRepository lockRepository;
+    final PublicationRetention publicationRetention;
+    final TranslationMemory translationMemory;
+    final JobLeases jobLeases;
+    final RetentionConfig config;
 
-    @Transactional
     void cleanupOldEvents() {
-        var lastExecution = lockRepository.findLastExecutionWithLock(LOCK_NAME);
-        final var now = Instant.now();
-
-        if (lastExecution == null || lastExecution.isAfter(now.minus(Duration.ofHours(23)))) {
-            log.info("Cleanup executed recently in another instance. Last execution: {}", lastExecution);
+        var lease = jobLeases.tryAcquire(LOCK_NAME, config.interval().dividedBy(2));
+        if (lease.isEmpty()) {
+            log.debug("Cleanup executed recently or running in another instance");
             return;
         }
 
-        log.info("Starting cleanup of old events. Last execution: {}", lastExecution);
-        lockRepository.updateLastExecution(LOCK_NAME, now);
-
-        try {
-            completeEvents.deletePublicationsOlderThan(Duration.ofDays(1));
-            log.info("Cleanup completed successfully");
+        log.info("Starting cleanup of old events");
+        try (var run = lease.get()) {
+            publicationRetention.deleteCompletedOlderThan(config.age(), run::valid);
+            translationMemory.purgeExpired(run::valid);
         } catch (Exception e) {
-            log.error("Failed to cleanup old events, will retry tomorrow", e);
+            log.error("Failed to cleanup old events, will retry on the next run", e);
         }
-
     }
 }
@@ -0,0 +1,165 @@
+package co.sheet.gpttranslationprovider.event_management;
+
+import co.sheet.gpttranslationprovider.event_management.CompactEventSerializer.Format;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.modulith.events.core.EventSerializer;
+
+@Configuration
+@EnableConfigurationProperties({
+    PublicationRetryConfig.class,
+    ResumeConfig.class,
+    RetentionConfig.class,
+    PartitionConfig.class,
+    ArchiveConfig.class,
+    EventEncodingConfig.class,
+    JobsConfig.class,
+    ClusterConfig.class,
+    WorkQueueConfig.class,
+    BulkPublicationConfig.class
+})
+class EventManagementConfig {
+
+    /**
+     * The archive keeps the history of every order, it is only written to a directory that is configured on purpose.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    ArchiveStore archiveStore(ArchiveConfig archiveConfig) {
+        var directory = archiveConfig.directory();
+        if (directory == null || directory.isBlank()) {
+            if (archiveConfig.enabled()) {
+                throw new IllegalStateException("translation.archive.directory is required when the archive is enabled");
+            }
+            // never written to or read from
+            return new LocalArchiveStore(Path.of(""));
+        }
+        return new LocalArchiveStore(Path.of(directory));
+    }
+
+    /**
+     * Replaces the plain JSON serializer of the publication registry.
+     */
+    @Bean
+    EventSerializer compactEventSerializer(ObjectMapper objectMapper, EventEncodingConfig eventEncodingConfig) {
+        return new CompactEventSerializer(objectMapper, eventEncodingConfig);
+    }
+}
+
+@ConfigurationProperties(prefix = "translation.retry")
+record PublicationRetryConfig(
+    boolean enabled,
+    int pageSize,
+    int maxPages,
+    Duration inFlightTimeout,
+    Duration renewInterval,
+    Duration baseDelay,
+    Duration maxDelay,
+    int maxAttempts) {
+
+}
+
+/**
+ * @param pageSize     paused events resubmitted at a time once their circuit breaker closed
+ * @param pageInterval pause between two pages
+ */
+@ConfigurationProperties(prefix = "translation.resume")
+record ResumeConfig(
+    int pageSize,
+    Duration pageInterval) {
+
+}
+
+@ConfigurationProperties(prefix = "translation.retention")
+record RetentionConfig(
+    Duration interval,
+    Duration age,
+    int batchSize,
+    Duration pause,
+    Duration maxDuration) {
+
+}
+
+@ConfigurationProperties(prefix = "translation.partitions")
+record PartitionConfig(
+    boolean enabled,
+    int ahead) {
+
+}
+
+@ConfigurationProperties(prefix = "translation.archive")
+record ArchiveConfig(
+    boolean enabled,
+    String directory,
+    int chunkSize,
+    Duration maxDuration) {
+
+}
+
+@ConfigurationProperties(prefix = "translation.event-encoding")
+record EventEncodingConfig(
+    Format format,
+    int minLength) {
+
+}
+
+@ConfigurationProperties(prefix = "translation.jobs")
+record JobsConfig(
+    Duration leaseTtl,
+    Duration heartbeat,
+    JobSchedule resubmission,
+    JobSchedule bulkPoll) {
+
+    /**
+     * @param cron        when the job is triggered, where the trigger is configurable
+     * @param minInterval the job runs at most once within this, whichever instance is triggered
+     * @param shards      leases the job is split into, 1 to run it on one instance at a time
+     */
+    record JobSchedule(String cron, Duration minInterval, int shards) {
+
+    }
+}
+
+/**
+ * @param buckets      buckets the backlog is split into by order id, the unit of ownership; changing it moves most orders
+ * @param virtualNodes points of every instance on the hash ring, more spread the buckets more evenly
+ */
+@ConfigurationProperties(prefix = "translation.cluster")
+record ClusterConfig(
+    boolean enabled,
+    Duration heartbeat,
+    Duration memberTimeout,
+    int buckets,
+    int virtualNodes) {
+
+}
+
+@ConfigurationProperties(prefix = "translation.queue")
+record WorkQueueConfig(
+    boolean enabled,
+    int workers,
+    int batchSize,
+    Duration claimTimeout,
+    Duration pollInterval,
+    Duration retryDelay,
+    int maxAttempts,
+    Duration parkedRetention) {
+
+}
+
+/**
+ * @param chunkSize        events registered per transaction
+ * @param rowsPerStatement rows per multi-row insert, PostgreSQL allows up to 65535 parameters per statement
+ */
+@ConfigurationProperties(prefix = "translation.bulk-publication")
+record BulkPublicationConfig(
+    int chunkSize,
+    int rowsPerStatement) {
+
+}
@@ -0,0 +1,107 @@
+package co.sheet.gpttranslationprovider.event_management;
+
+import co.sheet.gpttranslationprovider.open_ai.ReadyToTranslateEvent;
+import co.sheet.gpttranslationprovider.your_notification.TranslationReadyEvent;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.modulith.events.core.EventSerializer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Resubmits single incomplete publications without loading the rest: the publication is completed and its event published again in the
+ * same transaction, which registers a new publication for the listener. Each of the supported event types has a single listener, so
+ * nothing else receives the event twice. Every resubmission path goes through here, and the events are published again in the
+ * resubmission lane, behind fresh work.
+ */
+@Component
+@RequiredArgsConstructor
+class EventRepublisher {
+
+    static final Map<String, Class<?>> EVENT_TYPES = Map.of(
+        ReadyToTranslateEvent.class.getName(), ReadyToTranslateEvent.class,
+        TranslationReadyEvent.class.getName(), TranslationReadyEvent.class);
+
+    final JdbcClient jdbcClient;
+    final EventSerializer eventSerializer;
+    final ApplicationEventPublisher publisher;
+
+    /**
+     * Claims the incomplete publications of the given serialized events, through the serialized_event index.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    List<IncompletePublication> claimIncomplete(Collection<String> serializedEvents) {
+        return jdbcClient.sql("""
+                             SELECT id, listener_id, event_type, serialized_event, attempts
+                             FROM event_publication
+                             WHERE serialized_event IN (:serializedEvents)
+                             AND completion_date IS NULL
+                             AND event_type IN (:eventTypes)
+                             FOR UPDATE SKIP LOCKED
+                             """)
+                         .param("serializedEvents", serializedEvents)
+                         .param("eventTypes", EVENT_TYPES.keySet())
+                         .query(IncompletePublication.class)
+                         .list();
+    }
+
+    /**
+     * @return {@code false} if the publication was completed in the meantime, by its listener or by another instance
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    boolean republish(IncompletePublication publication) {
+        return resubmit(publication) != null;
+    }
+
+    /**
+     * Republishes the publication and carries its retry state over to the new one.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    boolean republish(IncompletePublication publication, int attempts, Instant nextAttemptAt) {
+        var event = resubmit(publication);
+        if (event == null) {
+            return false;
+        }
+        // the new publication holds the event serialized the same way, it is found through the serialized_event index
+        jdbcClient.sql("""
+                      UPDATE event_publication SET attempts = :attempts, next_attempt_at = :nextAttemptAt
+                      WHERE serialized_event = :serializedEvent AND completion_date IS NULL
+                      """)
+                  .param("attempts", attempts)
+                  .param("nextAttemptAt", nextAttemptAt)
+                  .param("serializedEvent", eventSerializer.serialize(event).toString())
+                  .update();
+        return true;
+    }
+
+    /**
+     * @return the event published again, {@code null} if the publication was completed in the meantime
+     */
+    private Object resubmit(IncompletePublication publication) {
+        var completed = jdbcClient.sql("UPDATE event_publication SET completion_date = :now WHERE id = :id AND completion_date IS NULL")
+                                  .param("now", Instant.now())
+                                  .param("id", publication.id())
+                                  .update();
+        if (completed == 0) {
+            return null;
+        }
+        var event = switch (eventSerializer.deserialize(publication.serializedEvent(), EVENT_TYPES.get(publication.eventType()))) {
+            case ReadyToTranslateEvent readyToTranslate -> readyToTranslate.resubmitted();
+            case TranslationReadyEvent translationReady -> translationReady.resubmitted();
+            default -> throw new IllegalStateException("Unsupported event type " + publication.eventType());
+        };
+        publisher.publishEvent(event);
+        return event;
+    }
+
+    record IncompletePublication(UUID id, String listenerId, String eventType, String serializedEvent, int attempts) {
+
+    }
+}
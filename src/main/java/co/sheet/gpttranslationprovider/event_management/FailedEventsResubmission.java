@@ -1,20 +1,16 @@
 package co.sheet.gpttranslationprovider.event_management;
 
-import co.sheet.gpttranslationprovider.TranslationRequest;
-import co.sheet.gpttranslationprovider.open_ai.ReadyToTranslateEvent;
-import co.sheet.gpttranslationprovider.your_notification.TranslationReadyEvent;
+import co.sheet.gpttranslationprovider.event_management.ClusterMembership.Shard;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.function.Predicate;
+import java.util.function.BooleanSupplier;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.modulith.events.EventPublication;
-import org.springframework.modulith.events.IncompleteEventPublications;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.event.TransactionalEventListener;
 
 @Component
@@ -24,9 +20,9 @@ class FailedEventsResubmission {
     final FailedEventsService service;
 
     /**
-     * Resubmit failed events every day at 18:30.
+     * Resubmit the failed events the retries gave up on, on the configured schedule, every day at 18:30 by default.
      */
-    @Scheduled(cron = "0 30 18 * * *")
+    @Scheduled(cron = "${translation.jobs.resubmission.cron}")
     void resubmitFailedEvents() {
         service.resubmitFailedEvents();
     }
@@ -39,46 +35,73 @@ class FailedEventsService {
 
     static final String LOCK_NAME = "event_resubmit";
 
-    final IncompleteEventPublications incompleteEvents;
-    final MultiInstanceLockRepository lockRepository;
+    final PublicationRetryService retryService;
+    final PublicationRetryConfig retryConfig;
+    final JobLeases jobLeases;
+    final JobsConfig jobsConfig;
+    final OrderPublications orderPublications;
+    final ObjectProvider<WorkQueue> workQueue;
+    final ClusterMembership clusterMembership;
 
-    @Transactional
     void resubmitFailedEvents() {
-        var lastExecution = lockRepository.findLastExecutionWithLock(LOCK_NAME);
-        final var now = Instant.now();
-
-        if (lastExecution == null || lastExecution.isAfter(now.minus(Duration.ofHours(23)))) {
-            log.info("Resubmission for failed events executed recently in another instance. Last execution: {}", lastExecution);
-            return;
+        var shard = clusterMembership.localShard();
+        var lease = jobLeases.tryAcquire(LOCK_NAME, jobsConfig.resubmission().minInterval());
+        if (lease.isEmpty()) {
+            log.info("Resubmission for failed events executed recently or running in another instance");
+        } else {
+            log.info("Starting resubmission for failed events");
+            try (var run = lease.get()) {
+                // in a cluster, every instance resubmits the buckets it owns below
+                var resubmitted = shard.ownsAll() ? resubmitExhausted(shard, run::valid) : 0;
+                workQueue.ifAvailable(queue -> {
+                    queue.purgeParked();
+                    queue.redriveParked();
+                });
+                log.info("Resubmission completed successfully, {} publications resubmitted", resubmitted);
+            } catch (Exception e) {
+                log.error("Failed to resubmit failed events, will retry on the next scheduled run", e);
+            }
         }
+        if (!shard.ownsAll()) {
+            resubmitOwnedBuckets(shard);
+        }
+    }
 
-        log.info("Starting resubmission for failed events. Last execution: {}", lastExecution);
-        lockRepository.updateLastExecution(LOCK_NAME, now);
-
-        try {
-            incompleteEvents.resubmitIncompletePublicationsOlderThan(Duration.ofHours(1));
-            log.info("Resubmission completed successfully");
-        } catch (Exception e) {
-            log.error("Failed to resubmit failed events, will retry tomorrow", e);
+    /**
+     * Each bucket has a lease of its own, so a bucket that moved to another instance since it was resubmitted is not resubmitted again.
+     */
+    private void resubmitOwnedBuckets(Shard shard) {
+        var resubmitted = 0;
+        for (var bucket : shard.owned()) {
+            var lease = jobLeases.tryAcquireShard(LOCK_NAME, bucket, jobsConfig.resubmission().minInterval());
+            if (lease.isEmpty()) {
+                continue;
+            }
+            try (var run = lease.get()) {
+                resubmitted += resubmitExhausted(shard.bucket(bucket), run::valid);
+            } catch (Exception e) {
+                log.error("Failed to resubmit the failed events of bucket {}, will retry on the next scheduled run", bucket, e);
+            }
         }
+        log.info("Resubmitted {} publications of {} owned buckets", resubmitted, shard.owned().size());
+    }
+
+    private int resubmitExhausted(Shard shard, BooleanSupplier leased) {
+        // only what the retries gave up on, the continuous retries take care of the rest
+        var publishedBefore = Instant.now().minus(Duration.ofHours(1));
+        var resubmitted = 0;
+        int page;
+        do {
+            page = retryService.resubmitExhaustedPage(publishedBefore, shard);
+            resubmitted += page;
+        } while (page >= retryConfig.pageSize() && leased.getAsBoolean());
+        return resubmitted;
     }
 
     @Async
     @TransactionalEventListener
     void resubmitByOrderId(RetryEvent retryEvent) {
-        var orderToRefetch = retryEvent.orderId();
-        log.info("Resubmitting failed events for orderId: {}", orderToRefetch);
-
-        Predicate<EventPublication> withOrderId = eventPublication -> {
-            var event = eventPublication.getEvent();
-            return switch (event) {
-                case ReadyToTranslateEvent(TranslationRequest request) -> orderToRefetch.equals(request.orderId());
-                case TranslationReadyEvent(TranslationRequest request, _) -> orderToRefetch.equals(request.orderId());
-                case RetryEvent _ -> false; // no need in this case
-                default -> throw new IllegalStateException("Unexpected value: " + event);
-            };
-        };
-
-        incompleteEvents.resubmitIncompletePublications(event -> !event.isCompleted() && withOrderId.test(event));
+        log.info("Resubmitting failed events for orderId: {}", retryEvent.orderId());
+        orderPublications.resubmit(retryEvent.orderId(), retryEvent.masterCopyKeyId());
     }
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package co.sheet.gpttranslationprovider.event_management;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Consistent-hash ring: every member is placed on the ring {@code virtualNodes} times and a key belongs to the next member clockwise. When
+ * a member joins or leaves, only the keys next to its points move, about {@code 1 / members} of them.
+ * <p>
+ * The positions only depend on the member names, so every instance builds the same ring from the same members.
+ */
+class HashRing {
+
+    final NavigableMap<Long, String> points = new TreeMap<>();
+
+    HashRing(Collection<String> members, int virtualNodes) {
+        for (var member : members) {
+            for (var node = 0; node < virtualNodes; node++) {
+                points.put(hash(member + "#" + node), member);
+            }
+        }
+    }
+
+    /**
+     * @return the member owning the key, {@code null} if the ring is empty
+     */
+    String owner(String key) {
+        if (points.isEmpty()) {
+            return null;
+        }
+        var point = points.ceilingEntry(hash(key));
+        return (point == null ? points.firstEntry() : point).getValue();
+    }
+
+    static long hash(String value) {
+        try {
+            // MD5 spreads similar names evenly, String.hashCode does not
+            var digest = MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not available", e);
+        }
+    }
+}
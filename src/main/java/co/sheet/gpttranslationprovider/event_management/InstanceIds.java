@@ -0,0 +1,27 @@
+package co.sheet.gpttranslationprovider.event_management;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.UUID;
+
+/**
+ * Ids under which an instance appears in the tables shared by all instances: the host name, to tell where it runs, and a random part, as
+ * a restarted instance on the same host is a new one.
+ */
+final class InstanceIds {
+
+    private InstanceIds() {
+    }
+
+    static String generate() {
+        return hostName() + "-" + UUID.randomUUID();
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
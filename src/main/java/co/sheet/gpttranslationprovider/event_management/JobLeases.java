@@ -0,0 +1,210 @@
+package co.sheet.gpttranslationprovider.event_management;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Component;
+
+/**
+ * Coordinates the scheduled jobs of all instances through leases in {@code multi_instance_locks}. Acquiring, renewing and completing a lease
+ * are single statements, no row lock or connection is held while a job runs.
+ * <p>
+ * A job is due once its last run started at least {@code minInterval} ago and nobody holds its lease. The holder renews the lease every
+ * {@code heartbeat} for another {@code lease-ttl}; if the holder crashes, the lease expires and the job is due again right away. Every
+ * acquisition increments the fencing token, a holder whose lease expired finds its token outdated and stops.
+ * <p>
+ * A job may be split into shards, each with its own lease, so the instances share the work of one run.
+ */
+@Slf4j
+@Component
+class JobLeases {
+
+    final JdbcClient jdbcClient;
+    final JobsConfig config;
+    final String owner;
+    final ScheduledExecutorService heartbeats =
+        Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("job-lease-heartbeat").factory());
+
+    JobLeases(JdbcClient jdbcClient, JobsConfig config) {
+        this.jdbcClient = jdbcClient;
+        this.config = config;
+        this.owner = InstanceIds.generate();
+    }
+
+    /**
+     * @return the lease of the job if it is due, empty if it ran recently or another instance holds it
+     */
+    Optional<Lease> tryAcquire(String jobName, Duration minInterval) {
+        return tryAcquire(jobName, 0, minInterval);
+    }
+
+    /**
+     * @return the lease of a due shard of the job, trying the shards from a random one on
+     */
+    Optional<Lease> tryAcquireShard(String jobName, int shards, Duration minInterval) {
+        var start = ThreadLocalRandom.current().nextInt(shards);
+        for (var i = 0; i < shards; i++) {
+            var shard = (start + i) % shards;
+            var lease = tryAcquireShard(jobName, shard, minInterval);
+            if (lease.isPresent()) {
+                return lease;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return the lease of the given shard of the job if it is due, empty if it ran recently or another instance holds it
+     */
+    Optional<Lease> tryAcquireShard(String jobName, int shard, Duration minInterval) {
+        return tryAcquire(jobName + "/" + shard, shard, minInterval);
+    }
+
+    @PreDestroy
+    void close() {
+        heartbeats.shutdownNow();
+    }
+
+    private Optional<Lease> tryAcquire(String jobName, int shard, Duration minInterval) {
+        var requestedAt = System.nanoTime();
+        ensureExists(jobName);
+        // the database clock decides when a lease expires, so the clocks of the instances may drift apart
+        var acquired = jdbcClient.sql("""
+                                     UPDATE multi_instance_locks
+                                     SET lease_owner = :owner,
+                                         lease_until = CURRENT_TIMESTAMP + CAST(:ttlMillis AS BIGINT) * INTERVAL '0.001' SECOND,
+                                         fencing_token = fencing_token + 1
+                                     WHERE lock_name = :name
+                                     AND last_execution <= CURRENT_TIMESTAMP - CAST(:minIntervalMillis AS BIGINT) * INTERVAL '0.001' SECOND
+                                     AND (lease_until IS NULL OR lease_until < CURRENT_TIMESTAMP)
+                                     """)
+                                 .param("owner", owner)
+                                 .param("ttlMillis", config.leaseTtl().toMillis())
+                                 .param("name", jobName)
+                                 .param("minIntervalMillis", minInterval.toMillis())
+                                 .update();
+        if (acquired == 0) {
+            return Optional.empty();
+        }
+        var acquisition = jdbcClient.sql("""
+                                        SELECT fencing_token, lease_until FROM multi_instance_locks
+                                        WHERE lock_name = :name AND lease_owner = :owner
+                                        """)
+                                    .param("name", jobName)
+                                    .param("owner", owner)
+                                    .query(Acquisition.class)
+                                    .optional();
+        // taken over already, only possible if this instance stalled for a whole lease
+        return acquisition.map(it -> new Lease(
+            jobName,
+            shard,
+            it.fencingToken(),
+            it.leaseUntil().toInstant().minus(config.leaseTtl()),
+            requestedAt));
+    }
+
+    private void ensureExists(String jobName) {
+        try {
+            jdbcClient.sql("""
+                          INSERT INTO multi_instance_locks (lock_name, last_execution)
+                          SELECT :name, TIMESTAMP '2000-04-06 09:00:00+00'
+                          WHERE NOT EXISTS (SELECT 1 FROM multi_instance_locks WHERE lock_name = :name)
+                          """)
+                      .param("name", jobName)
+                      .update();
+        } catch (DuplicateKeyException e) {
+            // created by another instance in the meantime
+        }
+    }
+
+    record Acquisition(long fencingToken, OffsetDateTime leaseUntil) {
+    }
+
+    /**
+     * Lease of one run of a job, renewed in the background until it is closed. Closing completes the run: the job is due again
+     * {@code minInterval} after the run started, by the database clock.
+     * <p>
+     * The holder tells whether its lease is still {@link #valid()} from the monotonic clock: a lease counts as expired {@code lease-ttl}
+     * after the statement that last acquired or renewed it was sent, which is never later than the database lets it expire.
+     */
+    final class Lease implements AutoCloseable {
+
+        final String jobName;
+        final int shard;
+        final long fencingToken;
+        final Instant startedAt;
+        final ScheduledFuture<?> heartbeat;
+        volatile long expiresAtNanos;
+        volatile boolean lost;
+
+        Lease(String jobName, int shard, long fencingToken, Instant startedAt, long requestedAtNanos) {
+            this.jobName = jobName;
+            this.shard = shard;
+            this.fencingToken = fencingToken;
+            this.startedAt = startedAt;
+            this.expiresAtNanos = requestedAtNanos + config.leaseTtl().toNanos();
+            var period = config.heartbeat().toMillis();
+            this.heartbeat = heartbeats.scheduleWithFixedDelay(this::renew, period, period, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * @return {@code false} once the lease expired or was taken over, the holder should stop working on the job
+         */
+        boolean valid() {
+            return !lost && System.nanoTime() - expiresAtNanos < 0;
+        }
+
+        @Override
+        public void close() {
+            heartbeat.cancel(false);
+            var completed = jdbcClient.sql("""
+                                          UPDATE multi_instance_locks
+                                          SET last_execution = :startedAt, lease_owner = NULL, lease_until = NULL
+                                          WHERE lock_name = :name AND fencing_token = :fencingToken
+                                          """)
+                                      .param("startedAt", startedAt)
+                                      .param("name", jobName)
+                                      .param("fencingToken", fencingToken)
+                                      .update();
+            if (completed == 0) {
+                log.warn("Lease of {} was taken over before the run completed, it is not recorded as executed", jobName);
+            }
+        }
+
+        private void renew() {
+            var requestedAt = System.nanoTime();
+            try {
+                var renewed = jdbcClient.sql("""
+                                            UPDATE multi_instance_locks
+                                            SET lease_until = CURRENT_TIMESTAMP + CAST(:ttlMillis AS BIGINT) * INTERVAL '0.001' SECOND
+                                            WHERE lock_name = :name AND fencing_token = :fencingToken
+                                            """)
+                                        .param("ttlMillis", config.leaseTtl().toMillis())
+                                        .param("name", jobName)
+                                        .param("fencingToken", fencingToken)
+                                        .update();
+                if (renewed == 0) {
+                    lost = true;
+                    heartbeat.cancel(false);
+                    log.warn("Lost the lease of {} to another instance", jobName);
+                    return;
+                }
+                expiresAtNanos = requestedAt + config.leaseTtl().toNanos();
+            } catch (DataAccessException e) {
+                // the lease stays valid until it expires, the next heartbeat tries again
+                log.warn("Failed to renew the lease of {}", jobName, e);
+            }
+        }
+    }
+}
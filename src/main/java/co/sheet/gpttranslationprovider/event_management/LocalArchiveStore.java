@@ -0,0 +1,65 @@
+package co.sheet.gpttranslationprovider.event_management;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@link ArchiveStore} in a local directory, one file per object.
+ */
+class LocalArchiveStore implements ArchiveStore {
+
+    final Path directory;
+
+    LocalArchiveStore(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public long append(String name, byte[] content) {
+        try {
+            Files.createDirectories(directory);
+            try (var channel = FileChannel.open(
+                directory.resolve(name), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                var offset = channel.size();
+                var buffer = ByteBuffer.wrap(content);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+                return offset;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to archive file " + name, e);
+        }
+    }
+
+    @Override
+    public byte[] read(String name, long offset, int length) {
+        try (var channel = FileChannel.open(directory.resolve(name), StandardOpenOption.READ)) {
+            var buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new IOException("Range " + offset + "+" + length + " is beyond the end of the file");
+                }
+            }
+            return buffer.array();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read archive file " + name, e);
+        }
+    }
+
+    @Override
+    public byte[] read(String name) {
+        var file = directory.resolve(name);
+        try {
+            return Files.exists(file) ? Files.readAllBytes(file) : new byte[0];
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read archive file " + name, e);
+        }
+    }
+}
@@ -12,15 +12,6 @@ import org.springframework.transaction.annotation.Transactional;
 @Repository
 interface MultiInstanceLockRepository extends CrudRepository<MultiInstanceLock, String> {
 
-    @Transactional
-    @Query("""
-        SELECT last_execution
-        FROM multi_instance_locks
-        WHERE lock_name = :lockName
-        FOR UPDATE
-        """)
-    Instant findLastExecutionWithLock(String lockName);
-
     @Modifying
     @Transactional
     @Query("UPDATE multi_instance_locks SET last_execution = :lastExecution WHERE lock_name = :lockName")
@@ -0,0 +1,51 @@
+package co.sheet.gpttranslationprovider.event_management;
+
+import co.sheet.gpttranslationprovider.event_management.EventRepublisher.IncompletePublication;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Incomplete translation event publications of one order, found through the {@code order_id} and {@code master_copy_key_id} columns that
+ * the database extracts from the serialized event. Only the matching rows are read and deserialized.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class OrderPublications {
+
+    final JdbcClient jdbcClient;
+    final EventRepublisher republisher;
+
+    /**
+     * @param masterCopyKeyId {@code null} for all keys of the order
+     * @return number of resubmitted publications
+     */
+    @Transactional
+    int resubmit(Long orderId, Long masterCopyKeyId) {
+        var publications = jdbcClient.sql("""
+                                         SELECT id, listener_id, event_type, serialized_event, attempts
+                                         FROM event_publication
+                                         WHERE order_id = :orderId
+                                         AND (CAST(:masterCopyKeyId AS BIGINT) IS NULL OR master_copy_key_id = :masterCopyKeyId)
+                                         AND completion_date IS NULL
+                                         AND event_type IN (:eventTypes)
+                                         """)
+                                     .param("orderId", orderId)
+                                     .param("masterCopyKeyId", masterCopyKeyId)
+                                     .param("eventTypes", EventRepublisher.EVENT_TYPES.keySet())
+                                     .query(IncompletePublication.class)
+                                     .list();
+
+        var resubmitted = 0;
+        for (var publication : publications) {
+            if (republisher.republish(publication)) {
+                resubmitted++;
+            }
+        }
+        log.info("Resubmitted {} of {} incomplete publications for orderId={}", resubmitted, publications.size(), orderId);
+        return resubmitted;
+    }
+}
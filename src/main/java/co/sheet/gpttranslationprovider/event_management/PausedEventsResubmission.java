@@ -0,0 +1,63 @@
+package co.sheet.gpttranslationprovider.event_management;
+
+import co.sheet.gpttranslationprovider.flow_control.PausedEventsResumed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.modulith.events.core.EventSerializer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Resubmits the events a circuit breaker paused while it was open, once it closed again. A recovering service is not flooded with the
+ * whole backlog at once: the events are resubmitted {@code page-size} at a time every {@code page-interval}, each page in a transaction of
+ * its own. Their publications are found through the serialized_event index, nothing else of the backlog is read.
+ * <p>
+ * Runs on the virtual thread the breaker starts for its close listeners.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class PausedEventsResubmission {
+
+    final EventRepublisher republisher;
+    final EventSerializer eventSerializer;
+    final TransactionTemplate transactionTemplate;
+    final ResumeConfig config;
+
+    @EventListener
+    void resubmit(PausedEventsResumed resumed) {
+        var events = resumed.events();
+        var resubmitted = 0;
+        for (var from = 0; from < events.size(); from += config.pageSize()) {
+            if (from > 0 && !pause()) {
+                log.info("Interrupted resubmission of events paused by {}, the rest is left to the retries", resumed.breaker());
+                return;
+            }
+            var serializedEvents = events.subList(from, Math.min(events.size(), from + config.pageSize())).stream()
+                                         .map(event -> eventSerializer.serialize(event).toString())
+                                         .distinct()
+                                         .toList();
+            resubmitted += transactionTemplate.execute(_ -> {
+                var page = 0;
+                for (var publication : republisher.claimIncomplete(serializedEvents)) {
+                    if (republisher.republish(publication)) {
+                        page++;
+                    }
+                }
+                return page;
+            });
+        }
+        log.info("Resubmitted {} publications of {} events paused by {}", resubmitted, events.size(), resumed.breaker());
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(config.pageInterval());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
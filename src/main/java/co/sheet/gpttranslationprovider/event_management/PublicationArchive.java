@@ -0,0 +1,230 @@
+package co.sheet.gpttranslationprovider.event_management;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Component;
+
+/**
+ * Archives completed publications before retention deletes them. They are read in chunks of {@code chunk-size} ordered by completion date
+ * and id (keyset pagination, every chunk its own short query) and appended per completion day to a segment of gzip members with one JSON
+ * line per publication. The day's index maps every order id to the members holding its publications.
+ * <p>
+ * The position is kept in {@code publication_archive_checkpoint} after every chunk, so a stopped run continues where it left off. A chunk
+ * written just before a crash is written again on the next run; readers see such publications twice.
+ */
+@Slf4j
+@Component
+class PublicationArchive {
+
+    static final String CHECKPOINT = "event_publication";
+
+    final JdbcClient jdbcClient;
+    final ArchiveStore store;
+    final ObjectMapper objectMapper;
+    final ArchiveConfig config;
+    final Counter archivedRows;
+
+    PublicationArchive(
+        JdbcClient jdbcClient,
+        ArchiveStore store,
+        ObjectMapper objectMapper,
+        ArchiveConfig config,
+        MeterRegistry meterRegistry) {
+        this.jdbcClient = jdbcClient;
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.config = config;
+        this.archivedRows = meterRegistry.counter("translation.archive.archived");
+    }
+
+    boolean enabled() {
+        return config.enabled();
+    }
+
+    /**
+     * Archives the publications completed before the given instant, for at most {@code max-duration} and as long as the lease of the run is
+     * held.
+     *
+     * @param leased whether the lease of the run is still held, checked before every chunk
+     * @return instant before which every completed publication is archived, safe to delete
+     */
+    Instant archiveCompletedBefore(Instant before, BooleanSupplier leased) {
+        var deadline = System.nanoTime() + config.maxDuration().toNanos();
+        var checkpoint = checkpoint();
+        var archived = 0L;
+        while (true) {
+            if (!leased.getAsBoolean()) {
+                log.warn("Lost the lease of the archive run after {} publications, the rest is archived on the next run", archived);
+                return checkpoint.completionDate().toInstant();
+            }
+            var chunk = jdbcClient.sql("""
+                                      SELECT id, listener_id, event_type, serialized_event, publication_date, completion_date,
+                                             order_id, master_copy_key_id
+                                      FROM event_publication
+                                      WHERE completion_date < :before
+                                      AND (completion_date > :lastCompletion OR (completion_date = :lastCompletion AND id > :lastId))
+                                      ORDER BY completion_date, id
+                                      LIMIT :chunkSize
+                                      """)
+                                  .param("before", before)
+                                  .param("lastCompletion", checkpoint.completionDate())
+                                  .param("lastId", checkpoint.publicationId())
+                                  .param("chunkSize", config.chunkSize())
+                                  .query(ArchivedPublication.class)
+                                  .list();
+            if (!chunk.isEmpty()) {
+                write(chunk);
+                var last = chunk.getLast();
+                checkpoint = new Checkpoint(last.completionDate(), last.id());
+                jdbcClient.sql("""
+                              UPDATE publication_archive_checkpoint SET completion_date = :completionDate, publication_id = :publicationId
+                              WHERE name = :name
+                              """)
+                          .param("completionDate", checkpoint.completionDate())
+                          .param("publicationId", checkpoint.publicationId())
+                          .param("name", CHECKPOINT)
+                          .update();
+                archived += chunk.size();
+                archivedRows.increment(chunk.size());
+            }
+            if (chunk.size() < config.chunkSize()) {
+                log.info("Archived {} completed publications, all before {} are archived", archived, before);
+                return before;
+            }
+            if (System.nanoTime() > deadline) {
+                log.info("Archived {} completed publications, the rest is archived on the next run", archived);
+                // the publications completed at the checkpoint itself may not all be archived yet
+                return checkpoint.completionDate().toInstant();
+            }
+        }
+    }
+
+    /**
+     * @return the archived publications of the order that completed on the given day
+     */
+    List<ArchivedPublication> find(long orderId, LocalDate completionDay) {
+        var prefix = orderId + "\t";
+        var members = new LinkedHashSet<String>();
+        new String(store.read(indexName(completionDay)), StandardCharsets.UTF_8)
+            .lines()
+            .filter(line -> line.startsWith(prefix))
+            .forEach(members::add);
+
+        var found = new ArrayList<ArchivedPublication>();
+        for (var member : members) {
+            var fields = member.split("\t");
+            var compressed = store.read(segmentName(completionDay), Long.parseLong(fields[1]), Integer.parseInt(fields[2]));
+            for (var line : gunzip(compressed).lines().toList()) {
+                var publication = readLine(line);
+                if (Long.valueOf(orderId).equals(publication.orderId())) {
+                    found.add(publication);
+                }
+            }
+        }
+        return found;
+    }
+
+    private void write(List<ArchivedPublication> chunk) {
+        var byDay = new TreeMap<LocalDate, List<ArchivedPublication>>();
+        for (var publication : chunk) {
+            byDay.computeIfAbsent(publication.completionDate().atZoneSameInstant(ZoneOffset.UTC).toLocalDate(), _ -> new ArrayList<>())
+                 .add(publication);
+        }
+        for (Map.Entry<LocalDate, List<ArchivedPublication>> day : byDay.entrySet()) {
+            var member = gzip(day.getValue());
+            var offset = store.append(segmentName(day.getKey()), member);
+
+            var index = new StringBuilder();
+            day.getValue().stream()
+               .map(ArchivedPublication::orderId)
+               .filter(orderId -> orderId != null)
+               .distinct()
+               .forEach(orderId -> index.append(orderId).append('\t').append(offset).append('\t').append(member.length).append('\n'));
+            if (!index.isEmpty()) {
+                store.append(indexName(day.getKey()), index.toString().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    private byte[] gzip(List<ArchivedPublication> publications) {
+        var bytes = new ByteArrayOutputStream();
+        try (var gzip = new GZIPOutputStream(bytes)) {
+            for (var publication : publications) {
+                gzip.write(objectMapper.writeValueAsBytes(publication));
+                gzip.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compress archived publications", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String gunzip(byte[] compressed) {
+        try (var gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decompress archived publications", e);
+        }
+    }
+
+    private ArchivedPublication readLine(String line) {
+        try {
+            return objectMapper.readValue(line, ArchivedPublication.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt archived publication: " + line, e);
+        }
+    }
+
+    private Checkpoint checkpoint() {
+        return jdbcClient.sql("SELECT completion_date, publication_id FROM publication_archive_checkpoint WHERE name = :name")
+                         .param("name", CHECKPOINT)
+                         .query(Checkpoint.class)
+                         .single();
+    }
+
+    static String segmentName(LocalDate day) {
+        return "publications-" + day + ".ndjson.gz";
+    }
+
+    static String indexName(LocalDate day) {
+        return "publications-" + day + ".index";
+    }
+
+    record ArchivedPublication(
+        UUID id,
+        String listenerId,
+        String eventType,
+        String serializedEvent,
+        OffsetDateTime publicationDate,
+        OffsetDateTime completionDate,
+        Long orderId,
+        Long masterCopyKeyId) {
+
+    }
+
+    record Checkpoint(OffsetDateTime completionDate, UUID publicationId) {
+
+    }
+}
@@ -0,0 +1,29 @@
+package co.sheet.gpttranslationprovider.event_management;
+
+import co.sheet.gpttranslationprovider.event_management.PublicationArchive.ArchivedPublication;
+import java.time.LocalDate;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Looks up archived publications for support cases, e.g. {@code GET /actuator/publicationArchive/42/2026-10-16} for the publications of
+ * order 42 completed on that day (UTC).
+ */
+@Component
+@Endpoint(id = "publicationArchive")
+@ConditionalOnProperty(prefix = "translation.archive", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+class PublicationArchiveEndpoint {
+
+    final PublicationArchive archive;
+
+    @ReadOperation
+    List<ArchivedPublication> find(@Selector long orderId, @Selector String completionDay) {
+        return archive.find(orderId, LocalDate.parse(completionDay));
+    }
+}
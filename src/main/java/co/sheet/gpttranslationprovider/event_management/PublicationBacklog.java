@@ -0,0 +1,71 @@
+package co.sheet.gpttranslationprovider.event_management;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Work of all instances not done yet: incomplete event publications and, with the durable work queue, queued translations, which have no
+ * publication. Refreshed in the background so that reading it costs nothing.
+ */
+@Slf4j
+@Component
+public class PublicationBacklog {
+
+    final JdbcClient jdbcClient;
+    final AtomicLong incomplete = new AtomicLong();
+    final AtomicLong queued = new AtomicLong();
+    final AtomicLong parked = new AtomicLong();
+
+    PublicationBacklog(JdbcClient jdbcClient, MeterRegistry meterRegistry) {
+        this.jdbcClient = jdbcClient;
+        meterRegistry.gauge("translation.backlog.incomplete-publications", incomplete);
+        meterRegistry.gauge("translation.backlog.queued-work", queued);
+        meterRegistry.gauge("translation.backlog.parked-work", parked);
+    }
+
+    public long incompletePublications() {
+        return incomplete.get();
+    }
+
+    /**
+     * Translations waiting in the work queue, parked ones excluded: they are not processed until they are re-driven.
+     */
+    public long queuedWork() {
+        return queued.get();
+    }
+
+    /**
+     * Incomplete publications and queued translations.
+     */
+    public long pending() {
+        return incomplete.get() + queued.get();
+    }
+
+    @Scheduled(fixedDelay = 10, timeUnit = TimeUnit.SECONDS)
+    void refresh() {
+        try {
+            incomplete.set(jdbcClient.sql("SELECT COUNT(*) FROM event_publication WHERE completion_date IS NULL")
+                                     .query(Long.class)
+                                     .single());
+            // the table is empty unless the work queue is enabled
+            var depth = jdbcClient.sql("SELECT COUNT(available_at) AS queued, COUNT(*) - COUNT(available_at) AS parked FROM work_queue")
+                                  .query(WorkQueueDepth.class)
+                                  .single();
+            queued.set(depth.queued());
+            parked.set(depth.parked());
+        } catch (DataAccessException e) {
+            // keep the last known values, admission control should not fail with the database
+            log.warn("Failed to count the backlog", e);
+        }
+    }
+
+    record WorkQueueDepth(long queued, long parked) {
+
+    }
+}
@@ -0,0 +1,106 @@
+package co.sheet.gpttranslationprovider.event_management;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Daily partitions of {@code event_publication} on PostgreSQL (see migration V7): keeps {@code translation.partitions.ahead} days of
+ * partitions created in advance, and drops the partitions whose day is past the retention age once none of their publications is
+ * incomplete. Does nothing where the table is not partitioned ({@code translation.partitions.enabled: false}, like on H2).
+ */
+@Slf4j
+@Component
+class PublicationPartitions {
+
+    static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("yyyyMMdd");
+    // event_publication_yyyymmdd holds one day, event_publication_before_yyyymmdd everything before that day
+    static final Pattern PARTITION = Pattern.compile("event_publication_(before_)?(\\d{8})");
+
+    final JdbcClient jdbcClient;
+    final PartitionConfig config;
+    final Counter droppedPartitions;
+
+    PublicationPartitions(JdbcClient jdbcClient, PartitionConfig config, MeterRegistry meterRegistry) {
+        this.jdbcClient = jdbcClient;
+        this.config = config;
+        this.droppedPartitions = meterRegistry.counter("translation.retention.dropped-partitions");
+    }
+
+    boolean enabled() {
+        return config.enabled();
+    }
+
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.HOURS)
+    void createAhead() {
+        if (!config.enabled()) {
+            return;
+        }
+        var today = LocalDate.now(ZoneOffset.UTC);
+        for (var day = today; !day.isAfter(today.plusDays(config.ahead())); day = day.plusDays(1)) {
+            try {
+                jdbcClient.sql("SELECT create_event_publication_partition(:day)").param("day", day).query().singleRow();
+            } catch (DataAccessException e) {
+                // another instance may be creating the same partition
+                log.warn("Failed to create the event publication partition of {}", day, e);
+            }
+        }
+    }
+
+    /**
+     * Detaches and drops the partitions that end before the given instant and hold only publications completed before it.
+     *
+     * @return number of dropped partitions
+     */
+    int dropDrainedBefore(Instant before) {
+        var partitions = jdbcClient.sql("""
+                                       SELECT child.relname
+                                       FROM pg_inherits
+                                       JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+                                       WHERE pg_inherits.inhparent = 'event_publication'::regclass
+                                       ORDER BY child.relname
+                                       """)
+                                   .query(String.class)
+                                   .list();
+
+        var dropped = 0;
+        for (var partition : partitions) {
+            var matcher = PARTITION.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+            var day = LocalDate.parse(matcher.group(2), DAY);
+            var end = (matcher.group(1) == null ? day.plusDays(1) : day).atStartOfDay().toInstant(ZoneOffset.UTC);
+            if (end.isAfter(before)) {
+                continue;
+            }
+            // the name is checked against the pattern above, it is safe to use in the statements
+            var kept = jdbcClient.sql("SELECT EXISTS (SELECT 1 FROM " + partition
+                                          + " WHERE completion_date IS NULL OR completion_date >= :before)")
+                                 .param("before", before)
+                                 .query(Boolean.class)
+                                 .single();
+            if (kept) {
+                log.info("Keeping partition {}, it still holds incomplete or recently completed publications", partition);
+                continue;
+            }
+            // outside of a transaction, CONCURRENTLY does not block the inserts into the other partitions
+            jdbcClient.sql("ALTER TABLE event_publication DETACH PARTITION " + partition + " CONCURRENTLY").update();
+            jdbcClient.sql("DROP TABLE " + partition).update();
+            droppedPartitions.increment();
+            dropped++;
+            log.info("Dropped event publication partition {}", partition);
+        }
+        return dropped;
+    }
+}
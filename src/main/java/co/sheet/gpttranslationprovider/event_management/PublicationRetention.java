@@ -0,0 +1,102 @@
+package co.sheet.gpttranslationprovider.event_management;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.BooleanSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deletes completed publications in batches of {@code batch-size} rows, each its own statement and transaction, with a pause in between
+ * so that the inserts of new publications and autovacuum keep up. A run stops after {@code max-duration}, when its thread is interrupted
+ * or once the instance lost the lease of the run; the next run simply continues with the rows that are left.
+ * <p>
+ * Where the table is partitioned, the drained partitions are dropped first and only the completed rows of the partitions kept for their
+ * incomplete publications are deleted row by row.
+ * <p>
+ * With the {@link PublicationArchive} enabled, only publications that are archived already are deleted.
+ */
+@Slf4j
+@Component
+class PublicationRetention {
+
+    final JdbcClient jdbcClient;
+    final PublicationPartitions partitions;
+    final PublicationArchive archive;
+    final RetentionConfig config;
+    final Counter deletedRows;
+    final Timer runTimer;
+
+    PublicationRetention(
+        JdbcClient jdbcClient,
+        PublicationPartitions partitions,
+        PublicationArchive archive,
+        RetentionConfig config,
+        MeterRegistry meterRegistry) {
+        this.jdbcClient = jdbcClient;
+        this.partitions = partitions;
+        this.archive = archive;
+        this.config = config;
+        this.deletedRows = meterRegistry.counter("translation.retention.deleted");
+        this.runTimer = meterRegistry.timer("translation.retention.duration");
+    }
+
+    /**
+     * @param leased whether the lease of the run is still held, checked before every batch
+     * @return number of deleted publications
+     */
+    long deleteCompletedOlderThan(Duration age, BooleanSupplier leased) {
+        var started = System.nanoTime();
+        var deadline = started + config.maxDuration().toNanos();
+        var before = Instant.now().minus(age);
+        var deleted = 0L;
+        var batches = 0;
+        try {
+            if (archive.enabled()) {
+                before = archive.archiveCompletedBefore(before, leased);
+            }
+            if (partitions.enabled()) {
+                partitions.dropDrainedBefore(before);
+            }
+            while (true) {
+                if (!leased.getAsBoolean()) {
+                    log.warn("Lost the lease of the retention run, the rest is deleted on the next run");
+                    break;
+                }
+                var batch = jdbcClient.sql("""
+                                          DELETE FROM event_publication
+                                          WHERE id IN (
+                                              SELECT id FROM event_publication
+                                              WHERE completion_date < :before
+                                              LIMIT :batchSize)
+                                          """)
+                                      .param("before", before)
+                                      .param("batchSize", config.batchSize())
+                                      .update();
+                deleted += batch;
+                batches++;
+                deletedRows.increment(batch);
+                if (batch < config.batchSize()) {
+                    break;
+                }
+                if (System.nanoTime() > deadline) {
+                    log.info("Retention run reached its maximum duration of {}, the rest is deleted on the next run", config.maxDuration());
+                    break;
+                }
+                Thread.sleep(config.pause());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.info("Retention run interrupted, the rest is deleted on the next run");
+        } finally {
+            var took = Duration.ofNanos(System.nanoTime() - started);
+            runTimer.record(took);
+            log.info("Deleted {} completed publications older than {} in {} batches, took {}", deleted, before, batches, took);
+        }
+        return deleted;
+    }
+}
@@ -0,0 +1,230 @@
+package co.sheet.gpttranslationprovider.event_management;
+
+import co.sheet.gpttranslationprovider.event_management.ClusterMembership.Shard;
+import co.sheet.gpttranslationprovider.event_management.EventRepublisher.IncompletePublication;
+import co.sheet.gpttranslationprovider.open_ai.TranslationBacklog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.jdbc.core.simple.JdbcClient.StatementSpec;
+import org.springframework.modulith.events.core.EventSerializer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Component
+@RequiredArgsConstructor
+class PublicationRetry {
+
+    final PublicationRetryService service;
+    final PublicationRetryConfig config;
+
+    /**
+     * Resubmit the failed publications that are due, a few pages every few seconds.
+     */
+    @Scheduled(fixedDelayString = "${translation.retry.poll-interval}")
+    void retryDuePublications() {
+        if (!config.enabled()) {
+            return;
+        }
+        for (var page = 0; page < config.maxPages(); page++) {
+            if (service.retryDuePage() < config.pageSize()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Keep the publications of the events this instance still holds from being retried.
+     */
+    @Scheduled(fixedDelayString = "${translation.retry.renew-interval}")
+    void renewHeldPublications() {
+        if (config.enabled()) {
+            service.renewHeld();
+        }
+    }
+}
+
+/**
+ * Retries every failed publication on its own schedule. A publication still incomplete {@code in-flight-timeout} after it was published
+ * is considered failed, unless the event is still held in memory: a translation may wait in its lane for longer than that, and
+ * resubmitting it would translate and notify it twice. Every instance pushes the next attempt of the events it holds back every
+ * {@code renew-interval}, so only the publications of events that were lost, with a crashed instance or a failed listener, fall due. A
+ * failed publication is resubmitted and its next attempt is set {@code base-delay * 2^attempts} later (capped at {@code max-delay},
+ * with jitter), but never earlier than the in-flight timeout of the new attempt. After {@code max-attempts} it is left to the daily
+ * resubmission.
+ * <p>
+ * Every instance only retries and resubmits the publications of its {@link ClusterMembership#localShard() shard} of the orders, and claims
+ * them with {@code FOR UPDATE SKIP LOCKED} in case a bucket briefly has two owners while the instances rebalance.
+ */
+@Slf4j
+@Service
+class PublicationRetryService {
+
+    final EventRepublisher republisher;
+    final PublicationRetryConfig config;
+    final JdbcClient jdbcClient;
+    final ClusterMembership clusterMembership;
+    final TranslationBacklog translationBacklog;
+    final EventSerializer eventSerializer;
+    final Counter resubmitted;
+    final Counter finalAttempts;
+
+    PublicationRetryService(
+        EventRepublisher republisher,
+        PublicationRetryConfig config,
+        JdbcClient jdbcClient,
+        ClusterMembership clusterMembership,
+        TranslationBacklog translationBacklog,
+        EventSerializer eventSerializer,
+        MeterRegistry meterRegistry) {
+        this.republisher = republisher;
+        this.config = config;
+        this.jdbcClient = jdbcClient;
+        this.clusterMembership = clusterMembership;
+        this.translationBacklog = translationBacklog;
+        this.eventSerializer = eventSerializer;
+        this.resubmitted = meterRegistry.counter("translation.retry.resubmitted");
+        this.finalAttempts = meterRegistry.counter("translation.retry.final-attempts");
+    }
+
+    /**
+     * @return number of due publications claimed
+     */
+    @Transactional
+    int retryDuePage() {
+        var now = Instant.now();
+        var shard = clusterMembership.localShard();
+        if (shard.owned().isEmpty()) {
+            return 0;
+        }
+        var statement = jdbcClient.sql("""
+                                      SELECT id, listener_id, event_type, serialized_event, attempts
+                                      FROM event_publication
+                                      WHERE completion_date IS NULL
+                                      AND next_attempt_at <= :now
+                                      AND publication_date <= :inFlightBefore
+                                      AND attempts < :maxAttempts
+                                      AND event_type IN (:eventTypes)
+                                      %s
+                                      ORDER BY next_attempt_at
+                                      LIMIT :pageSize
+                                      FOR UPDATE SKIP LOCKED
+                                      """.formatted(shardCondition(shard)))
+                                  .param("now", now)
+                                  .param("inFlightBefore", now.minus(config.inFlightTimeout()))
+                                  .param("maxAttempts", config.maxAttempts())
+                                  .param("eventTypes", EventRepublisher.EVENT_TYPES.keySet())
+                                  .param("pageSize", config.pageSize());
+        var due = ownedBy(shard, statement).query(IncompletePublication.class).list();
+
+        for (var publication : due) {
+            var attempts = publication.attempts() + 1;
+            if (republisher.republish(publication, attempts, now.plus(delay(attempts)))) {
+                resubmitted.increment();
+                if (attempts == config.maxAttempts()) {
+                    finalAttempts.increment();
+                    log.warn("Last retry of publication {} for {}, it is left to the daily resubmission if it fails again",
+                        publication.id(), publication.listenerId());
+                }
+            }
+        }
+        if (!due.isEmpty()) {
+            log.info("Resubmitted {} failed publications", due.size());
+        }
+        return due.size();
+    }
+
+    /**
+     * Pushes the next attempt of the publications of the events held by this instance to one in-flight timeout from now, in pages.
+     *
+     * @return number of publications pushed back
+     */
+    int renewHeld() {
+        var heldUntil = Instant.now().plus(config.inFlightTimeout());
+        // the events are serialized the same way as in their publications, they are found through the serialized_event index
+        var serializedEvents = translationBacklog.held().stream()
+                                                 .map(event -> eventSerializer.serialize(event).toString())
+                                                 .distinct()
+                                                 .toList();
+        var renewed = 0;
+        for (var from = 0; from < serializedEvents.size(); from += config.pageSize()) {
+            renewed += jdbcClient.sql("""
+                                     UPDATE event_publication SET next_attempt_at = :heldUntil
+                                     WHERE serialized_event IN (:serializedEvents)
+                                     AND completion_date IS NULL
+                                     AND next_attempt_at < :heldUntil
+                                     """)
+                                 .param("heldUntil", heldUntil)
+                                 .param("serializedEvents",
+                                     serializedEvents.subList(from, Math.min(serializedEvents.size(), from + config.pageSize())))
+                                 .update();
+        }
+        log.debug("Pushed back the retries of {} publications held in memory", renewed);
+        return renewed;
+    }
+
+    /**
+     * Resubmits a page of the publications the retries gave up on, for the daily resubmission. Their new publications keep the attempts,
+     * so they are left to the next daily run if they fail again. Without the retries, all failed publications are resubmitted.
+     *
+     * @param publishedBefore publications of this run are not taken again
+     * @param shard           only publications of orders in these buckets are taken
+     * @return number of publications claimed
+     */
+    @Transactional
+    int resubmitExhaustedPage(Instant publishedBefore, Shard shard) {
+        if (shard.owned().isEmpty()) {
+            return 0;
+        }
+        var minAttempts = config.enabled() ? config.maxAttempts() : 0;
+        var statement = jdbcClient.sql("""
+                                      SELECT id, listener_id, event_type, serialized_event, attempts
+                                      FROM event_publication
+                                      WHERE completion_date IS NULL
+                                      AND attempts >= :minAttempts
+                                      AND publication_date < :publishedBefore
+                                      AND event_type IN (:eventTypes)
+                                      %s
+                                      ORDER BY publication_date
+                                      LIMIT :pageSize
+                                      FOR UPDATE SKIP LOCKED
+                                      """.formatted(shardCondition(shard)))
+                                  .param("minAttempts", minAttempts)
+                                  .param("publishedBefore", publishedBefore)
+                                  .param("eventTypes", EventRepublisher.EVENT_TYPES.keySet())
+                                  .param("pageSize", config.pageSize());
+        var exhausted = ownedBy(shard, statement).query(IncompletePublication.class).list();
+        var now = Instant.now();
+        for (var publication : exhausted) {
+            if (republisher.republish(publication, publication.attempts(), now.plus(config.inFlightTimeout()))) {
+                resubmitted.increment();
+            }
+        }
+        return exhausted.size();
+    }
+
+    private static String shardCondition(Shard shard) {
+        return shard.ownsAll() ? "" : "AND COALESCE(MOD(order_id, :buckets), 0) IN (:ownedBuckets)";
+    }
+
+    private static StatementSpec ownedBy(Shard shard, StatementSpec statement) {
+        return shard.ownsAll() ? statement : statement.param("buckets", shard.buckets()).param("ownedBuckets", shard.owned());
+    }
+
+    /**
+     * Time from this attempt to the next one: exponential backoff with equal jitter, at least the in-flight timeout.
+     */
+    Duration delay(int attempts) {
+        var backoff = config.baseDelay().toMillis() * (1L << Math.min(attempts - 1, 30));
+        var capped = Math.min(backoff, config.maxDelay().toMillis());
+        var jittered = capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1);
+        return Duration.ofMillis(Math.max(jittered, config.inFlightTimeout().toMillis()));
+    }
+}
@@ -1,5 +1,11 @@
 package co.sheet.gpttranslationprovider.event_management;
 
-public record RetryEvent(Long orderId) {
+/**
+ * Asks to resubmit the incomplete translation events of an order, or only of one of its master copy keys.
+ */
+public record RetryEvent(Long orderId, Long masterCopyKeyId) {
 
+    public RetryEvent(Long orderId) {
+        this(orderId, null);
+    }
 }
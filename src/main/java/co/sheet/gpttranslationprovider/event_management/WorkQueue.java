@@ -0,0 +1,349 @@
+package co.sheet.gpttranslationprovider.event_management;
+
+import co.sheet.gpttranslationprovider.open_ai.OpenAiService;
+import co.sheet.gpttranslationprovider.open_ai.ReadyToTranslateEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.modulith.events.core.EventSerializer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Durable work queue for {@link ReadyToTranslateEvent}s, an alternative to the in-memory dispatch to the instance that published them.
+ * Enabled with {@code translation.queue.enabled}.
+ * <p>
+ * Events are inserted into {@code work_queue} in the publishing transaction, so they are visible at its commit. On PostgreSQL, the same
+ * transaction notifies the {@code work_queue} channel and the idle workers of every instance wake up right away; otherwise, and in case
+ * a notification is missed, they look for work every {@code poll-interval}. Workers claim up to {@code batch-size} rows at a time with
+ * {@code FOR UPDATE SKIP LOCKED}, so the instances with free workers take the load. A claimed row is hidden for {@code claim-timeout}:
+ * if its instance dies, another one picks it up after that.
+ * <p>
+ * A row that failed {@code max-attempts} times is parked. Like the publications the retries gave up on, parked rows get one more attempt
+ * with every daily resubmission, and are purged once they were enqueued {@code parked-retention} ago.
+ * <p>
+ * Queued translations have no event publication: {@code /refetchTranslations} and the publication retries do not apply to them, only to
+ * the notifications of their results.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "translation.queue", name = "enabled", havingValue = "true")
+class WorkQueue {
+
+    static final String CHANNEL = "work_queue";
+    static final int PURGE_BATCH_SIZE = 1000;
+
+    final JdbcClient jdbcClient;
+    final JdbcTemplate jdbcTemplate;
+    final EventSerializer eventSerializer;
+    final OpenAiService openAiService;
+    final TransactionTemplate transactionTemplate;
+    final DataSource dataSource;
+    final WorkQueueConfig config;
+    final String instanceId;
+    final boolean postgres;
+    // released once per notification or enqueue on this instance, the idle workers wait on it
+    final Semaphore wakeUp = new Semaphore(0);
+    final List<Thread> threads = new ArrayList<>();
+    final Counter processed;
+    final Counter failed;
+    final Counter parked;
+    final Timer queued;
+    volatile boolean running = true;
+
+    WorkQueue(
+        JdbcClient jdbcClient,
+        JdbcTemplate jdbcTemplate,
+        EventSerializer eventSerializer,
+        OpenAiService openAiService,
+        TransactionTemplate transactionTemplate,
+        DataSource dataSource,
+        WorkQueueConfig config,
+        MeterRegistry meterRegistry) throws SQLException {
+        this.jdbcClient = jdbcClient;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventSerializer = eventSerializer;
+        this.openAiService = openAiService;
+        this.transactionTemplate = transactionTemplate;
+        this.dataSource = dataSource;
+        this.config = config;
+        this.instanceId = InstanceIds.generate();
+        try (var connection = dataSource.getConnection()) {
+            this.postgres = connection.isWrapperFor(PGConnection.class);
+        }
+        this.processed = meterRegistry.counter("translation.queue.processed");
+        this.failed = meterRegistry.counter("translation.queue.failed");
+        this.parked = meterRegistry.counter("translation.queue.parked");
+        this.queued = meterRegistry.timer("translation.queue.wait");
+    }
+
+    /**
+     * Runs in the publishing transaction, the event is queued if and only if that transaction commits.
+     */
+    @EventListener
+    void enqueue(ReadyToTranslateEvent event) {
+        var now = Instant.now();
+        jdbcClient.sql("""
+                      INSERT INTO work_queue (id, event_type, serialized_event, enqueued_at, available_at)
+                      VALUES (:id, :eventType, :serializedEvent, :now, :now)
+                      """)
+                  .param("id", UUID.randomUUID())
+                  .param("eventType", ReadyToTranslateEvent.class.getName())
+                  .param("serializedEvent", eventSerializer.serialize(event).toString())
+                  .param("now", now)
+                  .update();
+        notifyWorkers();
+    }
+
+    private void notifyWorkers() {
+        if (postgres) {
+            // delivered at commit, several notifications of one transaction are folded into one
+            jdbcClient.sql("SELECT pg_notify('" + CHANNEL + "', '')").query().singleRow();
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wakeUp.release();
+                }
+            });
+        } else {
+            wakeUp.release();
+        }
+    }
+
+    /**
+     * Queues the events with multi-row inserts of {@code rowsPerStatement} rows, in the transaction of the caller.
+     */
+    void enqueueAll(List<ReadyToTranslateEvent> events, int rowsPerStatement) {
+        var now = OffsetDateTime.now(ZoneOffset.UTC);
+        for (var from = 0; from < events.size(); from += rowsPerStatement) {
+            var rows = events.subList(from, Math.min(events.size(), from + rowsPerStatement));
+            var values = new ArrayList<>(rows.size() * 5);
+            for (var event : rows) {
+                var serializedEvent = eventSerializer.serialize(event).toString();
+                values.addAll(List.of(UUID.randomUUID(), ReadyToTranslateEvent.class.getName(), serializedEvent, now, now));
+            }
+            jdbcTemplate.update("INSERT INTO work_queue (id, event_type, serialized_event, enqueued_at, available_at) VALUES "
+                + String.join(", ", Collections.nCopies(rows.size(), "(?, ?, ?, ?, ?)")), values.toArray());
+        }
+        notifyWorkers();
+    }
+
+    /**
+     * Makes the parked rows available again, for one attempt each: a row that fails again is parked right away.
+     *
+     * @return number of re-driven rows
+     */
+    int redriveParked() {
+        var redriven = jdbcClient.sql("UPDATE work_queue SET available_at = :now, claimed_by = NULL WHERE available_at IS NULL")
+                                 .param("now", Instant.now())
+                                 .update();
+        if (redriven > 0) {
+            log.info("Re-driven {} parked translations", redriven);
+            wakeUp.release(config.workers());
+        }
+        return redriven;
+    }
+
+    /**
+     * Deletes the rows parked since before the retention, in batches.
+     *
+     * @return number of purged rows
+     */
+    int purgeParked() {
+        var enqueuedBefore = Instant.now().minus(config.parkedRetention());
+        var purged = 0;
+        int batch;
+        do {
+            batch = jdbcClient.sql("""
+                                  DELETE FROM work_queue WHERE id IN (
+                                      SELECT id FROM work_queue
+                                      WHERE available_at IS NULL AND enqueued_at < :enqueuedBefore
+                                      LIMIT :batchSize)
+                                  """)
+                              .param("enqueuedBefore", enqueuedBefore)
+                              .param("batchSize", PURGE_BATCH_SIZE)
+                              .update();
+            purged += batch;
+        } while (batch == PURGE_BATCH_SIZE);
+        if (purged > 0) {
+            log.warn("Purged {} translations parked since before {}", purged, enqueuedBefore);
+        }
+        return purged;
+    }
+
+    @PostConstruct
+    void start() {
+        for (var i = 0; i < config.workers(); i++) {
+            threads.add(Thread.ofVirtual().name("work-queue-" + i).start(this::work));
+        }
+        if (postgres) {
+            threads.add(Thread.ofVirtual().name("work-queue-listener").start(this::listen));
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        threads.forEach(Thread::interrupt);
+    }
+
+    /**
+     * Claims a batch of available rows and hides them for the claim timeout.
+     */
+    List<QueuedWork> claim() {
+        var now = Instant.now();
+        return transactionTemplate.execute(_ -> {
+            var batch = jdbcClient.sql("""
+                                      SELECT id, event_type, serialized_event, enqueued_at, attempts
+                                      FROM work_queue
+                                      WHERE available_at <= :now
+                                      ORDER BY available_at
+                                      LIMIT :batchSize
+                                      FOR UPDATE SKIP LOCKED
+                                      """)
+                                  .param("now", now)
+                                  .param("batchSize", config.batchSize())
+                                  .query(QueuedWork.class)
+                                  .list();
+            if (!batch.isEmpty()) {
+                jdbcClient.sql("""
+                              UPDATE work_queue SET available_at = :claimedUntil, attempts = attempts + 1, claimed_by = :instanceId
+                              WHERE id IN (:ids)
+                              """)
+                          .param("claimedUntil", now.plus(config.claimTimeout()))
+                          .param("instanceId", instanceId)
+                          .param("ids", batch.stream().map(QueuedWork::id).toList())
+                          .update();
+            }
+            return batch;
+        });
+    }
+
+    /**
+     * Processes the claimed row: deletes it when done, makes it available again after a backoff when it failed.
+     */
+    void process(QueuedWork work) {
+        var attempts = work.attempts() + 1;
+        if (attempts == 1) {
+            queued.record(Duration.between(work.enqueuedAt().toInstant(), Instant.now()));
+        }
+        try {
+            openAiService.process(eventSerializer.deserialize(work.serializedEvent(), ReadyToTranslateEvent.class));
+        } catch (RuntimeException e) {
+            failed.increment();
+            if (attempts >= config.maxAttempts()) {
+                parked.increment();
+                log.error("Parked queued translation {} after {} attempts", work.id(), attempts, e);
+                release(work, attempts, null);
+            } else {
+                log.warn("Queued translation {} failed, attempt {} of {}", work.id(), attempts, config.maxAttempts(), e);
+                release(work, attempts, Instant.now().plus(config.retryDelay().multipliedBy(attempts)));
+            }
+            return;
+        }
+        // only the claim of this attempt may delete the row, a claim that timed out may have been taken over
+        jdbcClient.sql("DELETE FROM work_queue WHERE id = :id AND claimed_by = :instanceId AND attempts = :attempts")
+                  .param("id", work.id())
+                  .param("instanceId", instanceId)
+                  .param("attempts", attempts)
+                  .update();
+        processed.increment();
+    }
+
+    private void release(QueuedWork work, int attempts, Instant availableAt) {
+        jdbcClient.sql("""
+                      UPDATE work_queue SET available_at = :availableAt, claimed_by = NULL
+                      WHERE id = :id AND claimed_by = :instanceId AND attempts = :attempts
+                      """)
+                  .param("availableAt", availableAt)
+                  .param("id", work.id())
+                  .param("instanceId", instanceId)
+                  .param("attempts", attempts)
+                  .update();
+    }
+
+    private void work() {
+        while (running) {
+            try {
+                var batch = claim();
+                if (batch.isEmpty()) {
+                    wakeUp.tryAcquire(config.pollInterval().toMillis(), TimeUnit.MILLISECONDS);
+                    continue;
+                }
+                // more work may be waiting, let the next idle worker look for it as well
+                wakeUp.release();
+                batch.forEach(this::process);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (DataAccessException e) {
+                log.warn("Failed to claim queued translations, trying again in {}", config.pollInterval(), e);
+                sleep(config.pollInterval());
+            }
+        }
+    }
+
+    /**
+     * Holds a connection of its own that listens on the channel, and wakes up the workers for every notification.
+     */
+    private void listen() {
+        while (running) {
+            try (var connection = dataSource.getConnection()) {
+                try (var statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                var pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    var notifications = pgConnection.getNotifications((int) config.pollInterval().toMillis());
+                    if (notifications != null && notifications.length > 0) {
+                        wakeUp.release(Math.min(notifications.length, config.workers()));
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Lost the work queue notifications, listening again in {}", config.pollInterval(), e);
+                sleep(config.pollInterval());
+            }
+        }
+    }
+
+    private void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    record QueuedWork(UUID id, String eventType, String serializedEvent, OffsetDateTime enqueuedAt, int attempts) {
+
+    }
+}
@@ -0,0 +1,164 @@
+package co.sheet.gpttranslationprovider.flow_control;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Groups items submitted under the same key and hands them over to a {@link Handler} as one batch, either when the batch reaches
+ * {@code maxSize} items or when {@code window} has passed since its first item, whatever comes first.
+ * <p>
+ * Every submitted item gets its own future, so callers (usually event listeners on virtual threads) block until their own item is done and
+ * fail independently of the rest of the batch.
+ */
+@Slf4j
+public class Accumulator<K, I, R> implements AutoCloseable {
+
+    final String name;
+    final int maxSize;
+    final Duration window;
+    final Handler<K, I, R> handler;
+
+    final ReentrantLock lock = new ReentrantLock();
+    final Map<K, Batch<I, R>> open = new HashMap<>();
+    final ScheduledExecutorService timer;
+    final ExecutorService flushers = Executors.newVirtualThreadPerTaskExecutor();
+
+    public Accumulator(String name, int maxSize, Duration window, Handler<K, I, R> handler) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be positive for accumulator " + name);
+        }
+        this.name = name;
+        this.maxSize = maxSize;
+        this.window = window;
+        this.handler = handler;
+        this.timer = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().name(name + "-window").factory());
+    }
+
+    public CompletableFuture<R> submit(K key, I item) {
+        var entry = new Entry<I, R>(item, new CompletableFuture<>());
+        Batch<I, R> full = null;
+
+        lock.lock();
+        try {
+            var batch = open.get(key);
+            if (batch == null) {
+                batch = new Batch<>(new ArrayList<>());
+                open.put(key, batch);
+                var scheduled = batch;
+                timer.schedule(() -> flushExpired(key, scheduled), window.toMillis(), TimeUnit.MILLISECONDS);
+            }
+            batch.entries().add(entry);
+            if (batch.entries().size() >= maxSize) {
+                open.remove(key);
+                full = batch;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (full != null) {
+            dispatch(key, full);
+        }
+        return entry.result();
+    }
+
+    /**
+     * Submits the item and blocks until its own result is available, rethrowing the original failure of the item.
+     */
+    public R submitAndWait(K key, I item) {
+        try {
+            return submit(key, item).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public int pendingItems() {
+        lock.lock();
+        try {
+            return open.values().stream().mapToInt(batch -> batch.entries().size()).sum();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        timer.shutdownNow();
+        flushers.close();
+    }
+
+    private void flushExpired(K key, Batch<I, R> batch) {
+        boolean expired;
+        lock.lock();
+        try {
+            // identity check: the batch could have been flushed by size and replaced by a new one under the same key
+            expired = open.get(key) == batch;
+            if (expired) {
+                open.remove(key);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (expired) {
+            dispatch(key, batch);
+        }
+    }
+
+    private void dispatch(K key, Batch<I, R> batch) {
+        var entries = List.copyOf(batch.entries());
+        flushers.execute(() -> {
+            try {
+                handler.handle(key, entries);
+            } catch (RuntimeException e) {
+                log.warn("Accumulator {} failed to handle batch of {} items for key={}", name, entries.size(), key, e);
+                entries.forEach(entry -> entry.result().completeExceptionally(e));
+            } finally {
+                entries.stream()
+                       .filter(entry -> !entry.result().isDone())
+                       .forEach(entry -> entry.result().completeExceptionally(
+                           new IllegalStateException("Accumulator " + name + " left an item without result for key=" + key)));
+            }
+        });
+    }
+
+    @FunctionalInterface
+    public interface Handler<K, I, R> {
+
+        void handle(K key, List<Entry<I, R>> entries);
+    }
+
+    public record Entry<I, R>(I item, CompletableFuture<R> result) {
+
+        /**
+         * Completes this entry with the supplied value or with the exception thrown while computing it.
+         */
+        public void complete(Supplier<R> value) {
+            try {
+                result.complete(value.get());
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private record Batch<I, R>(List<Entry<I, R>> entries) {
+
+    }
+}
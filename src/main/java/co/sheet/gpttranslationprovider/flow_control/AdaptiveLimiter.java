@@ -0,0 +1,198 @@
+package co.sheet.gpttranslationprovider.flow_control;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Concurrency limiter whose limit follows the health of the downstream service (AIMD): every call that succeeds within
+ * {@code healthyLatency} grows the limit by {@code 1 / limit}, so by about one per round trip, and every overload failure (as told by the
+ * classifier) cuts it by {@code backoffRatio}.
+ * <p>
+ * Calls above the limit wait in FIFO order instead of failing. Only overload failures of calls started after the last cut reduce the limit
+ * again, so one burst of rejections halves it once and not once per rejected call.
+ */
+@Slf4j
+public class AdaptiveLimiter {
+
+    final String name;
+    final Settings settings;
+    final Function<Throwable, Optional<String>> overloadReason;
+    final MeterRegistry meterRegistry;
+
+    final ReentrantLock lock = new ReentrantLock();
+    final Deque<CompletableFuture<Void>> waiting = new ArrayDeque<>();
+    double limit;
+    int inFlight;
+    long lastDecreaseNanos;
+
+    /**
+     * @param overloadReason tells whether a failure means the downstream service is overloaded, for example {@code rate_limited} or
+     *                       {@code timeout}; empty for every other failure, those do not change the limit
+     */
+    public AdaptiveLimiter(
+        String name,
+        Settings settings,
+        Function<Throwable, Optional<String>> overloadReason,
+        MeterRegistry meterRegistry) {
+        if (settings.minLimit() < 1 || settings.minLimit() > settings.maxLimit()) {
+            throw new IllegalArgumentException("Invalid limits for limiter " + name + ": " + settings);
+        }
+        this.name = name;
+        this.settings = settings;
+        this.overloadReason = overloadReason;
+        this.meterRegistry = meterRegistry;
+        this.limit = Math.clamp(settings.initialLimit(), settings.minLimit(), settings.maxLimit());
+        this.lastDecreaseNanos = System.nanoTime();
+
+        var tags = Tags.of("limiter", name);
+        meterRegistry.gauge("translation.limiter.limit", tags, this, AdaptiveLimiter::currentLimit);
+        meterRegistry.gauge("translation.limiter.in-flight", tags, this, AdaptiveLimiter::inFlight);
+        meterRegistry.gauge("translation.limiter.queued", tags, this, AdaptiveLimiter::queued);
+    }
+
+    /**
+     * Runs the work once a permit is available, blocking the calling thread until then.
+     */
+    public <T> T call(Supplier<T> work) {
+        acquire();
+        var started = System.nanoTime();
+        try {
+            var result = work.get();
+            onSuccess(started);
+            return result;
+        } catch (RuntimeException e) {
+            onFailure(started, e);
+            throw e;
+        }
+    }
+
+    public int currentLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int queued() {
+        lock.lock();
+        try {
+            return waiting.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void acquire() {
+        CompletableFuture<Void> permit;
+        lock.lock();
+        try {
+            if (waiting.isEmpty() && inFlight < (int) limit) {
+                inFlight++;
+                return;
+            }
+            permit = new CompletableFuture<>();
+            waiting.addLast(permit);
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            permit.get();
+        } catch (InterruptedException e) {
+            // the permit may have been granted in the meantime, it has to go back then
+            if (!permit.cancel(false)) {
+                release();
+            }
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for limiter " + name, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Permit of limiter " + name + " failed", e);
+        }
+    }
+
+    private void onSuccess(long started) {
+        var latency = Duration.ofNanos(System.nanoTime() - started);
+        lock.lock();
+        try {
+            if (latency.compareTo(settings.healthyLatency()) <= 0) {
+                limit = Math.min(settings.maxLimit(), limit + 1 / limit);
+            }
+            inFlight--;
+            grantPermits();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onFailure(long started, RuntimeException failure) {
+        var reason = overloadReason.apply(failure);
+        reason.ifPresent(value -> meterRegistry.counter("translation.limiter.rejections", "limiter", name, "reason", value).increment());
+        lock.lock();
+        try {
+            if (reason.isPresent() && started - lastDecreaseNanos > 0) {
+                var previous = (int) limit;
+                limit = Math.max(settings.minLimit(), limit * settings.backoffRatio());
+                lastDecreaseNanos = System.nanoTime();
+                log.warn("Limiter {} cut from {} to {} after {}", name, previous, (int) limit, reason.get());
+            }
+            inFlight--;
+            grantPermits();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            grantPermits();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void grantPermits() {
+        while (inFlight < (int) limit && !waiting.isEmpty()) {
+            // cancelled waiters were interrupted and do not take a permit
+            if (waiting.pollFirst().complete(null)) {
+                inFlight++;
+            }
+        }
+    }
+
+    /**
+     * @param initialLimit   limit to start with, before any feedback
+     * @param healthyLatency calls slower than this leave the limit unchanged instead of growing it
+     * @param backoffRatio   factor the limit is multiplied with on overload, between 0 and 1
+     */
+    public record Settings(
+        int initialLimit,
+        int minLimit,
+        int maxLimit,
+        Duration healthyLatency,
+        double backoffRatio) {
+
+    }
+}
@@ -0,0 +1,58 @@
+package co.sheet.gpttranslationprovider.flow_control;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Caps the calls to one downstream service in flight at a time, so that a slow service cannot take every thread and connection of the
+ * application. A call waits at most {@code maxWait} for a free place and is refused with a {@link BulkheadFullException} after that.
+ */
+public class Bulkhead {
+
+    final String name;
+    final int maxConcurrent;
+    final Duration maxWait;
+    final Semaphore permits;
+    final MeterRegistry meterRegistry;
+
+    public Bulkhead(String name, int maxConcurrent, Duration maxWait, MeterRegistry meterRegistry) {
+        if (maxConcurrent < 1 || maxWait.isNegative()) {
+            throw new IllegalArgumentException("Invalid settings for bulkhead " + name + ": " + maxConcurrent + " calls, " + maxWait);
+        }
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWait = maxWait;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.meterRegistry = meterRegistry;
+
+        meterRegistry.gauge("translation.bulkhead.in-flight", Tags.of("bulkhead", name), this, Bulkhead::inFlight);
+    }
+
+    /**
+     * @throws BulkheadFullException if no place became free within {@code maxWait}
+     */
+    public <T> T call(Supplier<T> work) {
+        try {
+            if (!permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+                meterRegistry.counter("translation.bulkhead.rejections", "bulkhead", name).increment();
+                throw new BulkheadFullException("Bulkhead " + name + " is full with " + maxConcurrent + " calls");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for bulkhead " + name, e);
+        }
+        try {
+            return work.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    public int inFlight() {
+        return maxConcurrent - permits.availablePermits();
+    }
+}
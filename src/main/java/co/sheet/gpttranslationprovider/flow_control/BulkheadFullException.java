@@ -0,0 +1,12 @@
+package co.sheet.gpttranslationprovider.flow_control;
+
+/**
+ * A call was refused because its bulkhead stayed full. Unlike an open circuit breaker, this says nothing about the health of the
+ * downstream service, and nothing tells when a place frees up.
+ */
+public class BulkheadFullException extends CallNotPermittedException {
+
+    public BulkheadFullException(String message) {
+        super(message);
+    }
+}
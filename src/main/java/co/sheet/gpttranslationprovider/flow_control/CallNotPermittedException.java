@@ -0,0 +1,23 @@
+package co.sheet.gpttranslationprovider.flow_control;
+
+/**
+ * A call was refused without reaching the downstream service, because its circuit breaker is open or its bulkhead is full.
+ */
+public class CallNotPermittedException extends RuntimeException {
+
+    public CallNotPermittedException(String message) {
+        super(message);
+    }
+
+    /**
+     * @return {@code true} if the failure or one of its causes is a call refused by an open circuit breaker, a full bulkhead does not count
+     */
+    public static boolean isBreakerOpen(Throwable failure) {
+        for (var cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CallNotPermittedException) {
+                return !(cause instanceof BulkheadFullException);
+            }
+        }
+        return false;
+    }
+}
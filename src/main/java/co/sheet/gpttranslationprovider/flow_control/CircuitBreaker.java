@@ -0,0 +1,243 @@
+package co.sheet.gpttranslationprovider.flow_control;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stops calling a downstream service that keeps failing. The outcomes of the last {@code slidingWindow} calls are kept; once at least
+ * {@code minimumCalls} are known and the share of failures (as told by the classifier) reaches {@code failureRateThreshold}, the breaker
+ * opens and every call fails fast with a {@link CallNotPermittedException}.
+ * <p>
+ * After {@code openDuration} the breaker is half-open and lets {@code halfOpenCalls} probes through: if they all succeed it closes and the
+ * close listeners run, the first failed probe opens it again.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    final String name;
+    final Settings settings;
+    final Predicate<Throwable> isFailure;
+    final MeterRegistry meterRegistry;
+    final List<Runnable> closeListeners = new CopyOnWriteArrayList<>();
+
+    final ReentrantLock lock = new ReentrantLock();
+    // ring of the latest outcomes while closed, true for a failure
+    final boolean[] outcomes;
+    int next;
+    int recorded;
+    int failures;
+    State state = State.CLOSED;
+    long openedAt;
+    int probesStarted;
+    int probesSucceeded;
+
+    /**
+     * @param isFailure tells whether a failure means the downstream service is unhealthy, for example a timeout or a 5xx; every other
+     *                  failure counts as a response and thus as a success
+     */
+    public CircuitBreaker(String name, Settings settings, Predicate<Throwable> isFailure, MeterRegistry meterRegistry) {
+        if (settings.slidingWindow() < 1 || settings.minimumCalls() < 1 || settings.halfOpenCalls() < 1
+            || settings.failureRateThreshold() <= 0 || settings.failureRateThreshold() > 1) {
+            throw new IllegalArgumentException("Invalid settings for circuit breaker " + name + ": " + settings);
+        }
+        this.name = name;
+        this.settings = settings;
+        this.isFailure = isFailure;
+        this.meterRegistry = meterRegistry;
+        this.outcomes = new boolean[settings.slidingWindow()];
+
+        meterRegistry.gauge("translation.breaker.state", Tags.of("breaker", name), this, breaker -> breaker.state().ordinal());
+    }
+
+    /**
+     * Runs the work unless the breaker is open.
+     *
+     * @throws CallNotPermittedException if the breaker is open, or half-open with all probes taken
+     */
+    public <T> T call(Supplier<T> work) {
+        var probe = acquirePermission();
+        try {
+            var result = work.get();
+            onOutcome(probe, false);
+            return result;
+        } catch (CallNotPermittedException e) {
+            // refused further down, the service was not called
+            onIgnored(probe);
+            throw e;
+        } catch (RuntimeException e) {
+            onOutcome(probe, isFailure.test(e));
+            throw e;
+        }
+    }
+
+    /**
+     * Fails fast while the breaker is open, before the caller queues for other resources. Does not take a probe.
+     *
+     * @throws CallNotPermittedException if the breaker is open
+     */
+    public void checkPermitted() {
+        lock.lock();
+        try {
+            if (state == State.OPEN && !openDurationPassed()) {
+                throw reject("open");
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Registers work to run on a new virtual thread whenever the breaker closes after being open.
+     */
+    public void onClose(Runnable listener) {
+        closeListeners.add(listener);
+    }
+
+    public State state() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return {@code true} if the call is a half-open probe
+     */
+    private boolean acquirePermission() {
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                if (!openDurationPassed()) {
+                    throw reject("open");
+                }
+                transition(State.HALF_OPEN);
+                probesStarted = 0;
+                probesSucceeded = 0;
+            }
+            if (state == State.HALF_OPEN) {
+                if (probesStarted >= settings.halfOpenCalls()) {
+                    throw reject("half_open");
+                }
+                probesStarted++;
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onOutcome(boolean probe, boolean failed) {
+        var closed = false;
+        lock.lock();
+        try {
+            if (probe) {
+                if (state != State.HALF_OPEN) {
+                    return;
+                }
+                if (failed) {
+                    open();
+                } else if (++probesSucceeded >= settings.halfOpenCalls()) {
+                    transition(State.CLOSED);
+                    resetWindow();
+                    closed = true;
+                }
+            } else if (state == State.CLOSED) {
+                // calls started before the breaker opened do not count for the probes
+                record(failed);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (closed) {
+            closeListeners.forEach(listener -> Thread.ofVirtual().name("breaker-" + name + "-closed").start(listener));
+        }
+    }
+
+    private void onIgnored(boolean probe) {
+        lock.lock();
+        try {
+            if (probe && state == State.HALF_OPEN) {
+                probesStarted--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(boolean failed) {
+        if (recorded == outcomes.length) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failed;
+        if (failed) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+
+        if (recorded >= settings.minimumCalls() && (double) failures / recorded >= settings.failureRateThreshold()) {
+            log.warn("Circuit breaker {} opens after {} failures in the last {} calls", name, failures, recorded);
+            open();
+        }
+    }
+
+    private void open() {
+        transition(State.OPEN);
+        openedAt = System.nanoTime();
+    }
+
+    private void transition(State target) {
+        if (state != target) {
+            log.info("Circuit breaker {} changes from {} to {}", name, state, target);
+            state = target;
+        }
+    }
+
+    private void resetWindow() {
+        next = 0;
+        recorded = 0;
+        failures = 0;
+    }
+
+    private boolean openDurationPassed() {
+        return System.nanoTime() - openedAt >= settings.openDuration().toNanos();
+    }
+
+    private CallNotPermittedException reject(String reason) {
+        meterRegistry.counter("translation.breaker.rejections", "breaker", name, "reason", reason).increment();
+        return new CallNotPermittedException("Circuit breaker " + name + " is " + reason.replace('_', '-'));
+    }
+
+    /**
+     * @param failureRateThreshold share of failed calls that opens the breaker, between 0 and 1
+     * @param slidingWindow        number of latest calls the failure rate is computed over
+     * @param minimumCalls         calls needed before the failure rate counts
+     * @param openDuration         how long the breaker stays open before it lets probes through
+     * @param halfOpenCalls        successful probes needed to close the breaker
+     */
+    public record Settings(
+        double failureRateThreshold,
+        int slidingWindow,
+        int minimumCalls,
+        Duration openDuration,
+        int halfOpenCalls) {
+
+    }
+}
@@ -0,0 +1,11 @@
+package co.sheet.gpttranslationprovider.flow_control;
+
+/**
+ * Queued work was dropped because its deadline passed before it could start.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,349 @@
+package co.sheet.gpttranslationprovider.flow_control;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Runs at most {@code capacity} calls at a time and queues the rest in lanes. Free slots go to the waiting lanes in proportion to their
+ * weights (smooth weighted round robin).
+ * <p>
+ * Within a lane, calls are queued per flow (for example per user) and the flows take turns by deficit round robin: on its turn a flow
+ * earns {@code quantum} and may start calls as long as their summed cost fits in what it has earned, so a flow with a thousand queued calls
+ * does not hold back one with a single call. A flow never has more than {@code maxPerFlow} calls running.
+ * <p>
+ * A call may have a deadline: if it is still queued when the deadline passes, it is dropped with a {@link DeadlineExceededException}.
+ */
+public class LaneScheduler<L> {
+
+    static final String DEFAULT_FLOW = "";
+
+    final String name;
+    final int capacity;
+    final int maxPerFlow;
+    final long quantum;
+
+    final ReentrantLock lock = new ReentrantLock();
+    final Map<L, LaneQueue> lanes = new LinkedHashMap<>();
+    final Map<String, Integer> runningPerFlow = new HashMap<>();
+    int running;
+    int queued;
+
+    public LaneScheduler(String name, int capacity, Map<L, Integer> weights, MeterRegistry meterRegistry) {
+        this(name, capacity, Integer.MAX_VALUE, 1, weights, meterRegistry);
+    }
+
+    /**
+     * @param maxPerFlow calls of one flow running at a time
+     * @param quantum    cost a flow may spend per turn
+     */
+    public LaneScheduler(String name, int capacity, int maxPerFlow, long quantum, Map<L, Integer> weights, MeterRegistry meterRegistry) {
+        if (capacity < 1 || maxPerFlow < 1 || quantum < 1 || weights.isEmpty() || weights.values().stream().anyMatch(weight -> weight < 1)) {
+            throw new IllegalArgumentException("Invalid capacity, quantum or weights for lane scheduler " + name);
+        }
+        this.name = name;
+        this.capacity = capacity;
+        this.maxPerFlow = maxPerFlow;
+        this.quantum = quantum;
+        weights.forEach((lane, weight) -> {
+            var tags = Tags.of("stage", name, "lane", String.valueOf(lane).toLowerCase(Locale.ROOT));
+            var laneQueue = new LaneQueue(
+                weight,
+                meterRegistry.timer("translation.lane.wait", tags),
+                meterRegistry.counter("translation.lane.dropped", tags));
+            lanes.put(lane, laneQueue);
+            meterRegistry.gauge("translation.lane.queued", tags, this, scheduler -> scheduler.queued(lane));
+            meterRegistry.gauge("translation.lane.flows", tags, this, scheduler -> scheduler.activeFlows(lane));
+        });
+    }
+
+    /**
+     * Runs the work in the given lane once a slot is free, blocking the calling thread until then.
+     *
+     * @param deadline {@code null} to wait as long as it takes
+     * @throws DeadlineExceededException if the deadline passed before the work could start
+     */
+    public <T> T call(L lane, Instant deadline, Supplier<T> work) {
+        return call(lane, DEFAULT_FLOW, 1, deadline, work);
+    }
+
+    /**
+     * Runs the work of the flow in the given lane once it is the flow's turn and a slot is free, blocking the calling thread until then.
+     *
+     * @param cost     what the work costs the flow, in the unit of the quantum
+     * @param deadline {@code null} to wait as long as it takes
+     * @throws DeadlineExceededException if the deadline passed before the work could start
+     */
+    public <T> T call(L lane, String flow, long cost, Instant deadline, Supplier<T> work) {
+        acquire(lane, flow, Math.max(1, cost), deadline);
+        try {
+            return work.get();
+        } finally {
+            release(flow);
+        }
+    }
+
+    public void run(L lane, Instant deadline, Runnable work) {
+        call(lane, deadline, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public int queued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int queued(L lane) {
+        lock.lock();
+        try {
+            return lanes.get(lane).queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int activeFlows(L lane) {
+        lock.lock();
+        try {
+            return lanes.get(lane).flows.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void acquire(L lane, String flowId, long cost, Instant deadline) {
+        var laneQueue = lanes.get(lane);
+        if (laneQueue == null) {
+            throw new IllegalArgumentException("Unknown lane " + lane + " for lane scheduler " + name);
+        }
+        var started = System.nanoTime();
+        if (deadline != null && !Instant.now().isBefore(deadline)) {
+            drop(lane, laneQueue, deadline);
+        }
+
+        Waiter waiter;
+        lock.lock();
+        try {
+            if (queued == 0 && running < capacity && runningOf(flowId) < maxPerFlow) {
+                start(flowId);
+                laneQueue.waitTimer.record(Duration.ofNanos(System.nanoTime() - started));
+                return;
+            }
+            waiter = new Waiter(cost, new CompletableFuture<>());
+            laneQueue.enqueue(flowId, waiter);
+            queued++;
+            // slots may be free while every queued call waits for its flow, this one may be able to start right away
+            grant();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            if (deadline == null) {
+                waiter.slot().get();
+            } else {
+                waiter.slot().get(Math.max(0, Duration.between(Instant.now(), deadline).toNanos()), TimeUnit.NANOSECONDS);
+            }
+        } catch (TimeoutException e) {
+            if (leave(laneQueue, flowId, waiter)) {
+                drop(lane, laneQueue, deadline);
+            }
+        } catch (InterruptedException e) {
+            if (!leave(laneQueue, flowId, waiter)) {
+                release(flowId);
+            }
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting in lane scheduler " + name, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Slot of lane scheduler " + name + " failed", e);
+        }
+        laneQueue.waitTimer.record(Duration.ofNanos(System.nanoTime() - started));
+    }
+
+    /**
+     * @return {@code true} if the caller left the queue, {@code false} if it was granted a slot in the meantime
+     */
+    private boolean leave(LaneQueue laneQueue, String flowId, Waiter waiter) {
+        lock.lock();
+        try {
+            if (waiter.slot().isDone()) {
+                return false;
+            }
+            laneQueue.remove(flowId, waiter);
+            queued--;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void drop(L lane, LaneQueue laneQueue, Instant deadline) {
+        laneQueue.dropped.increment();
+        throw new DeadlineExceededException("Deadline " + deadline + " passed while queued in " + lane + " lane of " + name);
+    }
+
+    private void release(String flowId) {
+        lock.lock();
+        try {
+            running--;
+            runningPerFlow.computeIfPresent(flowId, (_, count) -> count > 1 ? count - 1 : null);
+            grant();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void grant() {
+        while (running < capacity) {
+            var laneQueue = nextLane();
+            if (laneQueue == null) {
+                return;
+            }
+            var flow = laneQueue.nextFlow();
+            var waiter = flow.waiting.pollFirst();
+            if (flow.waiting.isEmpty()) {
+                laneQueue.removeFlow(flow);
+            }
+            laneQueue.queued--;
+            queued--;
+            start(flow.id);
+            waiter.slot().complete(null);
+        }
+    }
+
+    private void start(String flowId) {
+        running++;
+        runningPerFlow.merge(flowId, 1, Integer::sum);
+    }
+
+    private int runningOf(String flowId) {
+        return runningPerFlow.getOrDefault(flowId, 0);
+    }
+
+    private boolean eligible(Flow flow) {
+        return runningOf(flow.id) < maxPerFlow;
+    }
+
+    private LaneQueue nextLane() {
+        LaneQueue selected = null;
+        var totalWeight = 0;
+        for (var laneQueue : lanes.values()) {
+            if (laneQueue.active.stream().noneMatch(this::eligible)) {
+                continue;
+            }
+            totalWeight += laneQueue.weight;
+            laneQueue.credit += laneQueue.weight;
+            if (selected == null || laneQueue.credit > selected.credit) {
+                selected = laneQueue;
+            }
+        }
+        if (selected != null) {
+            selected.credit -= totalWeight;
+        }
+        return selected;
+    }
+
+    private final class LaneQueue {
+
+        final int weight;
+        final Timer waitTimer;
+        final Counter dropped;
+        // flows with queued calls in the order of their turns, the head has the turn
+        final Deque<Flow> active = new ArrayDeque<>();
+        final Map<String, Flow> flows = new HashMap<>();
+        int credit;
+        int queued;
+
+        LaneQueue(int weight, Timer waitTimer, Counter dropped) {
+            this.weight = weight;
+            this.waitTimer = waitTimer;
+            this.dropped = dropped;
+        }
+
+        void enqueue(String flowId, Waiter waiter) {
+            var flow = flows.computeIfAbsent(flowId, id -> {
+                var created = new Flow(id);
+                active.addLast(created);
+                return created;
+            });
+            flow.waiting.addLast(waiter);
+            queued++;
+        }
+
+        void remove(String flowId, Waiter waiter) {
+            var flow = flows.get(flowId);
+            if (flow != null && flow.waiting.remove(waiter)) {
+                queued--;
+                if (flow.waiting.isEmpty()) {
+                    removeFlow(flow);
+                }
+            }
+        }
+
+        void removeFlow(Flow flow) {
+            active.remove(flow);
+            flows.remove(flow.id);
+        }
+
+        /**
+         * Deficit round robin over the eligible flows, the caller makes sure there is at least one. The returned flow has already paid for
+         * its head call.
+         */
+        Flow nextFlow() {
+            while (true) {
+                var flow = active.peekFirst();
+                if (eligible(flow)) {
+                    if (!flow.earned) {
+                        flow.deficit += quantum;
+                        flow.earned = true;
+                    }
+                    var cost = flow.waiting.peekFirst().cost();
+                    if (cost <= flow.deficit) {
+                        flow.deficit -= cost;
+                        return flow;
+                    }
+                }
+                // turn is over, the deficit is kept for the next one
+                flow.earned = false;
+                active.addLast(active.pollFirst());
+            }
+        }
+    }
+
+    private static final class Flow {
+
+        final String id;
+        final Deque<Waiter> waiting = new ArrayDeque<>();
+        long deficit;
+        boolean earned;
+
+        Flow(String id) {
+            this.id = id;
+        }
+    }
+
+    private record Waiter(long cost, CompletableFuture<Void> slot) {
+
+    }
+}
@@ -0,0 +1,61 @@
+package co.sheet.gpttranslationprovider.flow_control;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Events whose listener was refused by an open circuit breaker on this instance. Their publications stay incomplete; once the breaker
+ * closes they are handed over in a {@link PausedEventsResumed} event, whose listener resubmits them at its own pace instead of waiting
+ * for the retries of failed publications.
+ * <p>
+ * At most {@code maxSize} events are remembered, the rest is left to the retries.
+ */
+@Slf4j
+public class PausedEvents {
+
+    final String name;
+    final int maxSize;
+    final ApplicationEventPublisher publisher;
+    final Set<Object> paused = ConcurrentHashMap.newKeySet();
+
+    public PausedEvents(String name, int maxSize, ApplicationEventPublisher publisher, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.publisher = publisher;
+
+        meterRegistry.gauge("translation.breaker.paused", Tags.of("breaker", name), paused, Set::size);
+    }
+
+    public void pause(Object event) {
+        // the size check races, a few events above the limit do no harm
+        if (paused.size() < maxSize) {
+            paused.add(event);
+        }
+    }
+
+    public int paused() {
+        return paused.size();
+    }
+
+    /**
+     * Hands the paused events over for resubmission.
+     */
+    public void resubmit() {
+        var resubmitting = List.copyOf(paused);
+        if (resubmitting.isEmpty()) {
+            return;
+        }
+        log.info("Resubmitting {} events paused by circuit breaker {}", resubmitting.size(), name);
+        paused.removeAll(resubmitting);
+        try {
+            publisher.publishEvent(new PausedEventsResumed(name, resubmitting));
+        } catch (RuntimeException e) {
+            log.error("Failed to resubmit events paused by circuit breaker {}, they are left to the retries", name, e);
+        }
+    }
+}
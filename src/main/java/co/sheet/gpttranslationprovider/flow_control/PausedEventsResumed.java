@@ -0,0 +1,13 @@
+package co.sheet.gpttranslationprovider.flow_control;
+
+import java.util.List;
+
+/**
+ * Published when a circuit breaker closes, with the events it paused while open. Not a transactional event: it is only meaningful to the
+ * running instance and is not stored.
+ *
+ * @param breaker name of the circuit breaker
+ */
+public record PausedEventsResumed(String breaker, List<Object> events) {
+
+}
@@ -0,0 +1,143 @@
+package co.sheet.gpttranslationprovider.flow_control;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token bucket refilled continuously up to {@code capacity} per {@code period}. Callers take what they need and block until it is
+ * available; they are served in arrival order, so a large request is not starved by a stream of small ones.
+ * <p>
+ * Amounts taken on an estimate can be corrected afterwards with {@link #adjust(long)}; the balance may go negative, later callers then
+ * wait for the debt to be refilled.
+ */
+public class RateBudget {
+
+    final String name;
+    final long periodNanos;
+    volatile double capacity;
+    volatile double refillPerNano;
+
+    // serialises waiting callers, the state lock is only held for bookkeeping
+    final ReentrantLock turn = new ReentrantLock(true);
+    final ReentrantLock lock = new ReentrantLock();
+    double available;
+    long refilledAt;
+
+    public RateBudget(String name, long capacity, Duration period) {
+        if (capacity < 1 || period.isZero() || period.isNegative()) {
+            throw new IllegalArgumentException("Invalid rate for budget " + name + ": " + capacity + " per " + period);
+        }
+        this.name = name;
+        this.periodNanos = period.toNanos();
+        this.capacity = capacity;
+        this.refillPerNano = (double) capacity / periodNanos;
+        this.available = capacity;
+        this.refilledAt = System.nanoTime();
+    }
+
+    /**
+     * Takes the amount from the budget, blocking until it is available. Amounts above the capacity are capped to it.
+     *
+     * @return how long the caller waited
+     */
+    public Duration acquire(long amount) {
+        var needed = Math.min(amount, capacity);
+        var started = System.nanoTime();
+        turn.lock();
+        try {
+            while (true) {
+                long waitNanos;
+                lock.lock();
+                try {
+                    refill();
+                    if (available >= needed) {
+                        available -= needed;
+                        return Duration.ofNanos(System.nanoTime() - started);
+                    }
+                    waitNanos = (long) Math.ceil((needed - available) / refillPerNano);
+                } finally {
+                    lock.unlock();
+                }
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for budget " + name, e);
+        } finally {
+            turn.unlock();
+        }
+    }
+
+    /**
+     * Takes the amount from the budget if it is available now, without waiting. An amount above the capacity would never be available, it
+     * is refused instead of being left as debt.
+     *
+     * @return {@link Duration#ZERO} if the amount was taken, otherwise how long until it will be available
+     * @throws IllegalArgumentException if the amount is above the capacity
+     */
+    public Duration tryAcquire(long amount) {
+        if (amount > capacity) {
+            throw new IllegalArgumentException("Amount " + amount + " exceeds the capacity of budget " + name + ": " + (long) capacity);
+        }
+        lock.lock();
+        try {
+            refill();
+            if (available >= amount) {
+                available -= amount;
+                return Duration.ZERO;
+            }
+            return Duration.ofNanos((long) Math.ceil((amount - available) / refillPerNano));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes (positive delta) or gives back (negative delta) without waiting.
+     */
+    public void adjust(long delta) {
+        lock.lock();
+        try {
+            refill();
+            available = Math.min(capacity, available - delta);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Changes the capacity per period, for a budget that is shared with others coming and going. What is available is capped to the new
+     * capacity.
+     */
+    public void resize(long capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Invalid capacity for budget " + name + ": " + capacity);
+        }
+        lock.lock();
+        try {
+            refill();
+            this.capacity = capacity;
+            this.refillPerNano = (double) capacity / periodNanos;
+            available = Math.min(capacity, available);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long available() {
+        lock.lock();
+        try {
+            refill();
+            return (long) available;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void refill() {
+        var now = System.nanoTime();
+        available = Math.min(capacity, available + (now - refilledAt) * refillPerNano);
+        refilledAt = now;
+    }
+}
@@ -0,0 +1,117 @@
+package co.sheet.gpttranslationprovider.open_ai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Provider side of offline bulk translations: a JSONL file of chat completion requests goes in, a JSONL file of responses comes out some
+ * time later.
+ */
+interface BatchTranslationProvider {
+
+    /**
+     * Uploads the JSONL requests file and starts a batch for it.
+     *
+     * @return provider id of the started batch
+     */
+    String submit(Path requestsFile);
+
+    BatchState status(String batchId);
+
+    void download(String fileId, Path target);
+
+    record BatchState(String status, String outputFileId, String errorFileId) {
+
+        static final Set<String> FAILED_STATUSES = Set.of("failed", "expired", "cancelled");
+
+        boolean isCompleted() {
+            return "completed".equals(status);
+        }
+
+        boolean isFailed() {
+            return FAILED_STATUSES.contains(status);
+        }
+    }
+}
+
+/**
+ * {@link BatchTranslationProvider} backed by the OpenAI Files and Batch API.
+ */
+@Component
+class OpenAiBatchProvider implements BatchTranslationProvider {
+
+    final RestClient restClient;
+
+    OpenAiBatchProvider(BulkTranslationConfig config, RestClient.Builder restClientBuilder) {
+        this.restClient = restClientBuilder
+            .baseUrl(config.baseUrl())
+            .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + config.apiKey())
+            .build();
+    }
+
+    @Override
+    public String submit(Path requestsFile) {
+        var upload = new LinkedMultiValueMap<String, Object>();
+        upload.add("purpose", "batch");
+        upload.add("file", new FileSystemResource(requestsFile));
+
+        var file = restClient.post()
+                             .uri("/v1/files")
+                             .contentType(MediaType.MULTIPART_FORM_DATA)
+                             .body(upload)
+                             .retrieve()
+                             .body(JsonNode.class);
+
+        var batch = restClient.post()
+                              .uri("/v1/batches")
+                              .contentType(MediaType.APPLICATION_JSON)
+                              .body(Map.of(
+                                  "input_file_id", file.get("id").asText(),
+                                  "endpoint", "/v1/chat/completions",
+                                  "completion_window", "24h"))
+                              .retrieve()
+                              .body(JsonNode.class);
+
+        return batch.get("id").asText();
+    }
+
+    @Override
+    public BatchState status(String batchId) {
+        var batch = restClient.get()
+                              .uri("/v1/batches/{batchId}", batchId)
+                              .retrieve()
+                              .body(JsonNode.class);
+
+        return new BatchState(batch.get("status").asText(), textOrNull(batch, "output_file_id"), textOrNull(batch, "error_file_id"));
+    }
+
+    @Override
+    public void download(String fileId, Path target) {
+        restClient.get()
+                  .uri("/v1/files/{fileId}/content", fileId)
+                  .exchange((_, response) -> {
+                      if (response.getStatusCode().isError()) {
+                          throw new IllegalStateException("Failed to download batch file " + fileId + ": " + response.getStatusCode());
+                      }
+                      try (var body = response.getBody()) {
+                          Files.copy(body, target, StandardCopyOption.REPLACE_EXISTING);
+                      }
+                      return null;
+                  });
+    }
+
+    private static String textOrNull(JsonNode node, String field) {
+        var value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+}
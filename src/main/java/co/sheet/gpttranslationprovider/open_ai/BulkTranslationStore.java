@@ -0,0 +1,220 @@
+package co.sheet.gpttranslationprovider.open_ai;
+
+import co.sheet.gpttranslationprovider.TranslationRequest;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+@Repository
+@RequiredArgsConstructor
+class BulkTranslationStore {
+
+    static final int INSERT_BATCH_SIZE = 1000;
+
+    final JdbcClient jdbcClient;
+    final JdbcTemplate jdbcTemplate;
+
+    UUID createJob(List<TranslationRequest> requests) {
+        var jobId = UUID.randomUUID();
+        var now = Timestamp.from(Instant.now());
+        jdbcClient.sql("""
+                      INSERT INTO bulk_translation_job (id, status, item_count, created_at, updated_at)
+                      VALUES (:id, :status, :itemCount, :now, :now)
+                      """)
+                  .param("id", jobId)
+                  .param("status", BulkJobStatus.PENDING.name())
+                  .param("itemCount", requests.size())
+                  .param("now", now)
+                  .update();
+
+        var indexed = IntStream.range(0, requests.size()).boxed().toList();
+        jdbcTemplate.batchUpdate("""
+                                     INSERT INTO bulk_translation_item
+                                         (job_id, item_index, order_id, master_copy_key_id, source_text, source_locale, target_locale, user_id)
+                                     VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+                                     """,
+                                 indexed,
+                                 INSERT_BATCH_SIZE,
+                                 (statement, index) -> {
+                                     var request = requests.get(index);
+                                     statement.setObject(1, jobId);
+                                     statement.setInt(2, index);
+                                     statement.setLong(3, request.orderId());
+                                     statement.setLong(4, request.masterCopyKeyId());
+                                     statement.setString(5, request.value());
+                                     statement.setString(6, request.sourceLocale());
+                                     statement.setString(7, request.targetLocale());
+                                     statement.setString(8, request.userId());
+                                 });
+        return jobId;
+    }
+
+    List<BulkJob> findJobs(BulkJobStatus status) {
+        return jdbcClient.sql("SELECT id, status FROM bulk_translation_job WHERE status = :status ORDER BY created_at")
+                         .param("status", status.name())
+                         .query((rs, _) -> new BulkJob(rs.getObject("id", UUID.class), BulkJobStatus.valueOf(rs.getString("status"))))
+                         .list();
+    }
+
+    void updateJob(UUID jobId, BulkJobStatus status) {
+        jdbcClient.sql("UPDATE bulk_translation_job SET status = :status, updated_at = :now WHERE id = :id")
+                  .param("id", jobId)
+                  .param("status", status.name())
+                  .param("now", Timestamp.from(Instant.now()))
+                  .update();
+    }
+
+    void createBatches(UUID jobId, List<BulkBatch> batches) {
+        var now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate("""
+                                     INSERT INTO bulk_translation_batch (job_id, batch_index, first_item, last_item, status, updated_at)
+                                     VALUES (?, ?, ?, ?, ?, ?)
+                                     """,
+                                 batches,
+                                 INSERT_BATCH_SIZE,
+                                 (statement, batch) -> {
+                                     statement.setObject(1, jobId);
+                                     statement.setInt(2, batch.index());
+                                     statement.setInt(3, batch.firstItem());
+                                     statement.setInt(4, batch.lastItem());
+                                     statement.setString(5, batch.status().name());
+                                     statement.setTimestamp(6, now);
+                                 });
+    }
+
+    List<BulkBatch> findBatches(UUID jobId) {
+        return jdbcClient.sql("SELECT * FROM bulk_translation_batch WHERE job_id = :jobId ORDER BY batch_index")
+                         .param("jobId", jobId)
+                         .query((rs, _) -> new BulkBatch(
+                             rs.getInt("batch_index"),
+                             rs.getInt("first_item"),
+                             rs.getInt("last_item"),
+                             BulkJobStatus.valueOf(rs.getString("status")),
+                             rs.getString("provider_batch_id"),
+                             rs.getInt("submit_attempts")))
+                         .list();
+    }
+
+    void updateBatch(UUID jobId, BulkBatch batch, BulkJobStatus status, String providerBatchId) {
+        jdbcClient.sql("""
+                      UPDATE bulk_translation_batch
+                      SET status = :status, provider_batch_id = :providerBatchId, updated_at = :now
+                      WHERE job_id = :jobId AND batch_index = :batchIndex
+                      """)
+                  .param("jobId", jobId)
+                  .param("batchIndex", batch.index())
+                  .param("status", status.name())
+                  .param("providerBatchId", providerBatchId)
+                  .param("now", Timestamp.from(Instant.now()))
+                  .update();
+    }
+
+    /**
+     * @return the failed submits of the batch so far, this one included
+     */
+    int recordSubmitFailure(UUID jobId, BulkBatch batch) {
+        jdbcClient.sql("""
+                      UPDATE bulk_translation_batch SET submit_attempts = submit_attempts + 1, updated_at = :now
+                      WHERE job_id = :jobId AND batch_index = :batchIndex
+                      """)
+                  .param("jobId", jobId)
+                  .param("batchIndex", batch.index())
+                  .param("now", Timestamp.from(Instant.now()))
+                  .update();
+        return batch.submitAttempts() + 1;
+    }
+
+    /**
+     * Streams the items of the job from {@code firstItem} to {@code lastItem} in index order, the stream holds a connection and has to be
+     * closed.
+     */
+    Stream<BulkItem> streamItems(UUID jobId, int firstItem, int lastItem) {
+        return jdbcClient.sql("""
+                             SELECT * FROM bulk_translation_item
+                             WHERE job_id = :jobId AND item_index BETWEEN :firstItem AND :lastItem
+                             ORDER BY item_index
+                             """)
+                         .param("jobId", jobId)
+                         .param("firstItem", firstItem)
+                         .param("lastItem", lastItem)
+                         .query(BulkTranslationStore::toItem)
+                         .stream();
+    }
+
+    List<BulkItem> findItems(UUID jobId, Collection<Integer> indexes) {
+        if (indexes.isEmpty()) {
+            return List.of();
+        }
+        return jdbcClient.sql("SELECT * FROM bulk_translation_item WHERE job_id = :jobId AND item_index IN (:indexes) AND NOT completed")
+                         .param("jobId", jobId)
+                         .param("indexes", indexes)
+                         .query(BulkTranslationStore::toItem)
+                         .list();
+    }
+
+    List<BulkItem> findIncompleteItems(UUID jobId, BulkBatch batch, int limit) {
+        return jdbcClient.sql("""
+                             SELECT * FROM bulk_translation_item
+                             WHERE job_id = :jobId AND item_index BETWEEN :firstItem AND :lastItem AND NOT completed
+                             ORDER BY item_index
+                             LIMIT :limit
+                             """)
+                         .param("jobId", jobId)
+                         .param("firstItem", batch.firstItem())
+                         .param("lastItem", batch.lastItem())
+                         .param("limit", limit)
+                         .query(BulkTranslationStore::toItem)
+                         .list();
+    }
+
+    void markCompleted(UUID jobId, Collection<Integer> indexes) {
+        if (indexes.isEmpty()) {
+            return;
+        }
+        jdbcClient.sql("UPDATE bulk_translation_item SET completed = TRUE WHERE job_id = :jobId AND item_index IN (:indexes)")
+                  .param("jobId", jobId)
+                  .param("indexes", indexes)
+                  .update();
+    }
+
+    private static BulkItem toItem(ResultSet rs, int rowNum) throws SQLException {
+        return new BulkItem(
+            rs.getInt("item_index"),
+            new TranslationRequest(
+                rs.getLong("order_id"),
+                rs.getLong("master_copy_key_id"),
+                rs.getString("source_text"),
+                rs.getString("source_locale"),
+                rs.getString("target_locale"),
+                rs.getString("user_id")));
+    }
+}
+
+enum BulkJobStatus {
+    PENDING, SUBMITTED, COMPLETED, FAILED
+}
+
+record BulkJob(UUID id, BulkJobStatus status) {
+
+}
+
+/**
+ * Items {@code firstItem} to {@code lastItem} of a job, submitted to the provider as one batch.
+ */
+record BulkBatch(int index, int firstItem, int lastItem, BulkJobStatus status, String providerBatchId, int submitAttempts) {
+
+}
+
+record BulkItem(int index, TranslationRequest request) {
+
+}
@@ -0,0 +1,316 @@
+package co.sheet.gpttranslationprovider.open_ai;
+
+import co.sheet.gpttranslationprovider.Scheduling;
+import co.sheet.gpttranslationprovider.TranslationRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Offline bulk mode for large {@code translateAll} jobs. Requests are stored as a job and translated through the provider batch API instead
+ * of one chat call per request; the results are fanned out as regular {@code TranslationReadyEvent}s. Requests the batch could not
+ * translate go back to the regular online path as {@link ReadyToTranslateEvent}s.
+ * <p>
+ * A job larger than the provider allows for one batch, {@code max-batch-requests} requests or {@code max-batch-size} bytes, is split into
+ * several batches that are submitted and collected on their own. A batch whose submit failed {@code max-submit-attempts} times is
+ * translated online as well, and its job ends as {@code FAILED}.
+ * <p>
+ * {@link #processJobs(int, int, BooleanSupplier)} is not scheduled here, the caller is responsible for running each shard on one instance at a time.
+ */
+@Slf4j
+@Service
+public class BulkTranslations {
+
+    final BulkTranslationStore store;
+    final BatchTranslationProvider provider;
+    final TranslationEventPublisher publisher;
+    final TranslationMemory translationMemory;
+    final ResponseMapper responseMapper;
+    final ObjectMapper objectMapper;
+    final BulkTranslationConfig config;
+    final TransactionTemplate chunkTransaction;
+    final JsonNode responseSchema;
+
+    BulkTranslations(
+        BulkTranslationStore store,
+        BatchTranslationProvider provider,
+        TranslationEventPublisher publisher,
+        TranslationMemory translationMemory,
+        ResponseMapper responseMapper,
+        ObjectMapper objectMapper,
+        BulkTranslationConfig config,
+        PlatformTransactionManager transactionManager) throws JsonProcessingException {
+        this.store = store;
+        this.provider = provider;
+        this.publisher = publisher;
+        this.translationMemory = translationMemory;
+        this.responseMapper = responseMapper;
+        this.objectMapper = objectMapper;
+        this.config = config;
+        // every chunk commits on its own, so its events are dispatched without waiting for the whole job
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.responseSchema = objectMapper.readTree(ChatTranslator.RESPONSE_SCHEMA);
+    }
+
+    /**
+     * Stores the requests as a bulk job. It is submitted to the provider by the next {@link #processJobs(int, int, BooleanSupplier)} run.
+     */
+    @Transactional
+    public UUID submit(List<TranslationRequest> requests) {
+        var jobId = store.createJob(requests);
+        log.info("Bulk translation job {} created with {} items", jobId, requests.size());
+        return jobId;
+    }
+
+    /**
+     * Submits the pending batches of the shard's jobs to the provider and collects the results of submitted ones. Jobs are assigned to
+     * shards by their id.
+     *
+     * @param leased whether the caller still runs the shard alone, checked before every batch; once it returns {@code false} the rest is
+     *               left to whoever took the shard over
+     */
+    public void processJobs(int shard, int shards, BooleanSupplier leased) {
+        var jobs = new ArrayList<>(store.findJobs(BulkJobStatus.PENDING));
+        jobs.addAll(store.findJobs(BulkJobStatus.SUBMITTED));
+        for (var job : jobs) {
+            if (Math.floorMod(job.id().hashCode(), shards) != shard) {
+                continue;
+            }
+            if (!leased.getAsBoolean()) {
+                log.warn("Lost the lease of bulk translation shard {}, stopping", shard);
+                return;
+            }
+            try {
+                processJob(job, leased);
+            } catch (Exception e) {
+                log.error("Failed to process bulk translation job {}, will retry on next poll", job.id(), e);
+            }
+        }
+    }
+
+    void processJob(BulkJob job, BooleanSupplier leased) throws IOException {
+        var batches = store.findBatches(job.id());
+        if (batches.isEmpty()) {
+            batches = planBatches(job);
+        }
+        for (var batch : batches) {
+            if (!leased.getAsBoolean()) {
+                return;
+            }
+            switch (batch.status()) {
+                case PENDING -> submitBatch(job, batch);
+                case SUBMITTED -> checkBatch(job, batch);
+                default -> {
+                }
+            }
+        }
+
+        var statuses = store.findBatches(job.id()).stream().map(BulkBatch::status).collect(Collectors.toSet());
+        if (statuses.contains(BulkJobStatus.PENDING)) {
+            return;
+        }
+        if (statuses.contains(BulkJobStatus.SUBMITTED)) {
+            if (job.status() == BulkJobStatus.PENDING) {
+                store.updateJob(job.id(), BulkJobStatus.SUBMITTED);
+            }
+            return;
+        }
+        // items of failed batches were translated online, the job as a whole did not go through the batch API
+        var status = statuses.contains(BulkJobStatus.FAILED) ? BulkJobStatus.FAILED : BulkJobStatus.COMPLETED;
+        store.updateJob(job.id(), status);
+        log.info("Bulk translation job {} {}", job.id(), status == BulkJobStatus.FAILED ? "failed, partly translated online" : "completed");
+    }
+
+    /**
+     * Splits the job into consecutive item ranges that stay within the provider limits of a batch, in requests and in file size.
+     */
+    List<BulkBatch> planBatches(BulkJob job) throws IOException {
+        var maxBytes = config.maxBatchSize().toBytes();
+        var batches = new ArrayList<BulkBatch>();
+        var first = -1;
+        var last = -1;
+        var bytes = 0L;
+        try (var items = store.streamItems(job.id(), 0, Integer.MAX_VALUE)) {
+            for (var item : (Iterable<BulkItem>) items::iterator) {
+                // one line of the JSONL file, with its line break
+                var lineBytes = objectMapper.writeValueAsBytes(requestLine(item)).length + 1L;
+                if (first >= 0 && (item.index() - first >= config.maxBatchRequests() || bytes + lineBytes > maxBytes)) {
+                    batches.add(new BulkBatch(batches.size(), first, last, BulkJobStatus.PENDING, null, 0));
+                    first = -1;
+                    bytes = 0;
+                }
+                if (first < 0) {
+                    first = item.index();
+                }
+                last = item.index();
+                bytes += lineBytes;
+            }
+        }
+        if (first >= 0) {
+            batches.add(new BulkBatch(batches.size(), first, last, BulkJobStatus.PENDING, null, 0));
+        }
+        chunkTransaction.executeWithoutResult(_ -> store.createBatches(job.id(), batches));
+        log.info("Bulk translation job {} split into {} provider batches", job.id(), batches.size());
+        return batches;
+    }
+
+    /**
+     * Submits the batch; once it failed {@code max-submit-attempts} times, its items are translated online instead.
+     */
+    void submitBatch(BulkJob job, BulkBatch batch) throws IOException {
+        var requestsFile = Files.createTempFile("bulk-translation-" + job.id() + "-" + batch.index(), ".jsonl");
+        try {
+            try (var writer = Files.newBufferedWriter(requestsFile, StandardCharsets.UTF_8);
+                 var items = store.streamItems(job.id(), batch.firstItem(), batch.lastItem())) {
+                for (var item : (Iterable<BulkItem>) items::iterator) {
+                    writer.write(objectMapper.writeValueAsString(requestLine(item)));
+                    writer.newLine();
+                }
+            }
+            var batchId = provider.submit(requestsFile);
+            store.updateBatch(job.id(), batch, BulkJobStatus.SUBMITTED, batchId);
+            log.info("Batch {} of bulk translation job {} submitted as provider batch {}", batch.index(), job.id(), batchId);
+        } catch (RuntimeException e) {
+            var attempts = store.recordSubmitFailure(job.id(), batch);
+            if (attempts < config.maxSubmitAttempts()) {
+                log.warn("Failed to submit batch {} of bulk translation job {}, attempt {} of {}, will retry on next poll",
+                    batch.index(), job.id(), attempts, config.maxSubmitAttempts(), e);
+                return;
+            }
+            log.error("Failed to submit batch {} of bulk translation job {} {} times, falling back to online translation",
+                batch.index(), job.id(), attempts, e);
+            fallBackToOnline(job, batch);
+            store.updateBatch(job.id(), batch, BulkJobStatus.FAILED, null);
+        } finally {
+            Files.deleteIfExists(requestsFile);
+        }
+    }
+
+    void checkBatch(BulkJob job, BulkBatch batch) throws IOException {
+        var state = provider.status(batch.providerBatchId());
+        if (state.isFailed()) {
+            log.warn("Provider batch {} of job {} ended with status {}, falling back to online translation",
+                batch.providerBatchId(), job.id(), state.status());
+            fallBackToOnline(job, batch);
+            store.updateBatch(job.id(), batch, BulkJobStatus.FAILED, batch.providerBatchId());
+            return;
+        }
+        if (!state.isCompleted()) {
+            log.debug("Provider batch {} of job {} is {}", batch.providerBatchId(), job.id(), state.status());
+            return;
+        }
+
+        if (state.outputFileId() != null) {
+            var resultsFile = Files.createTempFile("bulk-translation-" + job.id() + "-" + batch.index(), ".results.jsonl");
+            try {
+                provider.download(state.outputFileId(), resultsFile);
+                publishResults(job, resultsFile);
+            } finally {
+                Files.deleteIfExists(resultsFile);
+            }
+        }
+        // whatever is not in the output file (the error file lines) is translated online
+        fallBackToOnline(job, batch);
+        store.updateBatch(job.id(), batch, BulkJobStatus.COMPLETED, batch.providerBatchId());
+        log.info("Provider batch {} of job {} collected", batch.providerBatchId(), job.id());
+    }
+
+    Map<String, Object> requestLine(BulkItem item) {
+        return Map.of(
+            "custom_id", String.valueOf(item.index()),
+            "method", "POST",
+            "url", "/v1/chat/completions",
+            "body", Map.of(
+                "model", ChatTranslator.MODEL,
+                "temperature", ChatTranslator.TEMPERATURE,
+                "messages", List.of(Map.of("role", "user", "content", ChatTranslator.promptFor(item.request()))),
+                "response_format", Map.of(
+                    "type", "json_schema",
+                    "json_schema", Map.of("name", "translation", "strict", true, "schema", responseSchema))));
+    }
+
+    private void publishResults(BulkJob job, Path resultsFile) throws IOException {
+        try (var lines = Files.lines(resultsFile, StandardCharsets.UTF_8)) {
+            var chunk = new HashMap<Integer, String>();
+            for (var line : (Iterable<String>) lines::iterator) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                parseResult(line).ifPresent(result -> chunk.put(result.index(), result.translation()));
+                if (chunk.size() >= config.chunkSize()) {
+                    publishChunk(job.id(), chunk);
+                    chunk.clear();
+                }
+            }
+            publishChunk(job.id(), chunk);
+        }
+    }
+
+    private void publishChunk(UUID jobId, Map<Integer, String> translations) {
+        if (translations.isEmpty()) {
+            return;
+        }
+        chunkTransaction.executeWithoutResult(_ -> {
+            var items = store.findItems(jobId, translations.keySet());
+            for (var item : items) {
+                var translation = translations.get(item.index());
+                translationMemory.remember(TranslationKey.of(item.request()), translation);
+                publisher.publishTranslationReady(item.request(), translation, Scheduling.bulk(null));
+            }
+            store.markCompleted(jobId, items.stream().map(BulkItem::index).toList());
+        });
+    }
+
+    private void fallBackToOnline(BulkJob job, BulkBatch batch) {
+        List<BulkItem> items;
+        while (!(items = store.findIncompleteItems(job.id(), batch, config.chunkSize())).isEmpty()) {
+            var chunk = items;
+            chunkTransaction.executeWithoutResult(_ -> {
+                chunk.forEach(item -> publisher.publishReadyToTranslate(item.request(), Scheduling.bulk(null)));
+                store.markCompleted(job.id(), chunk.stream().map(BulkItem::index).toList());
+            });
+            log.info("Job {}: {} items handed over to online translation", job.id(), chunk.size());
+        }
+    }
+
+    private Optional<BulkResult> parseResult(String line) {
+        try {
+            var result = objectMapper.readTree(line);
+            var index = Integer.parseInt(result.get("custom_id").asText());
+            var response = result.get("response");
+            if (response == null || response.isNull() || response.get("status_code").asInt() != 200) {
+                log.warn("Bulk item {} failed: {}", index, result.get("error"));
+                return Optional.empty();
+            }
+            var content = response.at("/body/choices/0/message/content").asText();
+            return Optional.of(new BulkResult(index, responseMapper.mapContent(content)));
+        } catch (Exception e) {
+            // the item stays incomplete and is translated online
+            log.warn("Skipping unreadable bulk result line: {}", line, e);
+            return Optional.empty();
+        }
+    }
+
+    private record BulkResult(int index, String translation) {
+
+    }
+}
@@ -0,0 +1,273 @@
+package co.sheet.gpttranslationprovider.open_ai;
+
+import co.sheet.gpttranslationprovider.TranslationRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.ai.openai.api.ResponseFormat;
+import org.springframework.ai.openai.api.ResponseFormat.Type;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+/**
+ * Owns the prompts and response schemas and is the only place that calls the chat model. Blocking calls wait for the
+ * {@link TokenBudget} and go through the {@link ModelLimiter} and the {@link ModelCircuit}; streams are interactive and are only charged
+ * to the budget.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class ChatTranslator {
+
+    final OpenAiChatModel chatModel;
+    final ResponseMapper responseMapper;
+    final ObjectMapper objectMapper;
+    final ModelLimiter modelLimiter;
+    final TokenBudget tokenBudget;
+    final ModelCircuit modelCircuit;
+
+    static final String MODEL = "gpt-5.1";
+    static final double TEMPERATURE = 0.4;
+
+    static final String RESPONSE_SCHEMA = """
+        {
+          "type": "object",
+          "properties": {
+            "translatedText": {
+              "type": "string",
+              "description": "The translated text"
+            },
+            "sourceLanguage": {
+              "type": "string",
+              "description": "Detected or provided source language code"
+            },
+            "targetLanguage": {
+              "type": "string",
+              "description": "Target language code"
+            },
+            "confidence": {
+              "type": "string",
+              "enum": ["high", "medium", "low"],
+              "description": "Translation confidence level"
+            }
+          },
+          "required": ["translatedText", "sourceLanguage", "targetLanguage", "confidence"],
+          "additionalProperties": false
+        }
+        """;
+
+    static final String MULTI_LOCALE_RESPONSE_SCHEMA = """
+        {
+          "type": "object",
+          "properties": {
+            "translations": {
+              "type": "array",
+              "items": {
+                "type": "object",
+                "properties": {
+                  "translatedText": {
+                    "type": "string",
+                    "description": "The translated text"
+                  },
+                  "targetLanguage": {
+                    "type": "string",
+                    "description": "Target language code exactly as requested"
+                  },
+                  "confidence": {
+                    "type": "string",
+                    "enum": ["high", "medium", "low"],
+                    "description": "Translation confidence level"
+                  }
+                },
+                "required": ["translatedText", "targetLanguage", "confidence"],
+                "additionalProperties": false
+              }
+            }
+          },
+          "required": ["translations"],
+          "additionalProperties": false
+        }
+        """;
+
+    static final String BATCH_RESPONSE_SCHEMA = """
+        {
+          "type": "object",
+          "properties": {
+            "translations": {
+              "type": "array",
+              "items": {
+                "type": "object",
+                "properties": {
+                  "index": {
+                    "type": "integer",
+                    "description": "Index of the input text this translation belongs to"
+                  },
+                  "translatedText": {
+                    "type": "string",
+                    "description": "The translated text"
+                  }
+                },
+                "required": ["index", "translatedText"],
+                "additionalProperties": false
+              }
+            }
+          },
+          "required": ["translations"],
+          "additionalProperties": false
+        }
+        """;
+
+    static final String DEFAULT_TRANSLATION_PROMPT = """
+        You are a professional translator specializing in e-commerce photo descriptions.
+
+        Translate the following text from {SOURCE_LANGUAGE} to {TARGET_LANGUAGE}.
+
+        Original text: "{VALUE}"
+
+        Requirements:
+        - Maintain the tone and style appropriate for product photography descriptions
+        - Preserve any technical terms or brand names
+        - Keep the same level of formality
+        - Ensure cultural appropriateness for the target locale
+        """;
+
+    static final String MULTI_LOCALE_TRANSLATION_PROMPT = """
+        You are a professional translator specializing in e-commerce photo descriptions.
+
+        Translate the following text from {SOURCE_LANGUAGE} to each of these languages: {TARGET_LANGUAGES}.
+
+        Original text: "{VALUE}"
+
+        Requirements:
+        - Maintain the tone and style appropriate for product photography descriptions
+        - Preserve any technical terms or brand names
+        - Keep the same level of formality
+        - Ensure cultural appropriateness for each target locale
+        - Return exactly one translation per requested language and copy its language code as given
+        """;
+
+    static final String BATCH_TRANSLATION_PROMPT = """
+        You are a professional translator specializing in e-commerce photo descriptions.
+
+        Translate each of the following texts from {SOURCE_LANGUAGE} to {TARGET_LANGUAGE}.
+        The texts are given as a JSON array of objects with an index and a text.
+
+        Texts: {VALUES}
+
+        Requirements:
+        - Maintain the tone and style appropriate for product photography descriptions
+        - Preserve any technical terms or brand names
+        - Keep the same level of formality
+        - Ensure cultural appropriateness for the target locale
+        - Translate every text on its own and return exactly one translation per index
+        """;
+
+    static final String STREAMING_TRANSLATION_PROMPT = """
+        You are a professional translator specializing in e-commerce photo descriptions.
+
+        Translate the following text from {SOURCE_LANGUAGE} to {TARGET_LANGUAGE}.
+
+        Original text: "{VALUE}"
+
+        Requirements:
+        - Maintain the tone and style appropriate for product photography descriptions
+        - Preserve any technical terms or brand names
+        - Keep the same level of formality
+        - Ensure cultural appropriateness for the target locale
+        - Answer with the translated text only, without quotes or comments
+        """;
+
+    String translate(TranslationRequest request) {
+        return responseMapper.map(call(promptFor(request), RESPONSE_SCHEMA));
+    }
+
+    static String promptFor(TranslationRequest request) {
+        return DEFAULT_TRANSLATION_PROMPT
+            .replace("{VALUE}", request.value())
+            .replace("{SOURCE_LANGUAGE}", request.sourceLocale())
+            .replace("{TARGET_LANGUAGE}", request.targetLocale());
+    }
+
+    /**
+     * Translates one text to several locales with a single model call.
+     *
+     * @return translations keyed by lower-cased target locale, locales missing in the response are missing in the map
+     */
+    Map<String, String> translateToLocales(String value, String sourceLocale, Collection<String> targetLocales) {
+        var promptText = MULTI_LOCALE_TRANSLATION_PROMPT
+            .replace("{VALUE}", value)
+            .replace("{SOURCE_LANGUAGE}", sourceLocale)
+            .replace("{TARGET_LANGUAGES}", String.join(", ", targetLocales));
+
+        return responseMapper.mapLocales(call(promptText, MULTI_LOCALE_RESPONSE_SCHEMA));
+    }
+
+    /**
+     * Translates several texts of the same locale pair with a single model call.
+     *
+     * @return translations keyed by the index of the input text, texts missing in the response are missing in the map
+     */
+    Map<Integer, String> translateBatch(String sourceLocale, String targetLocale, List<String> values) {
+        var indexedValues = IntStream.range(0, values.size())
+                                     .mapToObj(index -> Map.of("index", index, "text", values.get(index)))
+                                     .toList();
+        String valuesJson;
+        try {
+            valuesJson = objectMapper.writeValueAsString(indexedValues);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize batch input", e);
+        }
+
+        var promptText = BATCH_TRANSLATION_PROMPT
+            .replace("{SOURCE_LANGUAGE}", sourceLocale)
+            .replace("{TARGET_LANGUAGE}", targetLocale)
+            .replace("{VALUES}", valuesJson);
+
+        return responseMapper.mapBatch(call(promptText, BATCH_RESPONSE_SCHEMA));
+    }
+
+    /**
+     * Streams the plain translated text as the model generates it. No response schema is used here, a JSON document is of no use for
+     * partial rendering.
+     */
+    Flux<String> stream(TranslationRequest request) {
+        var promptText = STREAMING_TRANSLATION_PROMPT
+            .replace("{VALUE}", request.value())
+            .replace("{SOURCE_LANGUAGE}", request.sourceLocale())
+            .replace("{TARGET_LANGUAGE}", request.targetLocale());
+
+        var options = OpenAiChatOptions
+            .builder()
+            .model(MODEL)
+            .temperature(TEMPERATURE)
+            .build();
+
+        tokenBudget.charge(promptText);
+        return chatModel.stream(new Prompt(promptText, options))
+                        .mapNotNull(chunk -> chunk.getResult() == null ? null : chunk.getResult().getOutput().getText())
+                        .filter(text -> !text.isEmpty());
+    }
+
+    private ChatResponse call(String promptText, String responseSchema) {
+        var options = OpenAiChatOptions
+            .builder()
+            .model(MODEL)
+            .temperature(TEMPERATURE)
+            .responseFormat(new ResponseFormat(Type.JSON_SCHEMA, responseSchema))
+            .build();
+
+        var prompt = new Prompt(promptText, options);
+        // no budget is spent on a call that would be refused anyway
+        modelCircuit.checkPermitted();
+        return tokenBudget.call(promptText, () -> modelLimiter.call(() -> modelCircuit.call(() -> chatModel.call(prompt))));
+    }
+}
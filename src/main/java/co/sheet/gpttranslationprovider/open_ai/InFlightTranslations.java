@@ -0,0 +1,62 @@
+package co.sheet.gpttranslationprovider.open_ai;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Single-flight for translations: the first caller for a key runs the translation, concurrent callers with the same key wait for its
+ * result instead of starting their own model call. Failures are propagated to every waiter, so each event publication stays incomplete
+ * and is retried on its own.
+ */
+@Slf4j
+@Component
+class InFlightTranslations {
+
+    final Map<TranslationKey, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    final Counter coalesced;
+
+    InFlightTranslations(MeterRegistry meterRegistry) {
+        this.coalesced = meterRegistry.counter("translation.inflight.coalesced");
+        meterRegistry.gaugeMapSize("translation.inflight.size", Tags.empty(), inFlight);
+    }
+
+    String translate(TranslationKey key, Supplier<String> translation) {
+        var pending = new CompletableFuture<String>();
+        var leader = inFlight.putIfAbsent(key, pending);
+        if (leader != null) {
+            coalesced.increment();
+            log.debug("Joining in-flight translation for key={}", key);
+            return await(leader);
+        }
+
+        try {
+            var result = translation.get();
+            pending.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, pending);
+        }
+    }
+
+    private String await(CompletableFuture<String> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package co.sheet.gpttranslationprovider.open_ai;
+
+import co.sheet.gpttranslationprovider.TranslationRequest;
+import co.sheet.gpttranslationprovider.flow_control.Accumulator;
+import co.sheet.gpttranslationprovider.flow_control.Accumulator.Entry;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Collects requests for the same text and source locale that arrive within a short window (a {@code translateAll} for one key usually
+ * carries 10-20 target locales) and translates them with one multi-locale model call. Single requests go on to the
+ * {@link TranslationBatcher}, locales the model skipped go through the regular single translation.
+ */
+@Slf4j
+@Component
+class LocaleFanOut {
+
+    final ChatTranslator chatTranslator;
+    final TranslationBatcher translationBatcher;
+    final LocaleFanOutConfig config;
+    final Accumulator<FanOutKey, TranslationRequest, String> accumulator;
+    final DistributionSummary groupSizes;
+
+    LocaleFanOut(
+        ChatTranslator chatTranslator,
+        TranslationBatcher translationBatcher,
+        LocaleFanOutConfig config,
+        MeterRegistry meterRegistry) {
+        this.chatTranslator = chatTranslator;
+        this.translationBatcher = translationBatcher;
+        this.config = config;
+        this.accumulator = new Accumulator<>("locale-fan-out", config.maxLocales(), config.window(), this::translateGroup);
+        this.groupSizes = DistributionSummary.builder("translation.fanout.locales").register(meterRegistry);
+    }
+
+    String translate(TranslationRequest request) {
+        if (!config.enabled()) {
+            return translationBatcher.translate(request);
+        }
+        var key = new FanOutKey(TranslationKey.contentHash(request.value()), normalize(request.sourceLocale()));
+        return accumulator.submitAndWait(key, request);
+    }
+
+    void translateGroup(FanOutKey key, List<Entry<TranslationRequest, String>> entries) {
+        groupSizes.record(entries.size());
+        if (entries.size() == 1) {
+            var entry = entries.getFirst();
+            entry.complete(() -> translationBatcher.translate(entry.item()));
+            return;
+        }
+
+        var first = entries.getFirst().item();
+        var targetLocales = entries.stream().map(entry -> entry.item().targetLocale()).distinct().toList();
+        log.info("Translating one text to {} locales in one call, source={}", targetLocales.size(), first.sourceLocale());
+
+        Map<String, String> translations;
+        try {
+            translations = chatTranslator.translateToLocales(first.value(), first.sourceLocale(), targetLocales);
+        } catch (IllegalArgumentException e) {
+            // the model answered but not in the expected shape, every locale falls back to a single translation
+            log.warn("Malformed multi-locale response for key={}, falling back to single translations", key, e);
+            translations = Map.of();
+        }
+
+        // the accumulator fails entries left incomplete once this method returns, so wait for the fallbacks
+        try (var fallbacks = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (var entry : entries) {
+                var translation = translations.get(normalize(entry.item().targetLocale()));
+                if (translation != null) {
+                    entry.result().complete(translation);
+                } else {
+                    fallbacks.execute(() -> entry.complete(() -> chatTranslator.translate(entry.item())));
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        accumulator.close();
+    }
+
+    private static String normalize(String locale) {
+        return locale.strip().toLowerCase(Locale.ROOT);
+    }
+
+    record FanOutKey(String contentHash, String sourceLocale) {
+
+    }
+}
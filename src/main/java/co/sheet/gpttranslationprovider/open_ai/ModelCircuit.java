@@ -0,0 +1,72 @@
+package co.sheet.gpttranslationprovider.open_ai;
+
+import co.sheet.gpttranslationprovider.flow_control.Bulkhead;
+import co.sheet.gpttranslationprovider.flow_control.CircuitBreaker;
+import co.sheet.gpttranslationprovider.flow_control.PausedEvents;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.function.Supplier;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Circuit breaker and bulkhead of the chat model. While the model keeps failing, translations fail fast instead of queueing for it; their
+ * events are paused and resubmitted as soon as the probes succeed again.
+ */
+@Component
+class ModelCircuit {
+
+    final ModelCircuitConfig config;
+    final CircuitBreaker breaker;
+    final Bulkhead bulkhead;
+    final PausedEvents pausedEvents;
+
+    ModelCircuit(ModelCircuitConfig config, ApplicationEventPublisher publisher, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.breaker = new CircuitBreaker(
+            "openai",
+            new CircuitBreaker.Settings(
+                config.failureRateThreshold(), config.slidingWindow(), config.minimumCalls(), config.openDuration(), config.halfOpenCalls()),
+            ModelCircuit::isFailure,
+            meterRegistry);
+        this.bulkhead = new Bulkhead("openai", config.maxConcurrent(), config.maxWait(), meterRegistry);
+        this.pausedEvents = new PausedEvents("openai", config.maxPaused(), publisher, meterRegistry);
+        breaker.onClose(pausedEvents::resubmit);
+    }
+
+    <T> T call(Supplier<T> modelCall) {
+        if (!config.enabled()) {
+            return modelCall.get();
+        }
+        return breaker.call(() -> bulkhead.call(modelCall));
+    }
+
+    /**
+     * @throws co.sheet.gpttranslationprovider.flow_control.CallNotPermittedException if the breaker is open
+     */
+    void checkPermitted() {
+        if (config.enabled()) {
+            breaker.checkPermitted();
+        }
+    }
+
+    void pause(ReadyToTranslateEvent event) {
+        pausedEvents.pause(event);
+    }
+
+    static boolean isFailure(Throwable failure) {
+        if (ModelLimiter.overloadReason(failure).isPresent()) {
+            return true;
+        }
+        for (var cause = failure; cause != null; cause = cause.getCause()) {
+            // Spring AI reports 5xx responses as transient once its own retries are used up
+            if (cause instanceof TransientAiException || cause instanceof HttpServerErrorException
+                || cause instanceof ResourceAccessException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
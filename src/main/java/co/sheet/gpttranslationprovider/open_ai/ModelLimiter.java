@@ -0,0 +1,67 @@
+package co.sheet.gpttranslationprovider.open_ai;
+
+import co.sheet.gpttranslationprovider.flow_control.AdaptiveLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+/**
+ * Bounds the concurrent model calls with an {@link AdaptiveLimiter}. Calls rejected with 429 or timed out go back into the queue behind the
+ * (now lower) limit up to {@code maxAttempts} times, instead of leaving their publication incomplete until the next resubmission.
+ */
+@Slf4j
+@Component
+class ModelLimiter {
+
+    static final String RATE_LIMITED = "rate_limited";
+    static final String TIMEOUT = "timeout";
+
+    final ModelLimiterConfig config;
+    final AdaptiveLimiter limiter;
+
+    ModelLimiter(ModelLimiterConfig config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.limiter = new AdaptiveLimiter(
+            "openai",
+            new AdaptiveLimiter.Settings(
+                config.initialLimit(), config.minLimit(), config.maxLimit(), config.healthyLatency(), config.backoffRatio()),
+            ModelLimiter::overloadReason,
+            meterRegistry);
+    }
+
+    <T> T call(Supplier<T> modelCall) {
+        if (!config.enabled()) {
+            return modelCall.get();
+        }
+        for (var attempt = 1; ; attempt++) {
+            try {
+                return limiter.call(modelCall);
+            } catch (RuntimeException e) {
+                if (attempt >= config.maxAttempts() || overloadReason(e).isEmpty()) {
+                    throw e;
+                }
+                log.info("Model call attempt {} of {} was rejected, queueing it again", attempt, config.maxAttempts());
+            }
+        }
+    }
+
+    static Optional<String> overloadReason(Throwable failure) {
+        for (var cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HttpClientErrorException.TooManyRequests
+                // Spring AI reports provider errors as "<status> - <body>"
+                || cause.getMessage() != null && cause.getMessage().startsWith("429")) {
+                return Optional.of(RATE_LIMITED);
+            }
+            if (cause instanceof SocketTimeoutException || cause instanceof HttpTimeoutException || cause instanceof TimeoutException) {
+                return Optional.of(TIMEOUT);
+            }
+        }
+        return Optional.empty();
+    }
+}
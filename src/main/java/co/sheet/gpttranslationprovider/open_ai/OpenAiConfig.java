@@ -0,0 +1,111 @@
+package co.sheet.gpttranslationprovider.open_ai;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+@Configuration
+@EnableConfigurationProperties({
+    TranslationMemoryConfig.class,
+    LocaleFanOutConfig.class,
+    TranslationBatchingConfig.class,
+    BulkTranslationConfig.class,
+    ModelLimiterConfig.class,
+    TokenBudgetConfig.class,
+    TranslationLanesConfig.class,
+    UserQuotasConfig.class,
+    ModelCircuitConfig.class
+})
+class OpenAiConfig {
+
+}
+
+@ConfigurationProperties(prefix = "translation.memory")
+record TranslationMemoryConfig(
+    boolean enabled,
+    long maxSize,
+    Duration ttl,
+    Duration sharedTtl) {
+
+}
+
+@ConfigurationProperties(prefix = "translation.fan-out")
+record LocaleFanOutConfig(
+    boolean enabled,
+    int maxLocales,
+    Duration window) {
+
+}
+
+@ConfigurationProperties(prefix = "translation.batching")
+record TranslationBatchingConfig(
+    boolean enabled,
+    int maxSize,
+    Duration window,
+    int maxChars) {
+
+}
+
+@ConfigurationProperties(prefix = "translation.bulk")
+record BulkTranslationConfig(
+    String baseUrl,
+    String apiKey,
+    int chunkSize,
+    int maxBatchRequests,
+    DataSize maxBatchSize,
+    int maxSubmitAttempts) {
+
+}
+
+@ConfigurationProperties(prefix = "translation.limiter")
+record ModelLimiterConfig(
+    boolean enabled,
+    int initialLimit,
+    int minLimit,
+    int maxLimit,
+    Duration healthyLatency,
+    double backoffRatio,
+    int maxAttempts) {
+
+}
+
+@ConfigurationProperties(prefix = "translation.budget")
+record TokenBudgetConfig(
+    boolean enabled,
+    long tokensPerMinute,
+    long requestsPerMinute,
+    double utilization,
+    double completionRatio) {
+
+}
+
+@ConfigurationProperties(prefix = "translation.lanes")
+record TranslationLanesConfig(
+    int concurrency,
+    long quantum) {
+
+}
+
+@ConfigurationProperties(prefix = "translation.user-quotas")
+record UserQuotasConfig(
+    boolean enabled,
+    int concurrency,
+    long tokensPerMinute) {
+
+}
+
+@ConfigurationProperties(prefix = "translation.circuit-breaker")
+record ModelCircuitConfig(
+    boolean enabled,
+    double failureRateThreshold,
+    int slidingWindow,
+    int minimumCalls,
+    Duration openDuration,
+    int halfOpenCalls,
+    int maxConcurrent,
+    Duration maxWait,
+    int maxPaused) {
+
+}
@@ -1,14 +1,15 @@
 package co.sheet.gpttranslationprovider.open_ai;
 
+import co.sheet.gpttranslationprovider.flow_control.CallNotPermittedException;
+import co.sheet.gpttranslationprovider.flow_control.DeadlineExceededException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.model.ChatResponse;
-import org.springframework.ai.chat.prompt.Prompt;
-import org.springframework.ai.openai.OpenAiChatModel;
-import org.springframework.ai.openai.OpenAiChatOptions;
-import org.springframework.ai.openai.api.ResponseFormat;
-import org.springframework.ai.openai.api.ResponseFormat.Type;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.scheduling.annotation.Async;
@@ -16,84 +17,93 @@ import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.event.TransactionalEventListener;
 
+/**
+ * Translates {@link ReadyToTranslateEvent}s. They are dispatched in memory to the instance that published them, or through the durable
+ * work queue of the event management module with {@code translation.queue.enabled}, which calls {@link #process} on any instance.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
-class OpenAiService {
+public class OpenAiService {
+
+    /**
+     * Id of the in-memory listener in the publication registry, the default id Spring derives from the method. Publications registered
+     * for it in bulk are resubmitted to that listener like any other.
+     */
+    public static final String LISTENER_ID =
+        "co.sheet.gpttranslationprovider.open_ai.OpenAiService.translate(co.sheet.gpttranslationprovider.open_ai.ReadyToTranslateEvent)";
 
-    final OpenAiChatModel chatModel;
     final TranslationEventPublisher publisher;
-    final ResponseMapper responseMapper;
-
-    static final String RESPONSE_SCHEMA = """
-        {
-          "type": "object",
-          "properties": {
-            "translatedText": {
-              "type": "string",
-              "description": "The translated text"
-            },
-            "sourceLanguage": {
-              "type": "string",
-              "description": "Detected or provided source language code"
-            },
-            "targetLanguage": {
-              "type": "string",
-              "description": "Target language code"
-            },
-            "confidence": {
-              "type": "string",
-              "enum": ["high", "medium", "low"],
-              "description": "Translation confidence level"
-            }
-          },
-          "required": ["translatedText", "sourceLanguage", "targetLanguage", "confidence"],
-          "additionalProperties": false
-        }
-        """;
-
-    static final String DEFAULT_TRANSLATION_PROMPT = """
-        You are a professional translator specializing in e-commerce photo descriptions.
-        
-        Translate the following text from {SOURCE_LANGUAGE} to {TARGET_LANGUAGE}.
-        
-        Original text: "{VALUE}"
-        
-        Requirements:
-        - Maintain the tone and style appropriate for product photography descriptions
-        - Preserve any technical terms or brand names
-        - Keep the same level of formality
-        - Ensure cultural appropriateness for the target locale
-        """;
+    final TranslationMemory translationMemory;
+    final InFlightTranslations inFlightTranslations;
+    final LocaleFanOut localeFanOut;
+    final TranslationLanes translationLanes;
+    final ModelCircuit modelCircuit;
+    final TranslationBacklog translationBacklog;
 
     @Async
-    @TransactionalEventListener
+    @TransactionalEventListener(id = LISTENER_ID, condition = "@translationDispatch.inMemory()")
     @Retryable(
         retryFor = {Exception.class},
         maxAttempts = 1,
         backoff = @Backoff(delay = 1000, multiplier = 2, maxDelay = 10000, random = true)
     )
     void translate(ReadyToTranslateEvent event) {
-        var request = event.translationRequest();
-        log.info("Translating '{}' for orderId={} to locale={}", request.value(), request.orderId(), request.targetLocale());
-        var promptText = DEFAULT_TRANSLATION_PROMPT
-            .replace("{VALUE}", request.value())
-            .replace("{SOURCE_LANGUAGE}", request.sourceLocale())
-            .replace("{TARGET_LANGUAGE}", request.targetLocale());
+        process(event);
+    }
 
-        var options = OpenAiChatOptions
-            .builder()
-            .model("gpt-5.1")
-            .temperature(0.4)
-            .responseFormat(new ResponseFormat(Type.JSON_SCHEMA, RESPONSE_SCHEMA))
-            .build();
+    /**
+     * Translates on the calling thread and publishes the result. Returns normally when the translation is done or dropped for its
+     * deadline, throws if it should be tried again.
+     */
+    public void process(ReadyToTranslateEvent event) {
+        translationBacklog.hold(event);
+        try {
+            translateHeld(event);
+        } finally {
+            translationBacklog.release(event);
+        }
+    }
+
+    private void translateHeld(ReadyToTranslateEvent event) {
+        var request = event.translationRequest();
+        var scheduling = event.scheduling();
+        var key = TranslationKey.of(request);
 
-        var prompt = new Prompt(promptText, options);
-        var chatResponse = chatModel.call(prompt);
+        var remembered = translationMemory.find(key);
+        if (remembered.isPresent()) {
+            log.info("Translation memory hit for orderId={} to locale={}", request.orderId(), request.targetLocale());
+            publisher.publishTranslationReady(request, remembered.get(), scheduling);
+            return;
+        }
 
-        var translationResult = responseMapper.map(chatResponse);
+        String translationResult;
+        try {
+            // fail fast while the model is down instead of queueing for it
+            modelCircuit.checkPermitted();
+            translationResult = translationLanes.call(request, scheduling, () -> {
+                log.info("Translating '{}' for orderId={} to locale={}", request.value(), request.orderId(), request.targetLocale());
+                return inFlightTranslations.translate(key, () -> {
+                    var result = localeFanOut.translate(request);
+                    translationMemory.remember(key, result);
+                    return result;
+                });
+            });
+        } catch (DeadlineExceededException e) {
+            // the publication completes, the caller is no longer waiting for this translation
+            log.warn("Dropped translation for orderId={} masterCopyKeyId={} to locale={}: {}",
+                request.orderId(), request.masterCopyKeyId(), request.targetLocale(), e.getMessage());
+            return;
+        } catch (RuntimeException e) {
+            if (CallNotPermittedException.isBreakerOpen(e)) {
+                // the publication stays incomplete and is resubmitted once the model recovers
+                modelCircuit.pause(event);
+                log.info("Paused translation for orderId={} to locale={}: {}", request.orderId(), request.targetLocale(), e.getMessage());
+            }
+            throw e;
+        }
 
-        publisher.publishTranslationReady(request, translationResult);
+        publisher.publishTranslationReady(request, translationResult, scheduling);
         log.info("Translation ready for orderId={}, result='{}'", request.orderId(), translationResult);
     }
 }
@@ -106,8 +116,14 @@ class ResponseMapper {
     final ObjectMapper objectMapper;
 
     String map(ChatResponse translationResponse) {
+        return mapContent(translationResponse.getResult().getOutput().getText());
+    }
+
+    /**
+     * Maps the raw message content of a single translation response, as returned by the chat or the batch API.
+     */
+    String mapContent(String translationResult) {
         try {
-            var translationResult = translationResponse.getResult().getOutput().getText();
             var jsonResponse = objectMapper.readTree(translationResult);
             var translatedText = jsonResponse.get("translatedText").asText();
             log.info("OpenAI confidence: {}", jsonResponse.get("confidence").asText());
@@ -116,6 +132,66 @@ class ResponseMapper {
             throw new IllegalArgumentException("Error occurred while parsing gpt response!", e);
         }
     }
+
+    /**
+     * Maps a multi-locale response to translations keyed by lower-cased target locale.
+     */
+    Map<String, String> mapLocales(ChatResponse translationResponse) {
+        try {
+            var translationResult = translationResponse.getResult().getOutput().getText();
+            var translations = objectMapper.readTree(translationResult).get("translations");
+            if (translations == null || !translations.isArray()) {
+                throw new IllegalStateException("Response has no translations array");
+            }
+
+            var byLocale = new HashMap<String, String>();
+            for (var translation : translations) {
+                byLocale.put(
+                    translation.get("targetLanguage").asText().strip().toLowerCase(Locale.ROOT),
+                    translation.get("translatedText").asText());
+            }
+            return byLocale;
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Error occurred while parsing gpt multi-locale response!", e);
+        }
+    }
+
+    /**
+     * Maps a batch response to translations keyed by the index of the input text.
+     */
+    Map<Integer, String> mapBatch(ChatResponse translationResponse) {
+        try {
+            var translationResult = translationResponse.getResult().getOutput().getText();
+            var translations = objectMapper.readTree(translationResult).get("translations");
+            if (translations == null || !translations.isArray()) {
+                throw new IllegalStateException("Response has no translations array");
+            }
+
+            var byIndex = new HashMap<Integer, String>();
+            for (var translation : translations) {
+                byIndex.put(translation.get("index").asInt(), translation.get("translatedText").asText());
+            }
+            return byIndex;
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Error occurred while parsing gpt batch response!", e);
+        }
+    }
 }
 
+/**
+ * Whether {@link ReadyToTranslateEvent}s go to the in-memory listener, referenced by its condition. Without a listener, the publication
+ * registry stores no publication for them.
+ */
+@Component("translationDispatch")
+class TranslationDispatch {
 
+    final boolean queued;
+
+    TranslationDispatch(@Value("${translation.queue.enabled:false}") boolean queued) {
+        this.queued = queued;
+    }
+
+    public boolean inMemory() {
+        return !queued;
+    }
+}
@@ -0,0 +1,12 @@
+package co.sheet.gpttranslationprovider.open_ai;
+
+/**
+ * Requests estimated above the whole per-user quota. Unlike a quota that is used up for now, waiting does not help, the requests have to
+ * be split.
+ */
+public class QuotaExceededException extends RuntimeException {
+
+    public QuotaExceededException(String message) {
+        super(message);
+    }
+}
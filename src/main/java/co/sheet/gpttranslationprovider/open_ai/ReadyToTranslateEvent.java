@@ -1,5 +1,6 @@
 package co.sheet.gpttranslationprovider.open_ai;
 
+import co.sheet.gpttranslationprovider.Scheduling;
 import co.sheet.gpttranslationprovider.TranslationRequest;
 import co.sheet.gpttranslationprovider.your_notification.TranslationReadyEvent;
 import lombok.RequiredArgsConstructor;
@@ -8,8 +9,21 @@ import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
-public record ReadyToTranslateEvent(TranslationRequest translationRequest) {
+public record ReadyToTranslateEvent(TranslationRequest translationRequest, Scheduling scheduling) {
 
+    public ReadyToTranslateEvent {
+        if (scheduling == null) {
+            scheduling = Scheduling.RESUBMITTED;
+        }
+    }
+
+    public ReadyToTranslateEvent(TranslationRequest translationRequest) {
+        this(translationRequest, Scheduling.bulk(null));
+    }
+
+    public ReadyToTranslateEvent resubmitted() {
+        return new ReadyToTranslateEvent(translationRequest, scheduling.resubmitted());
+    }
 }
 
 @Slf4j
@@ -20,8 +34,14 @@ class TranslationEventPublisher {
     final ApplicationEventPublisher publisher;
 
     @Transactional
-    void publishTranslationReady(TranslationRequest request, String translationResult) {
+    void publishTranslationReady(TranslationRequest request, String translationResult, Scheduling scheduling) {
         log.debug("Publishing TranslationReadyEvent in transaction for orderId={}", request.orderId());
-        publisher.publishEvent(new TranslationReadyEvent(request, translationResult));
+        publisher.publishEvent(new TranslationReadyEvent(request, translationResult, scheduling));
+    }
+
+    @Transactional
+    void publishReadyToTranslate(TranslationRequest request, Scheduling scheduling) {
+        log.debug("Publishing ReadyToTranslateEvent in transaction for orderId={}", request.orderId());
+        publisher.publishEvent(new ReadyToTranslateEvent(request, scheduling));
     }
 }
@@ -0,0 +1,69 @@
+package co.sheet.gpttranslationprovider.open_ai;
+
+import co.sheet.gpttranslationprovider.Scheduling;
+import co.sheet.gpttranslationprovider.TranslationRequest;
+import java.util.concurrent.Executors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Interactive translation for editors: the text is streamed token by token instead of going through the asynchronous event chain.
+ * <p>
+ * The stream itself is non-blocking. Everything that touches the database (the final publication and the translation memory) runs on
+ * virtual threads, so open streams never hold a platform thread.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StreamingTranslations {
+
+    static final Scheduler VIRTUAL_THREADS = Schedulers.fromExecutorService(
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("translation-stream-", 0).factory()), "translation-stream");
+
+    final ChatTranslator chatTranslator;
+    final TranslationMemory translationMemory;
+    final TranslationEventPublisher publisher;
+
+    /**
+     * Streams the translation of the request.
+     *
+     * @param publishWhenDone publish a {@code TranslationReadyEvent} with the full translation once the stream completes
+     */
+    public Flux<String> stream(TranslationRequest request, boolean publishWhenDone) {
+        var key = TranslationKey.of(request);
+
+        var remembered = translationMemory.find(key);
+        if (remembered.isPresent()) {
+            log.info("Translation memory hit for streamed orderId={} to locale={}", request.orderId(), request.targetLocale());
+            var translation = remembered.get();
+            return Flux.just(translation)
+                       .concatWith(publishWhenDone ? publish(request, translation) : Mono.empty());
+        }
+
+        var streamed = new StringBuilder();
+        return chatTranslator.stream(request)
+                             .doOnNext(streamed::append)
+                             .concatWith(Mono.defer(() -> {
+                                 var result = streamed.toString().strip();
+                                 if (result.isEmpty()) {
+                                     return Mono.empty();
+                                 }
+                                 var remember = Mono.<String>fromRunnable(() -> translationMemory.remember(key, result))
+                                                    .subscribeOn(VIRTUAL_THREADS);
+                                 return publishWhenDone ? remember.then(publish(request, result)) : remember;
+                             }));
+    }
+
+    private Mono<String> publish(TranslationRequest request, String translation) {
+        return Mono.<String>fromRunnable(() -> {
+                       publisher.publishTranslationReady(request, translation, Scheduling.interactive(null));
+                       log.info("Streamed translation published for orderId={}", request.orderId());
+                   })
+                   .subscribeOn(VIRTUAL_THREADS);
+    }
+}
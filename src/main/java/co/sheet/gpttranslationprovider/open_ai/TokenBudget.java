@@ -0,0 +1,117 @@
+package co.sheet.gpttranslationprovider.open_ai;
+
+import co.sheet.gpttranslationprovider.ClusterMembersChanged;
+import co.sheet.gpttranslationprovider.flow_control.RateBudget;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.tokenizer.JTokkitTokenCountEstimator;
+import org.springframework.ai.tokenizer.TokenCountEstimator;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the model calls within the provider quota, which is given in tokens and requests per minute. Before a call its tokens are
+ * estimated locally (prompt plus the expected completion) and taken from both budgets; afterwards the estimate is corrected with the usage
+ * reported by the provider, and the expected completion/prompt ratio is learnt from it. A call that fails gives its estimate back.
+ * <p>
+ * The quota is the one of the whole provider account, each instance keeps to its share of it among the live instances.
+ */
+@Slf4j
+@Component
+class TokenBudget {
+
+    static final Duration PERIOD = Duration.ofMinutes(1);
+    // weight of the latest response in the completion ratio
+    static final double RATIO_SMOOTHING = 0.1;
+
+    final TokenBudgetConfig config;
+    final TokenCountEstimator estimator = new JTokkitTokenCountEstimator();
+    final RateBudget tokens;
+    final RateBudget requests;
+    final Timer waitTimer;
+    final DistributionSummary estimateError;
+    volatile double completionRatio;
+
+    TokenBudget(TokenBudgetConfig config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.tokens = new RateBudget("tokens", share(config.tokensPerMinute(), 1), PERIOD);
+        this.requests = new RateBudget("requests", share(config.requestsPerMinute(), 1), PERIOD);
+        this.completionRatio = config.completionRatio();
+        this.waitTimer = meterRegistry.timer("translation.budget.wait");
+        this.estimateError = meterRegistry.summary("translation.budget.estimate.error");
+        meterRegistry.gauge("translation.budget.available", Tags.of("budget", "tokens"), tokens, RateBudget::available);
+        meterRegistry.gauge("translation.budget.available", Tags.of("budget", "requests"), requests, RateBudget::available);
+    }
+
+    ChatResponse call(String promptText, Supplier<ChatResponse> modelCall) {
+        if (!config.enabled()) {
+            return modelCall.get();
+        }
+        var estimated = estimate(promptText);
+        var waited = requests.acquire(1).plus(tokens.acquire(estimated));
+        waitTimer.record(waited);
+        if (waited.compareTo(Duration.ofSeconds(1)) > 0) {
+            log.debug("Waited {} for budget of {} tokens", waited, estimated);
+        }
+
+        ChatResponse response;
+        try {
+            response = modelCall.get();
+        } catch (RuntimeException e) {
+            // the request still counts, the tokens were not spent
+            tokens.adjust(-estimated);
+            throw e;
+        }
+        correct(estimated, response);
+        return response;
+    }
+
+    @EventListener
+    void resize(ClusterMembersChanged changed) {
+        tokens.resize(share(config.tokensPerMinute(), changed.members()));
+        requests.resize(share(config.requestsPerMinute(), changed.members()));
+        log.info("Keeping to 1/{} of the provider quota", changed.members());
+    }
+
+    /**
+     * Accounts for a call that cannot wait for the budget, like an interactive stream.
+     */
+    void charge(String promptText) {
+        if (config.enabled()) {
+            requests.adjust(1);
+            tokens.adjust(estimate(promptText));
+        }
+    }
+
+    long estimate(String promptText) {
+        var promptTokens = estimator.estimate(promptText);
+        return promptTokens + Math.round(promptTokens * completionRatio);
+    }
+
+    private long share(long perMinute, int members) {
+        return Math.max(1, Math.round(perMinute * config.utilization() / members));
+    }
+
+    private void correct(long estimated, ChatResponse response) {
+        var usage = response.getMetadata().getUsage();
+        if (usage == null || usage.getTotalTokens() == null || usage.getTotalTokens() <= 0) {
+            return;
+        }
+        var actual = usage.getTotalTokens().longValue();
+        tokens.adjust(actual - estimated);
+        estimateError.record(Math.abs(actual - estimated));
+
+        var promptTokens = usage.getPromptTokens();
+        var completionTokens = usage.getCompletionTokens();
+        if (promptTokens != null && promptTokens > 0 && completionTokens != null) {
+            var ratio = (double) completionTokens / promptTokens;
+            completionRatio = (1 - RATIO_SMOOTHING) * completionRatio + RATIO_SMOOTHING * ratio;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package co.sheet.gpttranslationprovider.open_ai;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+
+/**
+ * Translations of this instance waiting in memory for the model stage or for the model itself.
+ */
+@Component
+public class TranslationBacklog {
+
+    final TranslationLanes translationLanes;
+    final ModelLimiter modelLimiter;
+    // events being processed on this instance, with the number of times each is held: identical requests are equal events
+    final Map<ReadyToTranslateEvent, Integer> held = new ConcurrentHashMap<>();
+
+    TranslationBacklog(TranslationLanes translationLanes, ModelLimiter modelLimiter, MeterRegistry meterRegistry) {
+        this.translationLanes = translationLanes;
+        this.modelLimiter = modelLimiter;
+        meterRegistry.gauge("translation.backlog.queued", this, TranslationBacklog::queued);
+    }
+
+    public int queued() {
+        return translationLanes.scheduler.queued() + modelLimiter.limiter.queued();
+    }
+
+    /**
+     * Events this instance is still working on, queued or translating; their publications are not failed however long they wait.
+     */
+    public List<ReadyToTranslateEvent> held() {
+        return List.copyOf(held.keySet());
+    }
+
+    void hold(ReadyToTranslateEvent event) {
+        held.merge(event, 1, Integer::sum);
+    }
+
+    void release(ReadyToTranslateEvent event) {
+        held.computeIfPresent(event, (_, count) -> count > 1 ? count - 1 : null);
+    }
+}
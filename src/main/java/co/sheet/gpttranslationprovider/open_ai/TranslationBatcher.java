@@ -0,0 +1,100 @@
+package co.sheet.gpttranslationprovider.open_ai;
+
+import co.sheet.gpttranslationprovider.TranslationRequest;
+import co.sheet.gpttranslationprovider.flow_control.Accumulator;
+import co.sheet.gpttranslationprovider.flow_control.Accumulator.Entry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Micro-batching of short texts: requests with the same locale pair are gathered for up to {@code window} or {@code maxSize} items and
+ * translated with one indexed model call. Every item whose translation is missing, or every item of a malformed response, falls back to a
+ * single translation. Long texts are never batched.
+ */
+@Slf4j
+@Component
+class TranslationBatcher {
+
+    final ChatTranslator chatTranslator;
+    final TranslationBatchingConfig config;
+    final Accumulator<LocalePair, TranslationRequest, String> accumulator;
+
+    final DistributionSummary batchSizes;
+    final Counter batchedItems;
+    final Counter fallbackItems;
+
+    TranslationBatcher(ChatTranslator chatTranslator, TranslationBatchingConfig config, MeterRegistry meterRegistry) {
+        this.chatTranslator = chatTranslator;
+        this.config = config;
+        this.accumulator = new Accumulator<>("translation-batcher", config.maxSize(), config.window(), this::translateBatch);
+        this.batchSizes = DistributionSummary.builder("translation.batch.size").register(meterRegistry);
+        this.batchedItems = meterRegistry.counter("translation.batch.items");
+        this.fallbackItems = meterRegistry.counter("translation.batch.fallbacks");
+        meterRegistry.gauge("translation.batch.pending", accumulator, Accumulator::pendingItems);
+    }
+
+    String translate(TranslationRequest request) {
+        if (!config.enabled() || request.value().length() > config.maxChars()) {
+            return chatTranslator.translate(request);
+        }
+        var key = new LocalePair(normalize(request.sourceLocale()), normalize(request.targetLocale()));
+        return accumulator.submitAndWait(key, request);
+    }
+
+    void translateBatch(LocalePair key, List<Entry<TranslationRequest, String>> entries) {
+        batchSizes.record(entries.size());
+        if (entries.size() == 1) {
+            var entry = entries.getFirst();
+            entry.complete(() -> chatTranslator.translate(entry.item()));
+            return;
+        }
+
+        var first = entries.getFirst().item();
+        var values = entries.stream().map(entry -> entry.item().value()).toList();
+        batchedItems.increment(entries.size());
+        log.info("Translating batch of {} texts from {} to {}", values.size(), first.sourceLocale(), first.targetLocale());
+
+        Map<Integer, String> translations;
+        try {
+            translations = chatTranslator.translateBatch(first.sourceLocale(), first.targetLocale(), values);
+        } catch (IllegalArgumentException e) {
+            log.warn("Malformed batch response for {}, falling back to single translations", key, e);
+            translations = Map.of();
+        }
+
+        // the accumulator fails entries left incomplete once this method returns, so wait for the fallbacks
+        try (var fallbacks = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int index = 0; index < entries.size(); index++) {
+                var entry = entries.get(index);
+                var translation = translations.get(index);
+                if (translation != null) {
+                    entry.result().complete(translation);
+                } else {
+                    fallbackItems.increment();
+                    fallbacks.execute(() -> entry.complete(() -> chatTranslator.translate(entry.item())));
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        accumulator.close();
+    }
+
+    private static String normalize(String locale) {
+        return locale.strip().toLowerCase(Locale.ROOT);
+    }
+
+    record LocalePair(String sourceLocale, String targetLocale) {
+
+    }
+}
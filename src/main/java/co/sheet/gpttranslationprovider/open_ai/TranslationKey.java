@@ -0,0 +1,40 @@
+package co.sheet.gpttranslationprovider.open_ai;
+
+import co.sheet.gpttranslationprovider.TranslationRequest;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Identifies a translation by its content, not by the order it belongs to. Two requests with the same text (modulo surrounding and
+ * repeated whitespace) and the same locale pair share a key.
+ */
+record TranslationKey(String contentHash, String sourceLocale, String targetLocale) {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    static TranslationKey of(TranslationRequest request) {
+        return new TranslationKey(
+            contentHash(request.value()),
+            normalizeLocale(request.sourceLocale()),
+            normalizeLocale(request.targetLocale()));
+    }
+
+    static String contentHash(String value) {
+        var normalized = WHITESPACE.matcher(Normalizer.normalize(value.strip(), Normalizer.Form.NFC)).replaceAll(" ");
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(normalized.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String normalizeLocale(String locale) {
+        return locale.strip().toLowerCase(Locale.ROOT);
+    }
+}
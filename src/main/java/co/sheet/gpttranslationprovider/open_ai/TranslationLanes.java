@@ -0,0 +1,44 @@
+package co.sheet.gpttranslationprovider.open_ai;
+
+import co.sheet.gpttranslationprovider.Lane;
+import co.sheet.gpttranslationprovider.Scheduling;
+import co.sheet.gpttranslationprovider.TranslationRequest;
+import co.sheet.gpttranslationprovider.flow_control.LaneScheduler;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Entry to the model stage: at most {@code translation.lanes.concurrency} translations run at a time, the rest wait in their priority
+ * lane. Within a lane the users take turns weighted by the estimated tokens of their translations, and no user has more than
+ * {@code translation.user-quotas.concurrency} translations running.
+ */
+@Component
+class TranslationLanes {
+
+    final LaneScheduler<Lane> scheduler;
+    final TokenBudget tokenBudget;
+
+    TranslationLanes(TranslationLanesConfig config, UserQuotasConfig quotasConfig, TokenBudget tokenBudget, MeterRegistry meterRegistry) {
+        this.tokenBudget = tokenBudget;
+        this.scheduler = new LaneScheduler<>(
+            "openai",
+            config.concurrency(),
+            quotasConfig.enabled() ? quotasConfig.concurrency() : Integer.MAX_VALUE,
+            config.quantum(),
+            Lane.weights(),
+            meterRegistry);
+    }
+
+    /**
+     * @throws co.sheet.gpttranslationprovider.flow_control.DeadlineExceededException if the deadline passed while queued
+     */
+    <T> T call(TranslationRequest request, Scheduling scheduling, Supplier<T> translation) {
+        return scheduler.call(
+            scheduling.lane(),
+            request.userId(),
+            tokenBudget.estimate(ChatTranslator.promptFor(request)),
+            scheduling.deadline(),
+            translation);
+    }
+}
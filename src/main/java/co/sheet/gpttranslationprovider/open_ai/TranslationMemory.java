@@ -0,0 +1,178 @@
+package co.sheet.gpttranslationprovider.open_ai;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Component;
+
+/**
+ * Two-tier cache of finished translations. L1 is a bounded in-process cache, L2 is the shared {@code translation_memory} table, so a
+ * translation produced by one pod is reused by all of them.
+ * <p>
+ * A newer translation of the same content replaces the stored one and restarts its {@code shared-ttl}. Entries older than that are never
+ * read again and are deleted by {@link #purgeExpired(BooleanSupplier)}.
+ */
+@Slf4j
+@Component
+public class TranslationMemory {
+
+    static final int PURGE_BATCH_SIZE = 1000;
+    static final String UPSERT = """
+                                 INSERT INTO translation_memory (content_hash, source_locale, target_locale, translation, created_at)
+                                 VALUES (:contentHash, :sourceLocale, :targetLocale, :translation, :createdAt)
+                                 ON CONFLICT (content_hash, source_locale, target_locale)
+                                 DO UPDATE SET translation = EXCLUDED.translation, created_at = EXCLUDED.created_at
+                                 """;
+    // H2 knows ON CONFLICT only without a conflict target and with DO NOTHING
+    static final String MERGE = """
+                                MERGE INTO translation_memory (content_hash, source_locale, target_locale, translation, created_at)
+                                KEY (content_hash, source_locale, target_locale)
+                                VALUES (:contentHash, :sourceLocale, :targetLocale, :translation, :createdAt)
+                                """;
+
+    final TranslationMemoryConfig config;
+    final JdbcClient jdbcClient;
+    final boolean postgres;
+    final Cache<TranslationKey, String> localCache;
+
+    final Counter localHits;
+    final Counter sharedHits;
+    final Counter misses;
+    final Counter evictions;
+    final Counter purged;
+
+    TranslationMemory(
+        TranslationMemoryConfig config,
+        JdbcClient jdbcClient,
+        DataSource dataSource,
+        MeterRegistry meterRegistry) throws SQLException {
+        this.config = config;
+        this.jdbcClient = jdbcClient;
+        try (var connection = dataSource.getConnection()) {
+            this.postgres = connection.isWrapperFor(PGConnection.class);
+        }
+        this.localHits = meterRegistry.counter("translation.memory.hits", "tier", "local");
+        this.sharedHits = meterRegistry.counter("translation.memory.hits", "tier", "shared");
+        this.misses = meterRegistry.counter("translation.memory.misses");
+        this.evictions = meterRegistry.counter("translation.memory.evictions");
+        this.purged = meterRegistry.counter("translation.memory.purged");
+        this.localCache = Caffeine.newBuilder()
+                                  .maximumSize(config.maxSize())
+                                  .expireAfterWrite(config.ttl())
+                                  .removalListener((_, _, cause) -> {
+                                      if (cause.wasEvicted()) {
+                                          evictions.increment();
+                                      }
+                                  })
+                                  .build();
+        Gauge.builder("translation.memory.size", localCache, Cache::estimatedSize).register(meterRegistry);
+    }
+
+    Optional<String> find(TranslationKey key) {
+        if (!config.enabled()) {
+            return Optional.empty();
+        }
+
+        var local = localCache.getIfPresent(key);
+        if (local != null) {
+            localHits.increment();
+            return Optional.of(local);
+        }
+
+        var shared = findShared(key);
+        if (shared.isPresent()) {
+            sharedHits.increment();
+            localCache.put(key, shared.get());
+        } else {
+            misses.increment();
+        }
+        return shared;
+    }
+
+    void remember(TranslationKey key, String translation) {
+        if (!config.enabled()) {
+            return;
+        }
+
+        localCache.put(key, translation);
+        try {
+            jdbcClient.sql(postgres ? UPSERT : MERGE)
+                      .param("contentHash", key.contentHash())
+                      .param("sourceLocale", key.sourceLocale())
+                      .param("targetLocale", key.targetLocale())
+                      .param("translation", translation)
+                      .param("createdAt", Timestamp.from(Instant.now()))
+                      .update();
+        } catch (DataAccessException e) {
+            // the shared tier is an optimization, a failed write must not fail the translation itself
+            log.warn("Failed to store translation in shared memory for key={}", key, e);
+        }
+    }
+
+    /**
+     * Deletes the shared entries older than {@code shared-ttl} in batches of {@value #PURGE_BATCH_SIZE}, each its own statement.
+     *
+     * @param leased whether the caller still holds the lease of the run, checked before every batch
+     * @return number of deleted entries
+     */
+    public int purgeExpired(BooleanSupplier leased) {
+        var createdBefore = Timestamp.from(Instant.now().minus(config.sharedTtl()));
+        var deleted = 0;
+        int batch;
+        do {
+            if (!leased.getAsBoolean()) {
+                break;
+            }
+            batch = jdbcClient.sql("""
+                                  DELETE FROM translation_memory
+                                  WHERE (content_hash, source_locale, target_locale) IN (
+                                      SELECT content_hash, source_locale, target_locale FROM translation_memory
+                                      WHERE created_at < :createdBefore
+                                      LIMIT :batchSize)
+                                  """)
+                              .param("createdBefore", createdBefore)
+                              .param("batchSize", PURGE_BATCH_SIZE)
+                              .update();
+            deleted += batch;
+            purged.increment(batch);
+        } while (batch >= PURGE_BATCH_SIZE);
+        if (deleted > 0) {
+            log.info("Purged {} expired translations from the shared memory", deleted);
+        }
+        return deleted;
+    }
+
+    private Optional<String> findShared(TranslationKey key) {
+        try {
+            return jdbcClient.sql("""
+                                 SELECT translation
+                                 FROM translation_memory
+                                 WHERE content_hash = :contentHash
+                                   AND source_locale = :sourceLocale
+                                   AND target_locale = :targetLocale
+                                   AND created_at > :notBefore
+                                 """)
+                             .param("contentHash", key.contentHash())
+                             .param("sourceLocale", key.sourceLocale())
+                             .param("targetLocale", key.targetLocale())
+                             .param("notBefore", Timestamp.from(Instant.now().minus(config.sharedTtl())))
+                             .query(String.class)
+                             .optional();
+        } catch (DataAccessException e) {
+            log.warn("Failed to read shared translation memory for key={}", key, e);
+            return Optional.empty();
+        }
+    }
+}
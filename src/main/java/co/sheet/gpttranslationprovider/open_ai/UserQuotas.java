@@ -0,0 +1,76 @@
+package co.sheet.gpttranslationprovider.open_ai;
+
+import co.sheet.gpttranslationprovider.TranslationRequest;
+import co.sheet.gpttranslationprovider.flow_control.RateBudget;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-user tokens-per-minute quota, checked when translations are accepted. The quota is kept per instance, so a user gets it on every
+ * instance the load balancer sends them to.
+ */
+@Slf4j
+@Component
+public class UserQuotas {
+
+    static final Duration PERIOD = Duration.ofMinutes(1);
+
+    final UserQuotasConfig config;
+    final TokenBudget tokenBudget;
+    final Cache<String, RateBudget> budgets;
+    final Counter rejections;
+
+    UserQuotas(UserQuotasConfig config, TokenBudget tokenBudget, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.tokenBudget = tokenBudget;
+        // an idle user has a full budget anyway, no need to keep it
+        this.budgets = Caffeine.newBuilder().expireAfterAccess(PERIOD.multipliedBy(2)).build();
+        this.rejections = meterRegistry.counter("translation.quota.rejections");
+    }
+
+    /**
+     * Takes the estimated tokens of the requests from the quotas of their users, all or nothing.
+     *
+     * @return {@link Duration#ZERO} if the requests were admitted, otherwise when to retry
+     * @throws QuotaExceededException if the requests of a user are estimated above the whole quota, they would never be admitted
+     */
+    public Duration admit(List<TranslationRequest> requests) {
+        if (!config.enabled() || requests.isEmpty()) {
+            return Duration.ZERO;
+        }
+        var tokensPerUser = requests.stream().collect(Collectors.groupingBy(
+            TranslationRequest::userId,
+            Collectors.summingLong(request -> tokenBudget.estimate(ChatTranslator.promptFor(request)))));
+
+        tokensPerUser.forEach((userId, tokens) -> {
+            if (tokens > config.tokensPerMinute()) {
+                rejections.increment();
+                throw new QuotaExceededException("Requests of user " + userId + " are estimated at " + tokens
+                                                 + " tokens, above the quota of " + config.tokensPerMinute() + " tokens per minute");
+            }
+        });
+
+        var taken = new ArrayList<Map.Entry<RateBudget, Long>>();
+        for (var entry : tokensPerUser.entrySet()) {
+            var budget = budgets.get(entry.getKey(), _ -> new RateBudget(entry.getKey(), config.tokensPerMinute(), PERIOD));
+            var retryAfter = budget.tryAcquire(entry.getValue());
+            if (!retryAfter.isZero()) {
+                taken.forEach(previous -> previous.getKey().adjust(-previous.getValue()));
+                rejections.increment();
+                log.info("User {} is over the quota of {} tokens per minute, retry after {}", entry.getKey(), config.tokensPerMinute(), retryAfter);
+                return retryAfter;
+            }
+            taken.add(Map.entry(budget, entry.getValue()));
+        }
+        return Duration.ZERO;
+    }
+}
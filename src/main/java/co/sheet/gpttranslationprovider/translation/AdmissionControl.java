@@ -0,0 +1,104 @@
+package co.sheet.gpttranslationprovider.translation;
+
+import co.sheet.gpttranslationprovider.event_management.PublicationBacklog;
+import co.sheet.gpttranslationprovider.open_ai.TranslationBacklog;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Locale;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+/**
+ * Turns work away before it is persisted once the backlog grows too large. The backlog is measured by two cheap signals: translations
+ * queued in memory on this instance and incomplete event publications of all instances, with the durable work queue also the translations
+ * queued in it.
+ * <p>
+ * Above the soft thresholds bulk work is rejected while interactive translations are still accepted, above the hard thresholds everything
+ * is rejected.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class AdmissionControl {
+
+    final AdmissionConfig config;
+    final TranslationBacklog translationBacklog;
+    final PublicationBacklog publicationBacklog;
+    final MeterRegistry meterRegistry;
+
+    void admitInteractive() {
+        if (level() == Level.HARD) {
+            reject("interactive", Level.HARD);
+        }
+    }
+
+    void admitBulk(int requests) {
+        var level = level();
+        if (level != Level.NORMAL) {
+            reject("bulk", level);
+        }
+        // one import must not take the backlog past the hard threshold on its own
+        if (config.enabled() && translationBacklog.queued() + requests >= config.hardQueued()) {
+            reject("bulk", Level.SOFT);
+        }
+    }
+
+    /**
+     * Offline bulk jobs do not queue in memory, they are only turned away when the backlog is at the hard threshold.
+     */
+    void admitOfflineBulk() {
+        if (level() == Level.HARD) {
+            reject("offline", Level.HARD);
+        }
+    }
+
+    Level level() {
+        if (!config.enabled()) {
+            return Level.NORMAL;
+        }
+        var queued = translationBacklog.queued();
+        var incomplete = publicationBacklog.pending();
+        if (queued >= config.hardQueued() || incomplete >= config.hardIncomplete()) {
+            return Level.HARD;
+        }
+        if (queued >= config.softQueued() || incomplete >= config.softIncomplete()) {
+            return Level.SOFT;
+        }
+        return Level.NORMAL;
+    }
+
+    private void reject(String kind, Level level) {
+        meterRegistry.counter("translation.admission.rejections", "kind", kind, "level", level.name().toLowerCase(Locale.ROOT)).increment();
+        log.warn("Rejecting {} request, backlog is above the {} threshold: {} queued, {} incomplete publications or queued translations",
+            kind, level, translationBacklog.queued(), publicationBacklog.pending());
+        var retryAfter = level == Level.HARD ? config.hardRetryAfter() : config.softRetryAfter();
+        throw new RetryLaterException(HttpStatus.SERVICE_UNAVAILABLE, "Translation backlog is full, please retry later", retryAfter);
+    }
+
+    enum Level {
+        NORMAL, SOFT, HARD
+    }
+}
+
+@Configuration
+@EnableConfigurationProperties(AdmissionConfig.class)
+class AdmissionControlConfig {
+
+}
+
+@ConfigurationProperties(prefix = "translation.admission")
+record AdmissionConfig(
+    boolean enabled,
+    int softQueued,
+    int hardQueued,
+    long softIncomplete,
+    long hardIncomplete,
+    Duration softRetryAfter,
+    Duration hardRetryAfter) {
+
+}
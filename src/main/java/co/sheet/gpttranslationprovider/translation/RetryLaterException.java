@@ -0,0 +1,20 @@
+package co.sheet.gpttranslationprovider.translation;
+
+import java.time.Duration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.ErrorResponseException;
+
+/**
+ * Rejects a request the service cannot take now, rendered as problem detail with a {@code Retry-After} header.
+ */
+class RetryLaterException extends ErrorResponseException {
+
+    RetryLaterException(HttpStatus status, String detail, Duration retryAfter) {
+        super(status, ProblemDetail.forStatusAndDetail(status, detail), null);
+        // whole seconds, rounded up so the client does not come back too early
+        var seconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+        getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+    }
+}
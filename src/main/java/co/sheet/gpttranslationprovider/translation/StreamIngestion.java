@@ -0,0 +1,240 @@
+package co.sheet.gpttranslationprovider.translation;
+
+import co.sheet.gpttranslationprovider.Scheduling;
+import co.sheet.gpttranslationprovider.TranslationRequest;
+import co.sheet.gpttranslationprovider.event_management.BulkPublications;
+import co.sheet.gpttranslationprovider.open_ai.QuotaExceededException;
+import co.sheet.gpttranslationprovider.open_ai.ReadyToTranslateEvent;
+import co.sheet.gpttranslationprovider.open_ai.UserQuotas;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.stereotype.Component;
+import org.springframework.web.ErrorResponseException;
+
+/**
+ * Ingests translation requests from a stream, NDJSON or a JSON array, without holding the whole upload in memory. Records are parsed one
+ * at a time with the Jackson streaming API and validated as they arrive; invalid records are counted and skipped, the valid ones are
+ * published in chunks of {@code chunk-size} through {@link BulkPublications}. Only the current chunk and the first {@code max-rejections}
+ * rejections are kept, whatever the size of the upload.
+ * <p>
+ * Admission and user quotas are checked per chunk. When they turn the first chunk away, the request is rejected as a whole; when they
+ * turn a later one away, the chunks published so far stay published and the summary tells the client from which record to resend.
+ */
+@Slf4j
+@Component
+class StreamIngestion {
+
+    final ObjectMapper objectMapper;
+    final Validator validator;
+    final BulkPublications bulkPublications;
+    final AdmissionControl admissionControl;
+    final UserQuotas userQuotas;
+    final IngestionConfig config;
+    final Counter acceptedRecords;
+    final Counter rejectedRecords;
+
+    StreamIngestion(
+        ObjectMapper objectMapper,
+        Validator validator,
+        BulkPublications bulkPublications,
+        AdmissionControl admissionControl,
+        UserQuotas userQuotas,
+        IngestionConfig config,
+        MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.bulkPublications = bulkPublications;
+        this.admissionControl = admissionControl;
+        this.userQuotas = userQuotas;
+        this.config = config;
+        this.acceptedRecords = meterRegistry.counter("translation.ingestion.records", "result", "accepted");
+        this.rejectedRecords = meterRegistry.counter("translation.ingestion.records", "result", "rejected");
+    }
+
+    /**
+     * @throws RetryLaterException if admission or quotas turned the first chunk away
+     */
+    IngestionSummary ingest(InputStream body, Duration timeout) throws IOException {
+        var ingestion = new Ingestion(Scheduling.bulk(timeout));
+        try (var parser = objectMapper.createParser(body)) {
+            var token = parser.nextToken();
+            var array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+            // NDJSON is a sequence of root values, the parser skips the line breaks between them
+            while (token != null && !(array && token == JsonToken.END_ARRAY)) {
+                ingestion.read(parser);
+                if (ingestion.stopped != null) {
+                    return ingestion.summary();
+                }
+                token = parser.nextToken();
+            }
+        } catch (JsonProcessingException e) {
+            // the stream cannot be read past a syntax error, what was published before it stays published
+            ingestion.flush();
+            var line = e.getLocation() == null ? -1 : e.getLocation().getLineNr();
+            ingestion.stop("Malformed JSON at line " + line + ": " + e.getOriginalMessage(), null, null);
+            return ingestion.summary();
+        }
+        ingestion.flush();
+        return ingestion.summary();
+    }
+
+    private final class Ingestion {
+
+        final Scheduling scheduling;
+        final List<ReadyToTranslateEvent> chunk = new ArrayList<>();
+        final List<Rejection> rejections = new ArrayList<>();
+        long records;
+        long chunkStart;
+        long accepted;
+        long rejected;
+        String stopped;
+        Long resumeFrom;
+        Long retryAfterSeconds;
+
+        Ingestion(Scheduling scheduling) {
+            this.scheduling = scheduling;
+        }
+
+        /**
+         * Reads the record at the current token of the parser, leaving the parser at its last token.
+         */
+        void read(JsonParser parser) throws IOException {
+            var index = records++;
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                reject(index, "Expected a JSON object");
+                return;
+            }
+            JsonNode node = parser.readValueAsTree();
+            TranslationRequest request;
+            try {
+                request = objectMapper.treeToValue(node, TranslationRequest.class);
+            } catch (JsonProcessingException e) {
+                reject(index, e.getOriginalMessage());
+                return;
+            }
+            var violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                reject(index, violations.stream()
+                                        .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                                        .sorted()
+                                        .collect(Collectors.joining(", ")));
+                return;
+            }
+            if (chunk.isEmpty()) {
+                chunkStart = index;
+            }
+            chunk.add(new ReadyToTranslateEvent(request, scheduling));
+            if (chunk.size() >= config.chunkSize()) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (chunk.isEmpty() || stopped != null) {
+                return;
+            }
+            try {
+                admissionControl.admitBulk(chunk.size());
+                var retryAfter = userQuotas.admit(chunk.stream().map(ReadyToTranslateEvent::translationRequest).toList());
+                if (!retryAfter.isZero()) {
+                    throw new RetryLaterException(HttpStatus.TOO_MANY_REQUESTS, "Translation quota exceeded", retryAfter);
+                }
+            } catch (RetryLaterException e) {
+                if (accepted == 0) {
+                    throw e;
+                }
+                stop(e.getBody().getDetail(), chunkStart, Long.valueOf(e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)));
+                return;
+            } catch (QuotaExceededException e) {
+                // retrying the same records does not help, no retry after
+                if (accepted == 0) {
+                    throw new ErrorResponseException(
+                        HttpStatus.PAYLOAD_TOO_LARGE, ProblemDetail.forStatusAndDetail(HttpStatus.PAYLOAD_TOO_LARGE, e.getMessage()), e);
+                }
+                stop(e.getMessage(), chunkStart, null);
+                return;
+            }
+            bulkPublications.publishAll(List.copyOf(chunk));
+            accepted += chunk.size();
+            acceptedRecords.increment(chunk.size());
+            chunk.clear();
+        }
+
+        void reject(long index, String reason) {
+            rejected++;
+            rejectedRecords.increment();
+            if (rejections.size() < config.maxRejections()) {
+                rejections.add(new Rejection(index, reason));
+            }
+        }
+
+        void stop(String reason, Long resumeFrom, Long retryAfterSeconds) {
+            log.warn("Stopped stream ingestion after {} records: {}", records, reason);
+            this.stopped = reason;
+            this.resumeFrom = resumeFrom;
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        IngestionSummary summary() {
+            return new IngestionSummary(accepted, rejected, List.copyOf(rejections), stopped, resumeFrom, retryAfterSeconds);
+        }
+    }
+}
+
+/**
+ * @param rejections        the first rejected records, at most {@code translation.ingestion.max-rejections}
+ * @param stopped           why the stream was not read to the end, {@code null} if it was
+ * @param resumeFrom        index of the first record that was not published, if the stream was stopped by admission or quotas
+ * @param retryAfterSeconds when to send the records from {@code resumeFrom} on, {@code null} if they are over the quota of their user
+ *                          and have to be split
+ */
+record IngestionSummary(
+    long accepted,
+    long rejected,
+    List<Rejection> rejections,
+    String stopped,
+    Long resumeFrom,
+    Long retryAfterSeconds) {
+
+}
+
+/**
+ * @param index zero-based position of the record in the stream
+ */
+record Rejection(long index, String reason) {
+
+}
+
+@Configuration
+@EnableConfigurationProperties(IngestionConfig.class)
+class StreamIngestionConfig {
+
+}
+
+@ConfigurationProperties(prefix = "translation.ingestion")
+record IngestionConfig(int chunkSize, int maxRejections) {
+
+}
@@ -1,22 +1,38 @@
 package co.sheet.gpttranslationprovider.translation;
 
+import co.sheet.gpttranslationprovider.Scheduling;
 import co.sheet.gpttranslationprovider.TranslationRequest;
+import co.sheet.gpttranslationprovider.event_management.BulkPublications;
 import co.sheet.gpttranslationprovider.event_management.RetryEvent;
+import co.sheet.gpttranslationprovider.open_ai.BulkTranslations;
+import co.sheet.gpttranslationprovider.open_ai.QuotaExceededException;
 import co.sheet.gpttranslationprovider.open_ai.ReadyToTranslateEvent;
+import co.sheet.gpttranslationprovider.open_ai.StreamingTranslations;
+import co.sheet.gpttranslationprovider.open_ai.UserQuotas;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.ErrorResponseException;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.util.List;
+import java.util.UUID;
+import reactor.core.publisher.Flux;
 
 @Tag(name = "GptTranslationProvider", description = "Operations to translate a text into a target language using GPT")
 @RestController
@@ -25,32 +41,112 @@ import java.util.List;
 class TranslationController {
 
     final ApplicationEventPublisher publisher;
+    final BulkTranslations bulkTranslations;
+    final BulkPublications bulkPublications;
+    final StreamingTranslations streamingTranslations;
+    final UserQuotas userQuotas;
+    final AdmissionControl admissionControl;
+    final StreamIngestion streamIngestion;
 
+    /**
+     * Interactive translation, served ahead of bulk work.
+     *
+     * @param timeout ISO-8601 duration after which the translation is dropped if it has not started yet
+     */
     @PostMapping("/translate")
     @ResponseStatus(HttpStatus.ACCEPTED)
     @Transactional
-    void translate(@RequestBody @Valid TranslationRequest request) {
-        publisher.publishEvent(new ReadyToTranslateEvent(request));
+    void translate(@RequestBody @Valid TranslationRequest request, @RequestParam(required = false) Duration timeout) {
+        admissionControl.admitInteractive();
+        checkQuota(List.of(request));
+        publisher.publishEvent(new ReadyToTranslateEvent(request, Scheduling.interactive(timeout)));
     }
 
+    /**
+     * Streams the translation as Server-Sent Events: {@code token} events while the model generates, one {@code done} event at the end.
+     */
+    @PostMapping(value = "/translate/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    Flux<ServerSentEvent<String>> translateStream(
+        @RequestBody @Valid TranslationRequest request,
+        @RequestParam(defaultValue = "false") boolean publish) {
+        admissionControl.admitInteractive();
+        checkQuota(List.of(request));
+        return streamingTranslations.stream(request, publish)
+                                    .map(token -> ServerSentEvent.builder(token).event("token").build())
+                                    .concatWithValues(ServerSentEvent.builder("").event("done").build());
+    }
+
+    /**
+     * The translations are registered in chunks that commit on their own, see {@link BulkPublications}.
+     *
+     * @param timeout ISO-8601 duration after which translations are dropped if they have not started yet
+     */
     @PostMapping("/translateAll")
     @ResponseStatus(HttpStatus.ACCEPTED)
-    @Transactional
-    void translateAll(@RequestBody @Valid @NotNull List<TranslationRequest> requests) {
-        for (var request : requests) {
-            publisher.publishEvent(new ReadyToTranslateEvent(request));
-        }
+    void translateAll(@RequestBody @Valid @NotNull List<TranslationRequest> requests, @RequestParam(required = false) Duration timeout) {
+        admissionControl.admitBulk(requests.size());
+        checkQuota(requests);
+        var scheduling = Scheduling.bulk(timeout);
+        bulkPublications.publishAll(requests.stream().map(request -> new ReadyToTranslateEvent(request, scheduling)).toList());
     }
 
+    /**
+     * For catalog-sized uploads: NDJSON or a JSON array, read and validated record by record, see {@link StreamIngestion}. Invalid records
+     * are skipped and reported in the summary.
+     *
+     * @param timeout ISO-8601 duration after which translations are dropped if they have not started yet
+     */
+    @PostMapping(value = "/ingestStream", consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    IngestionSummary ingestStream(InputStream body, @RequestParam(required = false) Duration timeout) throws IOException {
+        admissionControl.admitBulk(0);
+        return streamIngestion.ingest(body, timeout);
+    }
+
+    /**
+     * Opt-in offline mode for large catalog imports: translated through the provider batch API, results arrive within hours. The requests
+     * count against the quota of their users like online ones, so switching to bulk mode does not get around it.
+     */
+    @PostMapping(value = "/translateAll", params = "bulk=true")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    BulkTranslationJob translateAllInBulk(@RequestBody @Valid @NotNull List<TranslationRequest> requests) {
+        admissionControl.admitOfflineBulk();
+        checkQuota(requests);
+        return new BulkTranslationJob(bulkTranslations.submit(requests));
+    }
+
+    /**
+     * Resubmits the incomplete publications of the order. With the durable work queue, translations still queued have no publication and
+     * are not affected; they are retried by the queue itself.
+     */
     @PostMapping("/refetchTranslations")
     @ResponseStatus(HttpStatus.ACCEPTED)
     @Transactional
     void refetchTranslations(@RequestBody @Valid RefetchTranslationsRequest refetchRequest) {
-        var orderToRefetch = refetchRequest.orderId();
-        publisher.publishEvent(new RetryEvent(orderToRefetch));
+        publisher.publishEvent(new RetryEvent(refetchRequest.orderId(), refetchRequest.masterCopyKeyId()));
+    }
+
+    private void checkQuota(List<TranslationRequest> requests) {
+        Duration retryAfter;
+        try {
+            retryAfter = userQuotas.admit(requests);
+        } catch (QuotaExceededException e) {
+            throw new ErrorResponseException(
+                HttpStatus.PAYLOAD_TOO_LARGE, ProblemDetail.forStatusAndDetail(HttpStatus.PAYLOAD_TOO_LARGE, e.getMessage()), e);
+        }
+        if (!retryAfter.isZero()) {
+            throw new RetryLaterException(HttpStatus.TOO_MANY_REQUESTS, "Translation quota exceeded", retryAfter);
+        }
     }
 }
 
-record RefetchTranslationsRequest(@NotNull Long orderId) {
+/**
+ * @param masterCopyKeyId optional, refetches only this key of the order
+ */
+record RefetchTranslationsRequest(@NotNull Long orderId, Long masterCopyKeyId) {
+
+}
+
+record BulkTranslationJob(UUID jobId) {
 
 }
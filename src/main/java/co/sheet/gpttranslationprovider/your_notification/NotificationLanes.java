@@ -0,0 +1,29 @@
+package co.sheet.gpttranslationprovider.your_notification;
+
+import co.sheet.gpttranslationprovider.Lane;
+import co.sheet.gpttranslationprovider.Scheduling;
+import co.sheet.gpttranslationprovider.flow_control.LaneScheduler;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Entry to the Your API stage: at most {@code your.api.concurrency} notifications are in flight, the rest wait in their priority lane.
+ */
+@Profile("!local")
+@Component
+class NotificationLanes {
+
+    final LaneScheduler<Lane> scheduler;
+
+    NotificationLanes(YourApiConfig config, MeterRegistry meterRegistry) {
+        this.scheduler = new LaneScheduler<>("your-api", config.concurrency(), Lane.weights(), meterRegistry);
+    }
+
+    /**
+     * @throws co.sheet.gpttranslationprovider.flow_control.DeadlineExceededException if the deadline passed while queued
+     */
+    void run(Scheduling scheduling, Runnable notification) {
+        scheduler.run(scheduling.lane(), scheduling.deadline(), notification);
+    }
+}
@@ -1,7 +1,21 @@
 package co.sheet.gpttranslationprovider.your_notification;
 
+import co.sheet.gpttranslationprovider.Scheduling;
 import co.sheet.gpttranslationprovider.TranslationRequest;
 
-public record TranslationReadyEvent(TranslationRequest translationRequest, String translationResult) {
+public record TranslationReadyEvent(TranslationRequest translationRequest, String translationResult, Scheduling scheduling) {
 
+    public TranslationReadyEvent {
+        if (scheduling == null) {
+            scheduling = Scheduling.RESUBMITTED;
+        }
+    }
+
+    public TranslationReadyEvent(TranslationRequest translationRequest, String translationResult) {
+        this(translationRequest, translationResult, Scheduling.bulk(null));
+    }
+
+    public TranslationReadyEvent resubmitted() {
+        return new TranslationReadyEvent(translationRequest, translationResult, scheduling.resubmitted());
+    }
 }
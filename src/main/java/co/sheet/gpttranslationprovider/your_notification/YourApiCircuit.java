@@ -0,0 +1,73 @@
+package co.sheet.gpttranslationprovider.your_notification;
+
+import co.sheet.gpttranslationprovider.flow_control.Bulkhead;
+import co.sheet.gpttranslationprovider.flow_control.CircuitBreaker;
+import co.sheet.gpttranslationprovider.flow_control.PausedEvents;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.function.Supplier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Circuit breaker and bulkhead of Your API. While it keeps failing, notifications fail fast instead of holding their lane slot; their events
+ * are paused and resubmitted as soon as the probes succeed again.
+ */
+@Profile("!local")
+@Component
+class YourApiCircuit {
+
+    final YourApiCircuitConfig config;
+    final CircuitBreaker breaker;
+    final Bulkhead bulkhead;
+    final PausedEvents pausedEvents;
+
+    YourApiCircuit(YourApiCircuitConfig config, ApplicationEventPublisher publisher, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.breaker = new CircuitBreaker(
+            "your-api",
+            new CircuitBreaker.Settings(
+                config.failureRateThreshold(), config.slidingWindow(), config.minimumCalls(), config.openDuration(), config.halfOpenCalls()),
+            YourApiCircuit::isFailure,
+            meterRegistry);
+        this.bulkhead = new Bulkhead("your-api", config.maxConcurrent(), config.maxWait(), meterRegistry);
+        this.pausedEvents = new PausedEvents("your-api", config.maxPaused(), publisher, meterRegistry);
+        breaker.onClose(pausedEvents::resubmit);
+    }
+
+    <T> T call(Supplier<T> apiCall) {
+        if (!config.enabled()) {
+            return apiCall.get();
+        }
+        return breaker.call(() -> bulkhead.call(apiCall));
+    }
+
+    /**
+     * @throws co.sheet.gpttranslationprovider.flow_control.CallNotPermittedException if the breaker is open
+     */
+    void checkPermitted() {
+        if (config.enabled()) {
+            breaker.checkPermitted();
+        }
+    }
+
+    void pause(TranslationReadyEvent event) {
+        pausedEvents.pause(event);
+    }
+
+    /**
+     * Server errors, throttling and connection failures count against Your API; errors it reports for single updates do not.
+     */
+    static boolean isFailure(Throwable failure) {
+        for (var cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HttpServerErrorException || cause instanceof HttpClientErrorException.TooManyRequests
+                || cause instanceof ResourceAccessException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
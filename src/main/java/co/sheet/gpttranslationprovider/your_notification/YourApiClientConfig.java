@@ -1,5 +1,8 @@
 package co.sheet.gpttranslationprovider.your_notification;
 
+import co.sheet.gpttranslationprovider.your_notification.YourApiHttpClient.HttpSettings;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
 import lombok.RequiredArgsConstructor;
 import org.openapitools.client.ApiClient;
 import org.openapitools.client.api.YourServiceApi;
@@ -12,7 +15,7 @@ import org.springframework.web.client.RestTemplate;
 
 @Profile("!local")
 @Configuration
-@EnableConfigurationProperties(YourApiConfig.class)
+@EnableConfigurationProperties({YourApiConfig.class, YourApiCircuitConfig.class})
 @RequiredArgsConstructor
 class YourApiClientConfig {
 
@@ -29,8 +32,8 @@ class YourApiClientConfig {
     }
 
     @Bean
-    RestTemplate restTemplate() {
-        return new RestTemplate();
+    RestTemplate restTemplate(MeterRegistry meterRegistry) {
+        return new RestTemplate(YourApiHttpClient.requestFactory(yourApiConfig.http(), meterRegistry));
     }
 }
 
@@ -42,6 +45,24 @@ record YourApiConfig(
     String clientSecret,
     String scope,
     String apiKey,
-    String baseUrl) {
+    String baseUrl,
+    int concurrency,
+    int batchSize,
+    Duration batchWindow,
+    HttpSettings http) {
+
+}
+
+@ConfigurationProperties(prefix = "your.api.circuit-breaker")
+record YourApiCircuitConfig(
+    boolean enabled,
+    double failureRateThreshold,
+    int slidingWindow,
+    int minimumCalls,
+    Duration openDuration,
+    int halfOpenCalls,
+    int maxConcurrent,
+    Duration maxWait,
+    int maxPaused) {
 
 }
@@ -0,0 +1,91 @@
+package co.sheet.gpttranslationprovider.your_notification;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+/**
+ * Request factories for the Your API client. HTTP/1.1 runs on a pool of keep-alive connections whose usage is exported as
+ * {@code httpcomponents.httpclient.pool.*} metrics; HTTP/2 multiplexes the requests over a few connections of the JDK client and falls
+ * back to HTTP/1.1 when the server does not offer it.
+ */
+final class YourApiHttpClient {
+
+    private YourApiHttpClient() {
+    }
+
+    static ClientHttpRequestFactory requestFactory(HttpSettings settings, MeterRegistry meterRegistry) {
+        return settings.http2() ? http2(settings) : pooled(settings, meterRegistry);
+    }
+
+    static HttpComponentsClientHttpRequestFactory pooled(HttpSettings settings, MeterRegistry meterRegistry) {
+        var connectionManager = PoolingHttpClientConnectionManagerBuilder
+            .create()
+            .setMaxConnTotal(settings.maxConnections())
+            .setMaxConnPerRoute(settings.maxConnectionsPerRoute())
+            .setDefaultConnectionConfig(ConnectionConfig
+                .custom()
+                .setConnectTimeout(Timeout.of(settings.connectTimeout()))
+                .setSocketTimeout(Timeout.of(settings.responseTimeout()))
+                .setTimeToLive(TimeValue.of(settings.connectionTimeToLive()))
+                // stale check for connections the server may have closed while they were idle
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .build())
+            .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "your-api").bindTo(meterRegistry);
+
+        var httpClient = HttpClients
+            .custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(RequestConfig
+                .custom()
+                // waiting for a free connection of the pool
+                .setConnectionRequestTimeout(Timeout.of(settings.connectTimeout()))
+                .setResponseTimeout(Timeout.of(settings.responseTimeout()))
+                .build())
+            .evictIdleConnections(TimeValue.of(settings.idleEviction()))
+            .evictExpiredConnections()
+            .build();
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    static JdkClientHttpRequestFactory http2(HttpSettings settings) {
+        var httpClient = HttpClient
+            .newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(settings.connectTimeout())
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+        var requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(settings.responseTimeout());
+        return requestFactory;
+    }
+
+    /**
+     * @param http2                 use HTTP/2 where the server supports it instead of the HTTP/1.1 connection pool
+     * @param responseTimeout       longest wait for (the next bytes of) a response
+     * @param idleEviction          pooled connections idle for longer are closed
+     * @param connectionTimeToLive  pooled connections are not reused after this, so DNS changes of the upstream are picked up
+     */
+    record HttpSettings(
+        boolean http2,
+        int maxConnections,
+        int maxConnectionsPerRoute,
+        Duration connectTimeout,
+        Duration responseTimeout,
+        Duration idleEviction,
+        Duration connectionTimeToLive) {
+
+    }
+}
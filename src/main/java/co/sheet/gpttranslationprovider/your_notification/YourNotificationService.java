@@ -1,22 +1,51 @@
 package co.sheet.gpttranslationprovider.your_notification;
 
-import lombok.RequiredArgsConstructor;
+import co.sheet.gpttranslationprovider.flow_control.Accumulator;
+import co.sheet.gpttranslationprovider.flow_control.CallNotPermittedException;
+import co.sheet.gpttranslationprovider.flow_control.DeadlineExceededException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.openapitools.client.api.YourServiceApi;
 import org.openapitools.client.model.TranslationUpdate;
 import org.springframework.context.annotation.Profile;
-import org.springframework.modulith.events.ApplicationModuleListener;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.event.TransactionalEventListener;
 
+/**
+ * Sends ready translations to Your API. Updates of the same order arriving within {@code your.api.batch-window} are sent as one batch
+ * request; every listener still waits for the result of its own update, so only the publications of failed updates stay incomplete.
+ * <p>
+ * While the {@link YourApiCircuit} is open, updates fail fast and are resubmitted once it closes.
+ */
 @Profile("!local")
 @Slf4j
 @Service
-@RequiredArgsConstructor
 class YourNotificationService {
 
     final YourServiceApi yourApiClient;
+    final NotificationLanes notificationLanes;
+    final YourApiConfig yourApiConfig;
+    final YourApiCircuit yourApiCircuit;
+    final Accumulator<Long, TranslationUpdate, Void> batches;
+    final DistributionSummary batchSizes;
+
+    YourNotificationService(
+        YourServiceApi yourApiClient,
+        NotificationLanes notificationLanes,
+        YourApiConfig yourApiConfig,
+        YourApiCircuit yourApiCircuit,
+        MeterRegistry meterRegistry) {
+        this.yourApiClient = yourApiClient;
+        this.notificationLanes = notificationLanes;
+        this.yourApiConfig = yourApiConfig;
+        this.yourApiCircuit = yourApiCircuit;
+        this.batches = new Accumulator<>("your-api-batch", Math.max(1, yourApiConfig.batchSize()), yourApiConfig.batchWindow(), this::sendBatch);
+        this.batchSizes = meterRegistry.summary("translation.notification.batch.size");
+    }
 
     @Async
     @TransactionalEventListener
@@ -28,14 +57,75 @@ class YourNotificationService {
             .targetLocale(translationRequest.targetLocale())
             .translationResult(event.translationResult());
 
-        var response = yourApiClient.updateTranslationForKey(translationUpdate);
+        try {
+            // fail fast while Your API is down instead of holding a lane slot
+            yourApiCircuit.checkPermitted();
+            notificationLanes.run(event.scheduling(), () -> {
+                if (yourApiConfig.batchSize() > 1) {
+                    batches.submitAndWait(translationUpdate.getOrderId(), translationUpdate);
+                } else {
+                    send(translationUpdate);
+                }
+            });
+        } catch (DeadlineExceededException e) {
+            // the publication completes, the caller is no longer waiting for this translation
+            log.warn("Dropped Your api update for {}: {}", translationRequest, e.getMessage());
+            return;
+        } catch (RuntimeException e) {
+            if (CallNotPermittedException.isBreakerOpen(e)) {
+                // the publication stays incomplete and is resubmitted once Your API recovers
+                yourApiCircuit.pause(event);
+                log.info("Paused Your api update for {}: {}", translationRequest, e.getMessage());
+            }
+            throw e;
+        }
+        log.info("Update translation request sent to Your api successfully. {}", translationRequest);
+    }
+
+    @PreDestroy
+    void close() {
+        batches.close();
+    }
+
+    private void send(TranslationUpdate translationUpdate) {
+        var response = yourApiCircuit.call(() -> yourApiClient.updateTranslationForKey(translationUpdate));
 
         var errors = response.getErrorList();
         if (errors != null && !errors.isEmpty()) {
             throw new IllegalStateException(
                 "Update translation request failed for " + translationUpdate + " \nErrors returned: " + errors);
         }
-        log.info("Update translation request sent to Your api successfully. {}", translationRequest);
     }
-}
 
+    private void sendBatch(Long orderId, List<Accumulator.Entry<TranslationUpdate, Void>> entries) {
+        batchSizes.record(entries.size());
+        if (entries.size() == 1) {
+            var entry = entries.getFirst();
+            entry.complete(() -> {
+                send(entry.item());
+                return null;
+            });
+            return;
+        }
+
+        var updates = entries.stream().map(Accumulator.Entry::item).toList();
+        var responses = yourApiCircuit.call(() -> yourApiClient.updateTranslationsForKeys(updates));
+        if (responses == null || responses.size() != updates.size()) {
+            throw new IllegalStateException("Batch update for orderId=" + orderId + " returned " + (responses == null ? 0 : responses.size())
+                + " results for " + updates.size() + " updates");
+        }
+
+        // the responses are in request order, so every error belongs to the update at the same position
+        for (var index = 0; index < entries.size(); index++) {
+            var entry = entries.get(index);
+            var errors = responses.get(index).getErrorList();
+            if (errors != null && !errors.isEmpty()) {
+                entry.result().completeExceptionally(new IllegalStateException(
+                    "Update translation request failed for " + entry.item() + " \nErrors returned: " + errors));
+            } else {
+                entry.result().complete(null);
+            }
+        }
+        log.debug("Sent {} updates for orderId={} in one batch", entries.size(), orderId);
+    }
+}
@@ -0,0 +1,6 @@
+-- Live instances, each renews its heartbeat; the consistent-hash ring over order ids is built from the members with a recent one
+CREATE TABLE IF NOT EXISTS cluster_members
+(
+    instance_id  TEXT PRIMARY KEY,
+    heartbeat_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,15 @@
+-- Durable queue of the translation work when translation.queue.enabled: rows are claimed by any instance and deleted once processed.
+-- available_at is when the row can be claimed next, pushed by the claim timeout while it is processed and by the backoff after a failure;
+-- rows that failed too often are parked with no available_at.
+CREATE TABLE IF NOT EXISTS work_queue
+(
+    id               UUID                     NOT NULL PRIMARY KEY,
+    event_type       TEXT                     NOT NULL,
+    serialized_event TEXT                     NOT NULL,
+    enqueued_at      TIMESTAMP WITH TIME ZONE NOT NULL,
+    available_at     TIMESTAMP WITH TIME ZONE,
+    attempts         INTEGER                  NOT NULL DEFAULT 0,
+    claimed_by       TEXT
+);
+
+CREATE INDEX IF NOT EXISTS work_queue_by_available_at_idx ON work_queue (available_at);
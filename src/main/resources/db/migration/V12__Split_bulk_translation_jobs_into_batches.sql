@@ -0,0 +1,23 @@
+-- Provider batches of a bulk translation job: the provider limits the requests and the size of one batch, so a large job is split into
+-- consecutive item ranges that are submitted and collected one by one. submit_attempts counts the failed submits of a pending batch.
+CREATE TABLE IF NOT EXISTS bulk_translation_batch
+(
+    job_id            UUID                     NOT NULL,
+    batch_index       INTEGER                  NOT NULL,
+    first_item        INTEGER                  NOT NULL,
+    last_item         INTEGER                  NOT NULL,
+    status            TEXT                     NOT NULL,
+    provider_batch_id TEXT,
+    submit_attempts   INTEGER                  NOT NULL DEFAULT 0,
+    updated_at        TIMESTAMP WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (job_id, batch_index)
+);
+
+-- jobs submitted as a single batch before the split are collected as their only batch
+INSERT INTO bulk_translation_batch (job_id, batch_index, first_item, last_item, status, provider_batch_id, updated_at)
+SELECT id, 0, 0, item_count - 1, status, provider_batch_id, updated_at
+FROM bulk_translation_job
+WHERE status = 'SUBMITTED';
+
+ALTER TABLE bulk_translation_job
+    DROP COLUMN IF EXISTS provider_batch_id;
@@ -0,0 +1,11 @@
+-- Shared translation memory (L2 cache), keyed by normalized content hash and locale pair
+CREATE TABLE IF NOT EXISTS translation_memory
+(
+    content_hash  TEXT NOT NULL,
+    source_locale TEXT NOT NULL,
+    target_locale TEXT NOT NULL,
+    translation   TEXT NOT NULL,
+    created_at    TIMESTAMP WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (content_hash, source_locale, target_locale)
+);
+CREATE INDEX IF NOT EXISTS translation_memory_by_created_at_idx ON translation_memory (created_at);
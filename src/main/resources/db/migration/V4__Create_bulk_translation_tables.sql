@@ -0,0 +1,30 @@
+-- Offline bulk translation jobs submitted to the provider batch API
+CREATE TABLE IF NOT EXISTS bulk_translation_job
+(
+    id                UUID NOT NULL,
+    status            TEXT NOT NULL,
+    provider_batch_id TEXT,
+    item_count        INTEGER NOT NULL,
+    created_at        TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_at        TIMESTAMP WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (id)
+);
+CREATE INDEX IF NOT EXISTS bulk_translation_job_by_status_idx ON bulk_translation_job (status);
+
+CREATE TABLE IF NOT EXISTS bulk_translation_item
+(
+    job_id             UUID    NOT NULL,
+    item_index         INTEGER NOT NULL,
+    order_id           BIGINT  NOT NULL,
+    master_copy_key_id BIGINT  NOT NULL,
+    source_text        TEXT    NOT NULL,
+    source_locale      TEXT    NOT NULL,
+    target_locale      TEXT    NOT NULL,
+    user_id            TEXT    NOT NULL,
+    completed          BOOLEAN NOT NULL DEFAULT FALSE,
+    PRIMARY KEY (job_id, item_index)
+);
+
+-- Lock record for polling bulk translation jobs
+INSERT INTO multi_instance_locks (lock_name, last_execution)
+VALUES ('bulk_translation_poll', TIMESTAMP '2000-04-06 09:00:00+00');
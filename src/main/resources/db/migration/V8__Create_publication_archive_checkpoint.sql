@@ -0,0 +1,10 @@
+-- Position of the archival of completed publications, which goes through them ordered by completion date and id
+CREATE TABLE IF NOT EXISTS publication_archive_checkpoint
+(
+    name            TEXT PRIMARY KEY,
+    completion_date TIMESTAMP WITH TIME ZONE NOT NULL,
+    publication_id  UUID NOT NULL
+);
+
+INSERT INTO publication_archive_checkpoint (name, completion_date, publication_id)
+VALUES ('event_publication', TIMESTAMP '2000-04-06 09:00:00+00', '00000000-0000-0000-0000-000000000000');
@@ -0,0 +1,8 @@
+-- Leases of the scheduled jobs: the instance running a job renews lease_until while it runs, the lease of a crashed instance simply
+-- expires and the job is due again. fencing_token grows with every acquisition, so a holder that lost its lease cannot renew or complete it.
+ALTER TABLE multi_instance_locks
+    ADD COLUMN IF NOT EXISTS lease_owner TEXT;
+ALTER TABLE multi_instance_locks
+    ADD COLUMN IF NOT EXISTS lease_until TIMESTAMP WITH TIME ZONE;
+ALTER TABLE multi_instance_locks
+    ADD COLUMN IF NOT EXISTS fencing_token BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,88 @@
+package co.sheet.gpttranslationprovider;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openapitools.client.api.YourServiceApi;
+import org.openapitools.client.model.TranslationUpdate;
+import org.openapitools.client.model.YourResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.modulith.test.EnableScenarios;
+import org.springframework.modulith.test.Scenario;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+/**
+ * Runs the Your API notifications with the default batch size, the other integration tests send every update on its own.
+ */
+@SpringBootTest(properties = "your.api.batch-size=100")
+@ActiveProfiles("test")
+@EnableScenarios
+class BatchedNotificationIntegrationTest {
+
+    @Autowired
+    ApplicationEventPublisher publisher;
+
+    @Autowired
+    JdbcClient jdbcClient;
+
+    @MockitoBean
+    YourServiceApi yourServiceApi;
+
+    @BeforeEach
+    void cleanupEventPublications() {
+        jdbcClient.sql("DELETE FROM event_publication").update();
+    }
+
+    @Test
+    void updatesOfOneOrder_shouldBeSentInOneBatch_andOnlyTheRejectedOneStaysIncomplete(Scenario scenario) {
+        when(yourServiceApi.updateTranslationsForKeys(anyList())).thenAnswer(invocation -> {
+            List<TranslationUpdate> updates = invocation.getArgument(0);
+            return updates.stream()
+                          .map(update -> update.getMasterCopyKeyId() == 2002L
+                              ? new YourResponse(null, List.of("Unknown key"), null, "Failed", null)
+                              : new YourResponse(null, null, null, "Success", null))
+                          .toList();
+        });
+
+        var events = LongStream.rangeClosed(2001L, 2003L)
+                               .mapToObj(masterCopyKeyId -> TestEvents.translationReady(1001L, masterCopyKeyId))
+                               .toList();
+
+        // published in one transaction, the listeners start together and meet within the batch window
+        scenario.stimulate(() -> {
+                    events.forEach(publisher::publishEvent);
+                    return events;
+                })
+                .andWaitForStateChange(this::completedPublications, completed -> completed == 2)
+                .andVerify(_ -> {
+                    verify(yourServiceApi).updateTranslationsForKeys(anyList());
+                    verify(yourServiceApi, never()).updateTranslationForKey(any(TranslationUpdate.class));
+                    assertThat(jdbcClient.sql("SELECT master_copy_key_id FROM event_publication WHERE completion_date IS NULL")
+                                         .query(Long.class)
+                                         .list())
+                        .containsExactly(2002L);
+                });
+    }
+
+    private long completedPublications() {
+        return jdbcClient.sql("""
+                             SELECT COUNT(*) FROM event_publication
+                             WHERE completion_date IS NOT NULL
+                             AND event_type LIKE '%TranslationReadyEvent%'
+                             """)
+                         .query(Long.class)
+                         .single();
+    }
+}
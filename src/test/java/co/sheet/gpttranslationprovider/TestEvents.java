@@ -0,0 +1,33 @@
+package co.sheet.gpttranslationprovider;
+
+import co.sheet.gpttranslationprovider.open_ai.ReadyToTranslateEvent;
+import co.sheet.gpttranslationprovider.your_notification.TranslationReadyEvent;
+
+/**
+ * Translation requests and events of the tests that need some key of an order, not a particular text.
+ */
+public final class TestEvents {
+
+    private TestEvents() {
+    }
+
+    public static TranslationRequest request(long orderId, long masterCopyKeyId) {
+        return new TranslationRequest(orderId, masterCopyKeyId, "Linen dress", "en-GB", "de-DE", "user1");
+    }
+
+    public static ReadyToTranslateEvent readyToTranslate(long orderId) {
+        return readyToTranslate(orderId, Scheduling.bulk(null));
+    }
+
+    public static ReadyToTranslateEvent readyToTranslate(long orderId, Scheduling scheduling) {
+        return new ReadyToTranslateEvent(request(orderId, 1L), scheduling);
+    }
+
+    public static TranslationReadyEvent translationReady(long orderId) {
+        return translationReady(orderId, 1L);
+    }
+
+    public static TranslationReadyEvent translationReady(long orderId, long masterCopyKeyId) {
+        return new TranslationReadyEvent(request(orderId, masterCopyKeyId), "Leinenkleid");
+    }
+}
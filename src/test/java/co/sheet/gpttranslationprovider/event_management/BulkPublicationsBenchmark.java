@@ -0,0 +1,72 @@
+package co.sheet.gpttranslationprovider.event_management;
+
+import co.sheet.gpttranslationprovider.TestEvents;
+import co.sheet.gpttranslationprovider.open_ai.OpenAiService;
+import co.sheet.gpttranslationprovider.open_ai.ReadyToTranslateEvent;
+import java.util.List;
+import java.util.stream.LongStream;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Time to register the publications of a large {@code translateAll}, one {@code publishEvent} per item in one transaction compared to
+ * {@link BulkPublications}. The translations themselves are mocked. Disabled by default as it only prints numbers, remove
+ * {@code @Disabled} to run it locally; point the test datasource at PostgreSQL for representative numbers.
+ */
+@Disabled
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("test")
+class BulkPublicationsBenchmark {
+
+    static final int EVENTS = 20_000;
+
+    @Autowired
+    ApplicationEventPublisher publisher;
+
+    @Autowired
+    BulkPublications bulkPublications;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    JdbcClient jdbcClient;
+
+    @MockitoBean
+    OpenAiService openAiService;
+
+    @Test
+    void comparePerEventAndBulkPublication() {
+        var events = LongStream.range(0, EVENTS).mapToObj(TestEvents::readyToTranslate).toList();
+
+        // warm up both paths
+        perEvent(events.subList(0, 1_000));
+        bulkPublications.publishAll(events.subList(0, 1_000));
+
+        var perEvent = measure(() -> perEvent(events));
+        var bulk = measure(() -> bulkPublications.publishAll(events));
+
+        log.info("publishEvent per item: {} events/s", String.format("%.0f", EVENTS / perEvent));
+        log.info("Bulk publication:      {} events/s", String.format("%.0f", EVENTS / bulk));
+    }
+
+    private void perEvent(List<ReadyToTranslateEvent> events) {
+        transactionTemplate.executeWithoutResult(_ -> events.forEach(publisher::publishEvent));
+    }
+
+    private double measure(Runnable publishing) {
+        jdbcClient.sql("DELETE FROM event_publication").update();
+        var started = System.nanoTime();
+        publishing.run();
+        return (System.nanoTime() - started) / 1e9;
+    }
+}
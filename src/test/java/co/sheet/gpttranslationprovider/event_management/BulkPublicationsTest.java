@@ -0,0 +1,66 @@
+package co.sheet.gpttranslationprovider.event_management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import co.sheet.gpttranslationprovider.TestEvents;
+import co.sheet.gpttranslationprovider.open_ai.OpenAiService;
+import java.time.Duration;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+@SpringBootTest(properties = {
+    "translation.bulk-publication.chunk-size=4",
+    "translation.bulk-publication.rows-per-statement=3"
+})
+@ActiveProfiles("test")
+class BulkPublicationsTest {
+
+    @Autowired
+    BulkPublications bulkPublications;
+
+    @Autowired
+    JdbcClient jdbcClient;
+
+    @MockitoBean
+    OpenAiService openAiService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcClient.sql("DELETE FROM event_publication").update();
+    }
+
+    @Test
+    void publishAll_shouldRegisterPublicationsInChunks_andCompleteThemOnceTranslated() {
+        var events = LongStream.rangeClosed(1, 10).mapToObj(TestEvents::readyToTranslate).toList();
+        doThrow(new IllegalStateException("Model unavailable"))
+            .when(openAiService).process(argThat(event -> event.translationRequest().orderId() == 7L));
+
+        bulkPublications.publishAll(events);
+
+        verify(openAiService, timeout(5_000).times(10)).process(any());
+        assertThat(jdbcClient.sql("SELECT COUNT(*) FROM event_publication WHERE listener_id = :listenerId")
+                             .param("listenerId", OpenAiService.LISTENER_ID)
+                             .query(Long.class)
+                             .single())
+            .isEqualTo(10);
+        await().atMost(Duration.ofSeconds(5))
+               .until(() -> jdbcClient.sql("SELECT COUNT(*) FROM event_publication WHERE completion_date IS NOT NULL")
+                                      .query(Long.class)
+                                      .single(), completed -> completed == 9);
+        assertThat(jdbcClient.sql("SELECT order_id FROM event_publication WHERE completion_date IS NULL").query(Long.class).single())
+            .as("the failed translation stays incomplete for the retries")
+            .isEqualTo(7L);
+    }
+}
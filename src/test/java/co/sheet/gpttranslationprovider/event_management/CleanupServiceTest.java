@@ -3,6 +3,7 @@ package co.sheet.gpttranslationprovider.event_management;
 import static co.sheet.gpttranslationprovider.event_management.CleanupService.LOCK_NAME;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -13,11 +14,11 @@ import java.time.Instant;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.modulith.events.CompletedEventPublications;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
@@ -32,7 +33,7 @@ class CleanupServiceTest {
     MultiInstanceLockRepository lockRepository;
 
     @MockitoBean
-    CompletedEventPublications completedEventPublications;
+    PublicationRetention publicationRetention;
 
     @BeforeEach
     void setUp() {
@@ -48,8 +49,8 @@ class CleanupServiceTest {
         cleanupService.cleanupOldEvents();
 
         // Assert
-        verify(completedEventPublications, times(1))
-            .deletePublicationsOlderThan(Duration.ofDays(1));
+        verify(publicationRetention, times(1))
+            .deleteCompletedOlderThan(eq(Duration.ofDays(1)), any(BooleanSupplier.class));
 
         var lock = lockRepository.findById(LOCK_NAME);
         assertThat(lock).isPresent();
@@ -57,17 +58,17 @@ class CleanupServiceTest {
     }
 
     @Test
-    void cleanupOldEvents_shouldExecuteCleanup_whenLastExecutionWasMoreThan2359HoursAgo() {
+    void cleanupOldEvents_shouldExecuteCleanup_whenLastExecutionWasMoreThanHalfAnIntervalAgo() {
         // Arrange
-        var oldExecution = Instant.now().minus(Duration.ofHours(23).plusMinutes(59));
+        var oldExecution = Instant.now().minus(Duration.ofMinutes(6));
         lockRepository.updateLastExecution(LOCK_NAME, oldExecution);
 
         // Act
         cleanupService.cleanupOldEvents();
 
         // Assert
-        verify(completedEventPublications, times(1))
-            .deletePublicationsOlderThan(Duration.ofDays(1));
+        verify(publicationRetention, times(1))
+            .deleteCompletedOlderThan(eq(Duration.ofDays(1)), any(BooleanSupplier.class));
 
         var lock = lockRepository.findById(LOCK_NAME);
         assertThat(lock).isPresent();
@@ -78,15 +79,15 @@ class CleanupServiceTest {
     @Test
     void cleanupOldEvents_shouldSkipCleanup_whenExecutedRecently() {
         // Arrange
-        var recentExecution = Instant.now().minus(Duration.ofHours(1));
+        var recentExecution = Instant.now().minus(Duration.ofMinutes(1));
         lockRepository.updateLastExecution(LOCK_NAME, recentExecution);
 
         // Act
         cleanupService.cleanupOldEvents();
 
         // Assert
-        verify(completedEventPublications, never())
-            .deletePublicationsOlderThan(any(Duration.class));
+        verify(publicationRetention, never())
+            .deleteCompletedOlderThan(any(Duration.class), any(BooleanSupplier.class));
 
         // Verify lock was NOT updated
         var lock = lockRepository.findById(LOCK_NAME);
@@ -101,14 +102,14 @@ class CleanupServiceTest {
         lockRepository.updateLastExecution(LOCK_NAME, oldExecution);
 
         doThrow(new RuntimeException("Database connection failed"))
-            .when(completedEventPublications).deletePublicationsOlderThan(any(Duration.class));
+            .when(publicationRetention).deleteCompletedOlderThan(any(Duration.class), any(BooleanSupplier.class));
 
         // Act
         cleanupService.cleanupOldEvents();
 
         // Assert
-        verify(completedEventPublications, times(1))
-            .deletePublicationsOlderThan(Duration.ofDays(1));
+        verify(publicationRetention, times(1))
+            .deleteCompletedOlderThan(eq(Duration.ofDays(1)), any(BooleanSupplier.class));
 
         // Verify lock was still updated despite the exception
         var lock = lockRepository.findById(LOCK_NAME);
@@ -152,12 +153,12 @@ class CleanupServiceTest {
             assertThat(finishLatch.await(10, TimeUnit.SECONDS)).isTrue();
         }
 
-        // Assert - Due to FOR UPDATE lock, the executions are serialized:
-        // 1. First thread acquires lock, sees old timestamp, executes cleanup, updates lock
-        // 2. Remaining threads acquire lock sequentially, see recent timestamp, skip cleanup
-        // Result: deletePublicationsOlderThan should be called EXACTLY once
-        verify(completedEventPublications, times(1))
-            .deletePublicationsOlderThan(Duration.ofDays(1));
+        // Assert - Only one instance acquires the lease:
+        // 1. First thread acquires the lease, sees old timestamp, executes cleanup, updates lock
+        // 2. Remaining threads find the lease held or the timestamp recent, skip cleanup
+        // Result: deleteCompletedOlderThan should be called EXACTLY once
+        verify(publicationRetention, times(1))
+            .deleteCompletedOlderThan(eq(Duration.ofDays(1)), any(BooleanSupplier.class));
 
         // Verify the lock timestamp was updated
         var lock = lockRepository.findById(LOCK_NAME);
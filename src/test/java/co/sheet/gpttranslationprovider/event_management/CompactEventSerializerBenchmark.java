@@ -0,0 +1,69 @@
+package co.sheet.gpttranslationprovider.event_management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import co.sheet.gpttranslationprovider.Scheduling;
+import co.sheet.gpttranslationprovider.TranslationRequest;
+import co.sheet.gpttranslationprovider.event_management.CompactEventSerializer.Format;
+import co.sheet.gpttranslationprovider.your_notification.TranslationReadyEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Serialization cost and stored size of the event encodings, for a short and a long translation. Disabled by default as it only prints
+ * numbers, remove {@code @Disabled} to run it locally.
+ */
+@Disabled
+@Slf4j
+class CompactEventSerializerBenchmark {
+
+    static final int ITERATIONS = 50_000;
+
+    final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void compareEncodings() {
+        var shortValue = "Linen dress";
+        var longValue = "Linen dress with a relaxed fit and side pockets, made of washed linen that gets softer with every wash. ".repeat(15);
+
+        for (var value : new String[]{shortValue, longValue}) {
+            var request = new TranslationRequest(1001L, 2002L, value, "en-US", "de-DE", "editor");
+            var event = new TranslationReadyEvent(request, value, Scheduling.interactive(Duration.ofMinutes(1)));
+            for (var format : Format.values()) {
+                // every format is used for every event, to measure the encoding itself
+                var serializer = new CompactEventSerializer(objectMapper, new EventEncodingConfig(format, 0));
+                measure(serializer, event, format, value.length());
+            }
+        }
+    }
+
+    private void measure(CompactEventSerializer serializer, TranslationReadyEvent event, Format format, int valueLength) {
+        // warm up
+        for (var i = 0; i < ITERATIONS / 10; i++) {
+            serializer.deserialize(serializer.serialize(event), TranslationReadyEvent.class);
+        }
+
+        var serialized = serializer.serialize(event).toString();
+        var started = System.nanoTime();
+        for (var i = 0; i < ITERATIONS; i++) {
+            serializer.serialize(event);
+        }
+        var serializeNanos = (System.nanoTime() - started) / ITERATIONS;
+
+        started = System.nanoTime();
+        for (var i = 0; i < ITERATIONS; i++) {
+            serializer.deserialize(serialized, TranslationReadyEvent.class);
+        }
+        var deserializeNanos = (System.nanoTime() - started) / ITERATIONS;
+
+        log.info("value of {} chars, {}: {} bytes stored, serialize {} µs, deserialize {} µs",
+            valueLength, format, serialized.getBytes(StandardCharsets.UTF_8).length,
+            String.format("%.1f", serializeNanos / 1e3), String.format("%.1f", deserializeNanos / 1e3));
+        assertThat(serializer.deserialize(serialized, TranslationReadyEvent.class)).isEqualTo(event);
+    }
+}
@@ -0,0 +1,60 @@
+package co.sheet.gpttranslationprovider.event_management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import co.sheet.gpttranslationprovider.Scheduling;
+import co.sheet.gpttranslationprovider.TranslationRequest;
+import co.sheet.gpttranslationprovider.event_management.CompactEventSerializer.Format;
+import co.sheet.gpttranslationprovider.open_ai.ReadyToTranslateEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class CompactEventSerializerTest {
+
+    final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    final ReadyToTranslateEvent longEvent = event("Linen dress with a relaxed fit, made of washed linen. ".repeat(20));
+
+    @Test
+    void serialize_shouldStoreLongEventsInShorterEnvelope_withReadableIds() {
+        var serializer = serializer(Format.SMILE_DEFLATE);
+
+        var serialized = serializer.serialize(longEvent).toString();
+
+        assertThat(serialized)
+            .startsWith("{\"translationRequest\":{\"orderId\":1001,\"masterCopyKeyId\":2002},\"@encoding\":\"smile+deflate\"")
+            .hasSizeLessThan(objectMapper.valueToTree(longEvent).toString().length() / 2);
+        assertThat(serializer.deserialize(serialized, ReadyToTranslateEvent.class)).isEqualTo(longEvent);
+        assertThat(serializer.serialize(longEvent)).isEqualTo(serialized);
+    }
+
+    @Test
+    void serialize_shouldKeepShortEventsAsJson() throws Exception {
+        var serializer = serializer(Format.SMILE_DEFLATE);
+        var event = event("Linen dress");
+
+        var serialized = serializer.serialize(event).toString();
+
+        assertThat(serialized).isEqualTo(objectMapper.writeValueAsString(event));
+    }
+
+    @Test
+    void deserialize_shouldReadRowsOfEveryFormat_whateverIsConfigured() throws Exception {
+        var reader = serializer(Format.JSON);
+
+        assertThat(reader.deserialize(objectMapper.writeValueAsString(longEvent), ReadyToTranslateEvent.class)).isEqualTo(longEvent);
+        for (var format : Format.values()) {
+            assertThat(reader.deserialize(serializer(format).serialize(longEvent), ReadyToTranslateEvent.class)).isEqualTo(longEvent);
+        }
+    }
+
+    private CompactEventSerializer serializer(Format format) {
+        return new CompactEventSerializer(objectMapper, new EventEncodingConfig(format, 100));
+    }
+
+    private static ReadyToTranslateEvent event(String value) {
+        var request = new TranslationRequest(1001L, 2002L, value, "en-US", "de-DE", "editor");
+        return new ReadyToTranslateEvent(request, Scheduling.interactive(Duration.ofMinutes(1)));
+    }
+}
@@ -17,7 +17,6 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.modulith.events.IncompleteEventPublications;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
@@ -31,8 +30,8 @@ class FailedEventsServiceTest {
     @Autowired
     MultiInstanceLockRepository lockRepository;
 
-    @MockitoBean(name = "incompleteEvents")
-    IncompleteEventPublications incompleteEventPublications;
+    @MockitoBean
+    PublicationRetryService retryService;
 
     @BeforeEach
     void setUp() {
@@ -48,8 +47,7 @@ class FailedEventsServiceTest {
         failedEventsService.resubmitFailedEvents();
 
         // Assert
-        verify(incompleteEventPublications, times(1))
-            .resubmitIncompletePublicationsOlderThan(Duration.ofHours(1));
+        verify(retryService, times(1)).resubmitExhaustedPage(any(Instant.class), any());
 
         var lock = lockRepository.findById(LOCK_NAME);
         assertThat(lock).isPresent();
@@ -66,8 +64,7 @@ class FailedEventsServiceTest {
         failedEventsService.resubmitFailedEvents();
 
         // Assert
-        verify(incompleteEventPublications, times(1))
-            .resubmitIncompletePublicationsOlderThan(Duration.ofHours(1));
+        verify(retryService, times(1)).resubmitExhaustedPage(any(Instant.class), any());
 
         var lock = lockRepository.findById(LOCK_NAME);
         assertThat(lock).isPresent();
@@ -85,8 +82,7 @@ class FailedEventsServiceTest {
         failedEventsService.resubmitFailedEvents();
 
         // Assert
-        verify(incompleteEventPublications, never())
-            .resubmitIncompletePublicationsOlderThan(any(Duration.class));
+        verify(retryService, never()).resubmitExhaustedPage(any(Instant.class), any());
 
         // Verify lock was NOT updated
         var lock = lockRepository.findById(LOCK_NAME);
@@ -101,14 +97,13 @@ class FailedEventsServiceTest {
         lockRepository.updateLastExecution(LOCK_NAME, oldExecution);
 
         doThrow(new RuntimeException("Database connection failed"))
-            .when(incompleteEventPublications).resubmitIncompletePublicationsOlderThan(any(Duration.class));
+            .when(retryService).resubmitExhaustedPage(any(Instant.class), any());
 
         // Act
         failedEventsService.resubmitFailedEvents();
 
         // Assert
-        verify(incompleteEventPublications, times(1))
-            .resubmitIncompletePublicationsOlderThan(Duration.ofHours(1));
+        verify(retryService, times(1)).resubmitExhaustedPage(any(Instant.class), any());
 
         // Verify lock was still updated despite the exception
         var lock = lockRepository.findById(LOCK_NAME);
@@ -152,12 +147,11 @@ class FailedEventsServiceTest {
             assertThat(finishLatch.await(10, TimeUnit.SECONDS)).isTrue();
         }
 
-        // Assert - Due to FOR UPDATE lock, the executions are serialized:
-        // 1. First thread acquires lock, sees old timestamp, executes resubmission, updates lock
-        // 2. Remaining threads acquire lock sequentially, see recent timestamp, skip resubmission
-        // Result: resubmitIncompletePublicationsOlderThan should be called EXACTLY once
-        verify(incompleteEventPublications, times(1))
-            .resubmitIncompletePublicationsOlderThan(Duration.ofHours(1));
+        // Assert - Only one instance acquires the lease:
+        // 1. First thread acquires the lease, sees old timestamp, executes resubmission, updates lock
+        // 2. Remaining threads find the lease held or the timestamp recent, skip resubmission
+        // Result: resubmitExhaustedPage should be called EXACTLY once
+        verify(retryService, times(1)).resubmitExhaustedPage(any(Instant.class), any());
 
         // Verify the lock timestamp was updated
         var lock = lockRepository.findById(LOCK_NAME);
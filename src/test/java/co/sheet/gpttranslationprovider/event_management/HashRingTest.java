@@ -0,0 +1,41 @@
+package co.sheet.gpttranslationprovider.event_management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class HashRingTest {
+
+    static final int BUCKETS = 256;
+
+    @Test
+    void owner_shouldSpreadBucketsOverMembers() {
+        var ring = new HashRing(List.of("pod-a", "pod-b", "pod-c"), 64);
+
+        var owned = new HashMap<String, Integer>();
+        IntStream.range(0, BUCKETS).forEach(bucket -> owned.merge(ring.owner("bucket-" + bucket), 1, Integer::sum));
+
+        assertThat(owned).containsOnlyKeys("pod-a", "pod-b", "pod-c");
+        assertThat(owned.values()).allSatisfy(count -> assertThat(count).isBetween(BUCKETS / 6, BUCKETS / 2));
+    }
+
+    @Test
+    void owner_shouldOnlyMoveBucketsOfLeavingMember() {
+        var before = new HashRing(List.of("pod-a", "pod-b", "pod-c"), 64);
+        var after = new HashRing(List.of("pod-a", "pod-b"), 64);
+
+        IntStream.range(0, BUCKETS).mapToObj(bucket -> "bucket-" + bucket).forEach(bucket -> {
+            if (!before.owner(bucket).equals("pod-c")) {
+                assertThat(after.owner(bucket)).isEqualTo(before.owner(bucket));
+            }
+        });
+    }
+
+    @Test
+    void owner_shouldBeNull_forEmptyRing() {
+        assertThat(new HashRing(List.of(), 64).owner("bucket-1")).isNull();
+    }
+}
@@ -0,0 +1,110 @@
+package co.sheet.gpttranslationprovider.event_management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import co.sheet.gpttranslationprovider.event_management.JobsConfig.JobSchedule;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.HashSet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class JobLeasesTest {
+
+    static final String JOB = "lease_test";
+
+    @Autowired
+    JdbcClient jdbcClient;
+
+    JobLeases instance;
+    JobLeases otherInstance;
+
+    @BeforeEach
+    void setUp() {
+        jdbcClient.sql("DELETE FROM multi_instance_locks WHERE lock_name LIKE 'lease_test%'").update();
+        var config = new JobsConfig(Duration.ofMillis(300), Duration.ofMillis(100), null, new JobSchedule(null, Duration.ofHours(1), 3));
+        instance = new JobLeases(jdbcClient, config);
+        otherInstance = new JobLeases(jdbcClient, config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        instance.close();
+        otherInstance.close();
+    }
+
+    @Test
+    void tryAcquire_shouldGrantOneLease_andNoneUntilTheIntervalPassed() {
+        var lease = instance.tryAcquire(JOB, Duration.ofHours(1));
+
+        assertThat(lease).isPresent();
+        assertThat(otherInstance.tryAcquire(JOB, Duration.ofHours(1))).isEmpty();
+
+        lease.get().close();
+
+        assertThat(otherInstance.tryAcquire(JOB, Duration.ofHours(1))).isEmpty();
+        assertThat(otherInstance.tryAcquire(JOB, Duration.ZERO)).isPresent();
+    }
+
+    @Test
+    void lease_shouldBeRenewed_whileTheJobRuns() throws InterruptedException {
+        var lease = instance.tryAcquire(JOB, Duration.ofHours(1)).orElseThrow();
+
+        Thread.sleep(700);
+
+        assertThat(lease.valid()).isTrue();
+        assertThat(otherInstance.tryAcquire(JOB, Duration.ofHours(1))).isEmpty();
+    }
+
+    @Test
+    void tryAcquire_shouldTakeOverExpiredLease_andFenceOffItsHolder() throws InterruptedException {
+        var stale = instance.tryAcquire(JOB, Duration.ofHours(1)).orElseThrow();
+        // the holder stalls: no heartbeat, the lease expires
+        stale.heartbeat.cancel(false);
+        Thread.sleep(400);
+
+        var takenOver = otherInstance.tryAcquire(JOB, Duration.ofHours(1));
+
+        assertThat(takenOver).isPresent();
+        assertThat(takenOver.get().fencingToken).isGreaterThan(stale.fencingToken);
+        assertThat(stale.valid()).isFalse();
+
+        stale.close();
+
+        // the stale holder did not release the lease of the new one
+        assertThat(instance.tryAcquire(JOB, Duration.ZERO)).isEmpty();
+    }
+
+    @Test
+    void tryAcquire_shouldLetTheLeaseExpire_byTheDatabaseClock() {
+        var lease = instance.tryAcquire(JOB, Duration.ofHours(1)).orElseThrow();
+
+        var leaseUntil = jdbcClient.sql("SELECT lease_until FROM multi_instance_locks WHERE lock_name = :name")
+                                   .param("name", JOB)
+                                   .query(OffsetDateTime.class)
+                                   .single();
+        var databaseNow = jdbcClient.sql("SELECT CURRENT_TIMESTAMP").query(OffsetDateTime.class).single();
+
+        assertThat(Duration.between(databaseNow, leaseUntil)).isBetween(Duration.ZERO, Duration.ofMillis(300));
+        assertThat(lease.startedAt).isBeforeOrEqualTo(databaseNow.toInstant());
+    }
+
+    @Test
+    void tryAcquireShard_shouldSpreadTheShards_overTheInstances() {
+        var shards = new HashSet<Integer>();
+
+        instance.tryAcquireShard(JOB, 3, Duration.ofHours(1)).ifPresent(lease -> shards.add(lease.shard));
+        otherInstance.tryAcquireShard(JOB, 3, Duration.ofHours(1)).ifPresent(lease -> shards.add(lease.shard));
+        instance.tryAcquireShard(JOB, 3, Duration.ofHours(1)).ifPresent(lease -> shards.add(lease.shard));
+
+        assertThat(shards).containsExactlyInAnyOrder(0, 1, 2);
+        assertThat(otherInstance.tryAcquireShard(JOB, 3, Duration.ofHours(1))).isEmpty();
+    }
+}
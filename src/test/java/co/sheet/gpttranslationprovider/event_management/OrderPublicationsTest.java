@@ -0,0 +1,102 @@
+package co.sheet.gpttranslationprovider.event_management;
+
+import static co.sheet.gpttranslationprovider.TestEvents.translationReady;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import co.sheet.gpttranslationprovider.your_notification.TranslationReadyEvent;
+import java.time.Instant;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openapitools.client.api.YourServiceApi;
+import org.openapitools.client.model.TranslationUpdate;
+import org.openapitools.client.model.YourResponse;
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.modulith.events.core.EventSerializer;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@RecordApplicationEvents
+class OrderPublicationsTest {
+
+    @Autowired
+    OrderPublications orderPublications;
+
+    @Autowired
+    JdbcClient jdbcClient;
+
+    @Autowired
+    EventSerializer eventSerializer;
+
+    @Autowired
+    ApplicationEvents applicationEvents;
+
+    @MockitoBean
+    OpenAiChatModel openAiChatModel;
+
+    @MockitoBean
+    YourServiceApi yourServiceApi;
+
+    @BeforeEach
+    void setUp() {
+        jdbcClient.sql("DELETE FROM event_publication").update();
+        when(yourServiceApi.updateTranslationForKey(any(TranslationUpdate.class)))
+            .thenReturn(new YourResponse(null, null, null, "Success", null));
+    }
+
+    @Test
+    void resubmit_shouldRepublishOnlyIncompleteEventsOfOrder() {
+        var failed = insert(translationReady(7001L, 1L), null);
+        insert(translationReady(7001L, 2L), Instant.now());
+        insert(translationReady(7002L, 3L), null);
+
+        var resubmitted = orderPublications.resubmit(7001L, null);
+
+        assertThat(resubmitted).isEqualTo(1);
+        assertThat(applicationEvents.stream(TranslationReadyEvent.class))
+            .extracting(event -> event.translationRequest().masterCopyKeyId())
+            .containsExactly(1L);
+        assertThat(jdbcClient.sql("SELECT completion_date FROM event_publication WHERE id = :id")
+                             .param("id", failed)
+                             .query(Instant.class)
+                             .single())
+            .isNotNull();
+    }
+
+    @Test
+    void resubmit_shouldNarrowToMasterCopyKey_whenGiven() {
+        insert(translationReady(7003L, 4L), null);
+        insert(translationReady(7003L, 5L), null);
+
+        var resubmitted = orderPublications.resubmit(7003L, 5L);
+
+        assertThat(resubmitted).isEqualTo(1);
+        assertThat(applicationEvents.stream(TranslationReadyEvent.class))
+            .extracting(event -> event.translationRequest().masterCopyKeyId())
+            .containsExactly(5L);
+    }
+
+    private UUID insert(TranslationReadyEvent event, Instant completionDate) {
+        var id = UUID.randomUUID();
+        jdbcClient.sql("""
+                      INSERT INTO event_publication (id, listener_id, event_type, serialized_event, publication_date, completion_date)
+                      VALUES (:id, 'test-listener', :eventType, :serializedEvent, :publicationDate, :completionDate)
+                      """)
+                  .param("id", id)
+                  .param("eventType", TranslationReadyEvent.class.getName())
+                  .param("serializedEvent", eventSerializer.serialize(event).toString())
+                  .param("publicationDate", Instant.now())
+                  .param("completionDate", completionDate)
+                  .update();
+        return id;
+    }
+}
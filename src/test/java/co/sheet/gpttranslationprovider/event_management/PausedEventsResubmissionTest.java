@@ -0,0 +1,93 @@
+package co.sheet.gpttranslationprovider.event_management;
+
+import static co.sheet.gpttranslationprovider.TestEvents.translationReady;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import co.sheet.gpttranslationprovider.TestEvents;
+import co.sheet.gpttranslationprovider.flow_control.PausedEventsResumed;
+import co.sheet.gpttranslationprovider.your_notification.TranslationReadyEvent;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openapitools.client.api.YourServiceApi;
+import org.openapitools.client.model.TranslationUpdate;
+import org.openapitools.client.model.YourResponse;
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.modulith.events.core.EventSerializer;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+@SpringBootTest(properties = {
+    "translation.resume.page-size=2",
+    "translation.resume.page-interval=10ms"
+})
+@ActiveProfiles("test")
+class PausedEventsResubmissionTest {
+
+    @Autowired
+    PausedEventsResubmission resubmission;
+
+    @Autowired
+    JdbcClient jdbcClient;
+
+    @Autowired
+    EventSerializer eventSerializer;
+
+    @MockitoBean
+    OpenAiChatModel openAiChatModel;
+
+    @MockitoBean
+    YourServiceApi yourServiceApi;
+
+    @BeforeEach
+    void setUp() {
+        jdbcClient.sql("DELETE FROM event_publication").update();
+        // the resubmitted publications fail again, so they stay incomplete
+        when(yourServiceApi.updateTranslationForKey(any(TranslationUpdate.class)))
+            .thenReturn(new YourResponse(null, List.of("Order locked"), null, "Failed", null));
+    }
+
+    @Test
+    void resubmit_shouldRepublishOnlyThePausedEvents_inPages() {
+        var events = LongStream.rangeClosed(9001, 9005).mapToObj(TestEvents::translationReady).toList();
+        var paused = events.stream().map(this::insert).toList();
+        var notPaused = insert(translationReady(9006L));
+
+        resubmission.resubmit(new PausedEventsResumed("your-api", List.copyOf(events)));
+
+        assertThat(paused).allSatisfy(id -> assertThat(completed(id)).isTrue());
+        assertThat(completed(notPaused)).isFalse();
+        assertThat(jdbcClient.sql("SELECT COUNT(*) FROM event_publication WHERE completion_date IS NULL").query(Long.class).single())
+            .as("one new publication per paused event, plus the one not paused")
+            .isEqualTo(6);
+    }
+
+    private boolean completed(UUID id) {
+        return jdbcClient.sql("SELECT completion_date IS NOT NULL FROM event_publication WHERE id = :id")
+                         .param("id", id)
+                         .query(Boolean.class)
+                         .single();
+    }
+
+    private UUID insert(TranslationReadyEvent event) {
+        var id = UUID.randomUUID();
+        jdbcClient.sql("""
+                      INSERT INTO event_publication (id, listener_id, event_type, serialized_event, publication_date)
+                      VALUES (:id, 'test-listener', :eventType, :serializedEvent, :publishedAt)
+                      """)
+                  .param("id", id)
+                  .param("eventType", TranslationReadyEvent.class.getName())
+                  .param("serializedEvent", eventSerializer.serialize(event).toString())
+                  .param("publishedAt", Instant.now())
+                  .update();
+        return id;
+    }
+}
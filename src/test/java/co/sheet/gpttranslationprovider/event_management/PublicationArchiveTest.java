@@ -0,0 +1,101 @@
+package co.sheet.gpttranslationprovider.event_management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PublicationArchiveTest {
+
+    @Autowired
+    JdbcClient jdbcClient;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @TempDir
+    Path directory;
+
+    final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        jdbcClient.sql("DELETE FROM event_publication").update();
+        jdbcClient.sql("""
+                      UPDATE publication_archive_checkpoint
+                      SET completion_date = TIMESTAMP '2000-04-06 09:00:00+00', publication_id = '00000000-0000-0000-0000-000000000000'
+                      """)
+                  .update();
+    }
+
+    @Test
+    void archiveCompletedBefore_shouldArchiveCompletedPublications_findableByOrderAndDay() {
+        var archive = archive(Duration.ofMinutes(1));
+        var completedAt = Instant.now().minus(Duration.ofDays(2)).truncatedTo(ChronoUnit.MILLIS);
+        for (var i = 0; i < 5; i++) {
+            insert(42L, completedAt.plusMillis(i));
+        }
+        insert(7L, completedAt);
+        insert(42L, null);
+        var before = Instant.now().minus(Duration.ofDays(1));
+
+        assertThat(archive.archiveCompletedBefore(before, () -> true)).isEqualTo(before);
+
+        var day = completedAt.atZone(ZoneOffset.UTC).toLocalDate();
+        assertThat(archive.find(42L, day)).hasSize(5).allSatisfy(publication -> {
+            assertThat(publication.orderId()).isEqualTo(42L);
+            assertThat(publication.serializedEvent()).isEqualTo("{\"orderId\":42}");
+        });
+        assertThat(archive.find(7L, day)).hasSize(1);
+        assertThat(meterRegistry.get("translation.archive.archived").counter().count()).isEqualTo(6);
+    }
+
+    @Test
+    void archiveCompletedBefore_shouldContinueFromCheckpoint_afterMaxDuration() {
+        var archive = archive(Duration.ZERO);
+        var completedAt = Instant.now().minus(Duration.ofDays(2)).truncatedTo(ChronoUnit.MILLIS);
+        for (var i = 0; i < 5; i++) {
+            insert(42L, completedAt.plusMillis(i));
+        }
+        var before = Instant.now().minus(Duration.ofDays(1));
+
+        // chunks of 2, every run stops after its first chunk
+        assertThat(archive.archiveCompletedBefore(before, () -> true)).isEqualTo(completedAt.plusMillis(1));
+        assertThat(archive.archiveCompletedBefore(before, () -> true)).isEqualTo(completedAt.plusMillis(3));
+        assertThat(archive.archiveCompletedBefore(before, () -> true)).isEqualTo(before);
+
+        assertThat(archive.find(42L, completedAt.atZone(ZoneOffset.UTC).toLocalDate())).hasSize(5);
+    }
+
+    private PublicationArchive archive(Duration maxDuration) {
+        var config = new ArchiveConfig(true, directory.toString(), 2, maxDuration);
+        return new PublicationArchive(jdbcClient, new LocalArchiveStore(directory), objectMapper, config, meterRegistry);
+    }
+
+    private void insert(Long orderId, Instant completedAt) {
+        jdbcClient.sql("""
+                      INSERT INTO event_publication (id, listener_id, event_type, serialized_event, publication_date, completion_date)
+                      VALUES (:id, 'test-listener', 'test.Event', :serializedEvent, :publishedAt, :completedAt)
+                      """)
+                  .param("id", UUID.randomUUID())
+                  .param("serializedEvent", "{\"orderId\":" + orderId + "}")
+                  .param("publishedAt", Instant.now().minus(Duration.ofDays(3)))
+                  .param("completedAt", completedAt)
+                  .update();
+    }
+}
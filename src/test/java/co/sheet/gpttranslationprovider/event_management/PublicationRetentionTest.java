@@ -0,0 +1,96 @@
+package co.sheet.gpttranslationprovider.event_management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PublicationRetentionTest {
+
+    @Autowired
+    JdbcClient jdbcClient;
+
+    @Autowired
+    PublicationPartitions partitions;
+
+    @Autowired
+    PublicationArchive archive;
+
+    final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        jdbcClient.sql("DELETE FROM event_publication").update();
+    }
+
+    @Test
+    void deleteCompletedOlderThan_shouldDeleteInBatches_andKeepRecentAndIncompletePublications() {
+        var retention = retention(Duration.ofMinutes(1));
+        var old = Instant.now().minus(Duration.ofDays(2));
+        for (var i = 0; i < 7; i++) {
+            insert(old, old);
+        }
+        insert(old, null);
+        insert(Instant.now(), Instant.now());
+
+        var deleted = retention.deleteCompletedOlderThan(Duration.ofDays(1), () -> true);
+
+        assertThat(deleted).isEqualTo(7);
+        assertThat(jdbcClient.sql("SELECT COUNT(*) FROM event_publication").query(Long.class).single()).isEqualTo(2);
+        assertThat(meterRegistry.get("translation.retention.deleted").counter().count()).isEqualTo(7);
+    }
+
+    @Test
+    void deleteCompletedOlderThan_shouldStopAfterMaxDuration_andContinueOnNextRun() {
+        var retention = retention(Duration.ZERO);
+        var old = Instant.now().minus(Duration.ofDays(2));
+        for (var i = 0; i < 7; i++) {
+            insert(old, old);
+        }
+
+        assertThat(retention.deleteCompletedOlderThan(Duration.ofDays(1), () -> true)).isEqualTo(3);
+        assertThat(retention.deleteCompletedOlderThan(Duration.ofDays(1), () -> true)).isEqualTo(3);
+        assertThat(retention.deleteCompletedOlderThan(Duration.ofDays(1), () -> true)).isEqualTo(1);
+    }
+
+    @Test
+    void deleteCompletedOlderThan_shouldStop_onceTheLeaseIsLost() {
+        var retention = retention(Duration.ofMinutes(1));
+        var old = Instant.now().minus(Duration.ofDays(2));
+        for (var i = 0; i < 7; i++) {
+            insert(old, old);
+        }
+        var checks = new AtomicInteger();
+
+        // the lease is lost after the first batch
+        assertThat(retention.deleteCompletedOlderThan(Duration.ofDays(1), () -> checks.getAndIncrement() < 1)).isEqualTo(3);
+        assertThat(retention.deleteCompletedOlderThan(Duration.ofDays(1), () -> true)).isEqualTo(4);
+    }
+
+    private PublicationRetention retention(Duration maxDuration) {
+        var config = new RetentionConfig(Duration.ofMinutes(10), Duration.ofDays(1), 3, Duration.ofMillis(1), maxDuration);
+        return new PublicationRetention(jdbcClient, partitions, archive, config, meterRegistry);
+    }
+
+    private void insert(Instant publishedAt, Instant completedAt) {
+        jdbcClient.sql("""
+                      INSERT INTO event_publication (id, listener_id, event_type, serialized_event, publication_date, completion_date)
+                      VALUES (:id, 'test-listener', 'test.Event', '{}', :publishedAt, :completedAt)
+                      """)
+                  .param("id", UUID.randomUUID())
+                  .param("publishedAt", publishedAt)
+                  .param("completedAt", completedAt)
+                  .update();
+    }
+}
@@ -0,0 +1,158 @@
+package co.sheet.gpttranslationprovider.event_management;
+
+import static co.sheet.gpttranslationprovider.TestEvents.readyToTranslate;
+import static co.sheet.gpttranslationprovider.TestEvents.translationReady;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import co.sheet.gpttranslationprovider.Lane;
+import co.sheet.gpttranslationprovider.event_management.ClusterMembership.Shard;
+import co.sheet.gpttranslationprovider.open_ai.TranslationBacklog;
+import co.sheet.gpttranslationprovider.your_notification.TranslationReadyEvent;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openapitools.client.api.YourServiceApi;
+import org.openapitools.client.model.TranslationUpdate;
+import org.openapitools.client.model.YourResponse;
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.modulith.events.core.EventSerializer;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PublicationRetryServiceTest {
+
+    @Autowired
+    PublicationRetryService retryService;
+
+    @Autowired
+    JdbcClient jdbcClient;
+
+    @Autowired
+    EventSerializer eventSerializer;
+
+    @MockitoBean
+    OpenAiChatModel openAiChatModel;
+
+    @MockitoBean
+    YourServiceApi yourServiceApi;
+
+    @MockitoBean
+    TranslationBacklog translationBacklog;
+
+    @BeforeEach
+    void setUp() {
+        jdbcClient.sql("DELETE FROM event_publication").update();
+        // the resubmitted publications fail again, so they stay incomplete
+        when(yourServiceApi.updateTranslationForKey(any(TranslationUpdate.class)))
+            .thenReturn(new YourResponse(null, List.of("Order locked"), null, "Failed", null));
+    }
+
+    @Test
+    void retryDuePage_shouldResubmitFailedPublications_andScheduleNextAttempt() {
+        var failed = insert(translationReady(8001L), Instant.now().minus(Duration.ofHours(1)), 2);
+        insert(translationReady(8002L), Instant.now(), 0);
+
+        var claimed = retryService.retryDuePage();
+
+        assertThat(claimed).isEqualTo(1);
+        assertThat(jdbcClient.sql("SELECT COUNT(*) FROM event_publication WHERE id = :id AND completion_date IS NOT NULL")
+                             .param("id", failed)
+                             .query(Long.class)
+                             .single())
+            .isEqualTo(1);
+        var retried = jdbcClient.sql("""
+                                    SELECT attempts, next_attempt_at FROM event_publication
+                                    WHERE order_id = 8001 AND completion_date IS NULL
+                                    """)
+                                .query((rs, _) -> new RetryState(
+                                    rs.getInt("attempts"), rs.getObject("next_attempt_at", OffsetDateTime.class).toInstant()))
+                                .single();
+        assertThat(retried.attempts()).isEqualTo(3);
+        assertThat(retried.nextAttemptAt()).isAfter(Instant.now().plus(Duration.ofMinutes(9)));
+        var republished = jdbcClient.sql("SELECT serialized_event FROM event_publication WHERE order_id = 8001 AND completion_date IS NULL")
+                                    .query(String.class)
+                                    .single();
+        assertThat(((TranslationReadyEvent) eventSerializer.deserialize(republished, TranslationReadyEvent.class)).scheduling().lane())
+            .as("retries run behind fresh work, whatever the age of the event")
+            .isEqualTo(Lane.RESUBMISSION);
+    }
+
+    @Test
+    void renewHeld_shouldKeepPublicationsOfHeldEventsFromRetries() {
+        var held = readyToTranslate(8003L);
+        insert(held, Instant.now().minus(Duration.ofHours(1)), 0);
+        when(translationBacklog.held()).thenReturn(List.of(held));
+
+        assertThat(retryService.renewHeld()).isEqualTo(1);
+
+        assertThat(retryService.retryDuePage()).isZero();
+    }
+
+    @Test
+    void resubmitExhaustedPage_shouldOnlyTakePublicationsTheRetriesGaveUpOn() {
+        var exhausted = insert(translationReady(8004L), Instant.now().minus(Duration.ofHours(2)), retryService.config.maxAttempts());
+        insert(translationReady(8005L), Instant.now().minus(Duration.ofHours(2)), 3);
+
+        var claimed = retryService.resubmitExhaustedPage(Instant.now().minus(Duration.ofHours(1)), Shard.all(256));
+
+        assertThat(claimed).isEqualTo(1);
+        assertThat(jdbcClient.sql("SELECT completion_date IS NOT NULL FROM event_publication WHERE id = :id")
+                             .param("id", exhausted)
+                             .query(Boolean.class)
+                             .single())
+            .isTrue();
+        assertThat(jdbcClient.sql("SELECT attempts FROM event_publication WHERE order_id = 8004 AND completion_date IS NULL")
+                             .query(Integer.class)
+                             .single())
+            .as("the new publication is left to the next daily run")
+            .isEqualTo(retryService.config.maxAttempts());
+    }
+
+    @Test
+    void resubmitExhaustedPage_shouldOnlyTakePublicationsOfTheGivenBuckets() {
+        // bucket 8006 mod 256 = 70
+        insert(translationReady(8006L), Instant.now().minus(Duration.ofHours(2)), retryService.config.maxAttempts());
+        var publishedBefore = Instant.now().minus(Duration.ofHours(1));
+
+        assertThat(retryService.resubmitExhaustedPage(publishedBefore, Shard.none(256))).isZero();
+        assertThat(retryService.resubmitExhaustedPage(publishedBefore, Shard.none(256).bucket(71))).isZero();
+        assertThat(retryService.resubmitExhaustedPage(publishedBefore, Shard.none(256).bucket(70))).isEqualTo(1);
+    }
+
+    @Test
+    void delay_shouldGrowExponentially_upToMaxDelay() {
+        assertThat(retryService.delay(1)).isEqualTo(retryService.config.inFlightTimeout());
+        assertThat(retryService.delay(6)).isBetween(Duration.ofMinutes(16), Duration.ofMinutes(32));
+        assertThat(retryService.delay(30)).isBetween(Duration.ofHours(3), Duration.ofHours(6));
+    }
+
+    private UUID insert(Object event, Instant publishedAt, int attempts) {
+        var id = UUID.randomUUID();
+        jdbcClient.sql("""
+                      INSERT INTO event_publication (id, listener_id, event_type, serialized_event, publication_date, attempts, next_attempt_at)
+                      VALUES (:id, 'test-listener', :eventType, :serializedEvent, :publishedAt, :attempts, :publishedAt)
+                      """)
+                  .param("id", id)
+                  .param("eventType", event.getClass().getName())
+                  .param("serializedEvent", eventSerializer.serialize(event).toString())
+                  .param("publishedAt", publishedAt)
+                  .param("attempts", attempts)
+                  .update();
+        return id;
+    }
+
+    private record RetryState(int attempts, Instant nextAttemptAt) {
+
+    }
+}
@@ -0,0 +1,140 @@
+package co.sheet.gpttranslationprovider.event_management;
+
+import static co.sheet.gpttranslationprovider.TestEvents.readyToTranslate;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import co.sheet.gpttranslationprovider.Scheduling;
+import co.sheet.gpttranslationprovider.open_ai.OpenAiService;
+import co.sheet.gpttranslationprovider.open_ai.ReadyToTranslateEvent;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.modulith.events.core.EventSerializer;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest(properties = {
+    "translation.queue.enabled=true",
+    "translation.queue.workers=2",
+    "translation.queue.retry-delay=1h"
+})
+@ActiveProfiles("test")
+class WorkQueueTest {
+
+    static final Scheduling INTERACTIVE = Scheduling.interactive(Duration.ofMinutes(1));
+
+    @Autowired
+    ApplicationEventPublisher publisher;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    JdbcClient jdbcClient;
+
+    @Autowired
+    WorkQueue workQueue;
+
+    @Autowired
+    EventSerializer eventSerializer;
+
+    @MockitoBean
+    OpenAiService openAiService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcClient.sql("DELETE FROM work_queue").update();
+    }
+
+    @Test
+    void enqueue_shouldHandTranslationToWorker_andDeleteItOnceDone() {
+        var event = readyToTranslate(9001L, INTERACTIVE);
+
+        transactionTemplate.executeWithoutResult(_ -> publisher.publishEvent(event));
+
+        verify(openAiService, timeout(5_000)).process(event);
+        awaitQueueEmpty();
+        assertThat(jdbcClient.sql("SELECT COUNT(*) FROM event_publication WHERE serialized_event LIKE '%\"orderId\":9001%'")
+                             .query(Long.class)
+                             .single())
+            .as("queued events are not dispatched in memory")
+            .isZero();
+    }
+
+    @Test
+    void enqueue_shouldNotQueue_whenPublishingTransactionRollsBack() {
+        transactionTemplate.executeWithoutResult(status -> {
+            publisher.publishEvent(readyToTranslate(9002L, INTERACTIVE));
+            status.setRollbackOnly();
+        });
+
+        assertThat(jdbcClient.sql("SELECT COUNT(*) FROM work_queue").query(Long.class).single()).isZero();
+    }
+
+    @Test
+    void process_shouldMakeFailedTranslationAvailableAgain_afterBackoff() {
+        var event = readyToTranslate(9003L, INTERACTIVE);
+        doThrow(new IllegalStateException("Model unavailable")).when(openAiService).process(any());
+
+        transactionTemplate.executeWithoutResult(_ -> publisher.publishEvent(event));
+
+        verify(openAiService, timeout(5_000)).process(event);
+        var row = awaitReleased();
+        assertThat(row.attempts()).isEqualTo(1);
+        assertThat(row.availableAt().toInstant()).isAfter(Instant.now().plus(Duration.ofMinutes(30)));
+    }
+
+    @Test
+    void purgeParked_andRedriveParked_shouldDropExpiredRows_andGiveTheOthersAnotherAttempt() {
+        insertParked(readyToTranslate(9004L, INTERACTIVE), Instant.now().minus(Duration.ofDays(30)));
+        var recent = readyToTranslate(9005L, INTERACTIVE);
+        insertParked(recent, Instant.now().minus(Duration.ofHours(1)));
+
+        assertThat(workQueue.purgeParked()).isEqualTo(1);
+        assertThat(workQueue.redriveParked()).isEqualTo(1);
+
+        verify(openAiService, timeout(5_000)).process(recent);
+        awaitQueueEmpty();
+    }
+
+    private void insertParked(ReadyToTranslateEvent event, Instant enqueuedAt) {
+        jdbcClient.sql("""
+                      INSERT INTO work_queue (id, event_type, serialized_event, enqueued_at, available_at, attempts)
+                      VALUES (:id, :eventType, :serializedEvent, :enqueuedAt, NULL, 10)
+                      """)
+                  .param("id", UUID.randomUUID())
+                  .param("eventType", ReadyToTranslateEvent.class.getName())
+                  .param("serializedEvent", eventSerializer.serialize(event).toString())
+                  .param("enqueuedAt", enqueuedAt)
+                  .update();
+    }
+
+    private void awaitQueueEmpty() {
+        await().atMost(Duration.ofSeconds(5))
+               .until(() -> jdbcClient.sql("SELECT COUNT(*) FROM work_queue").query(Long.class).single(), count -> count == 0);
+    }
+
+    private QueueRow awaitReleased() {
+        return await().atMost(Duration.ofSeconds(5))
+                      .until(() -> jdbcClient.sql("SELECT attempts, available_at, claimed_by FROM work_queue")
+                                             .query(QueueRow.class)
+                                             .single(), row -> row.attempts() > 0 && row.claimedBy() == null);
+    }
+
+    record QueueRow(int attempts, OffsetDateTime availableAt, String claimedBy) {
+
+    }
+}
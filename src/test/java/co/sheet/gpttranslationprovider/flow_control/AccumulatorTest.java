@@ -0,0 +1,77 @@
+package co.sheet.gpttranslationprovider.flow_control;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class AccumulatorTest {
+
+    @Test
+    void submit_shouldFlushBatch_whenMaxSizeIsReached() throws Exception {
+        var batches = new CopyOnWriteArrayList<List<String>>();
+        try (var accumulator = new Accumulator<String, String, String>("test", 3, Duration.ofMinutes(1), (_, entries) -> {
+            batches.add(entries.stream().map(Accumulator.Entry::item).toList());
+            entries.forEach(entry -> entry.result().complete(entry.item().toUpperCase()));
+        })) {
+            var first = accumulator.submit("key", "a");
+            var second = accumulator.submit("key", "b");
+            var third = accumulator.submit("key", "c");
+
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("A");
+            assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("B");
+            assertThat(third.get(5, TimeUnit.SECONDS)).isEqualTo("C");
+        }
+
+        assertThat(batches).containsExactly(List.of("a", "b", "c"));
+    }
+
+    @Test
+    void submit_shouldFlushPartialBatch_whenWindowExpires() throws Exception {
+        var batches = new CopyOnWriteArrayList<List<String>>();
+        try (var accumulator = new Accumulator<String, String, String>("test", 10, Duration.ofMillis(50), (_, entries) -> {
+            batches.add(entries.stream().map(Accumulator.Entry::item).toList());
+            entries.forEach(entry -> entry.result().complete(entry.item()));
+        })) {
+            var first = accumulator.submit("en", "a");
+            var other = accumulator.submit("de", "b");
+
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("a");
+            assertThat(other.get(5, TimeUnit.SECONDS)).isEqualTo("b");
+            assertThat(accumulator.pendingItems()).isZero();
+        }
+
+        assertThat(batches).containsExactlyInAnyOrder(List.of("a"), List.of("b"));
+    }
+
+    @Test
+    void submit_shouldFailItems_thatHandlerLeftIncomplete() {
+        try (var accumulator = new Accumulator<String, String, String>("test", 2, Duration.ofMinutes(1), (_, entries) -> {
+            entries.getFirst().result().complete("done");
+        })) {
+            var first = accumulator.submit("key", "a");
+            var second = accumulator.submit("key", "b");
+
+            assertThat(first.join()).isEqualTo("done");
+            assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    void submitAndWait_shouldRethrowHandlerFailure() {
+        try (var accumulator = new Accumulator<String, String, String>("test", 1, Duration.ofMinutes(1), (_, _) -> {
+            throw new IllegalArgumentException("malformed");
+        })) {
+            assertThatThrownBy(() -> accumulator.submitAndWait("key", "a"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("malformed");
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package co.sheet.gpttranslationprovider.flow_control;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveLimiterTest {
+
+    final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void call_shouldGrowLimit_whenCallsAreHealthy() {
+        var limiter = limiter(new AdaptiveLimiter.Settings(2, 1, 10, Duration.ofMinutes(1), 0.5));
+
+        for (var i = 0; i < 10; i++) {
+            limiter.call(() -> "ok");
+        }
+
+        assertThat(limiter.currentLimit()).isGreaterThan(2);
+        assertThat(meterRegistry.get("translation.limiter.limit").gauge().value()).isEqualTo(limiter.currentLimit());
+    }
+
+    @Test
+    void call_shouldCutLimitOnce_whenBurstOfCallsIsRejected() throws Exception {
+        var limiter = limiter(new AdaptiveLimiter.Settings(8, 1, 10, Duration.ofMinutes(1), 0.5));
+        var started = new CountDownLatch(4);
+        var rejected = new CountDownLatch(1);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (var i = 0; i < 4; i++) {
+                executor.submit(() -> limiter.call(() -> {
+                    started.countDown();
+                    awaitLatch(rejected);
+                    throw new IllegalStateException("429 - rate limit reached");
+                }));
+            }
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            rejected.countDown();
+        }
+
+        assertThat(limiter.currentLimit()).isEqualTo(4);
+        assertThat(meterRegistry.get("translation.limiter.rejections").tag("reason", "rate_limited").counter().count()).isEqualTo(4);
+    }
+
+    @Test
+    void call_shouldKeepLimit_whenFailureIsNoOverload() {
+        var limiter = limiter(new AdaptiveLimiter.Settings(4, 1, 10, Duration.ofMinutes(1), 0.5));
+
+        assertThatThrownBy(() -> limiter.call(() -> {
+            throw new IllegalArgumentException("Error occurred while parsing gpt response!");
+        })).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(limiter.currentLimit()).isEqualTo(4);
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    void call_shouldQueueCalls_aboveLimit() throws Exception {
+        var limiter = limiter(new AdaptiveLimiter.Settings(1, 1, 1, Duration.ofMinutes(1), 0.5));
+        var firstRunning = new CountDownLatch(1);
+        var releaseFirst = new CountDownLatch(1);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var first = executor.submit(() -> limiter.call(() -> {
+                firstRunning.countDown();
+                awaitLatch(releaseFirst);
+                return "first";
+            }));
+            assertThat(firstRunning.await(5, TimeUnit.SECONDS)).isTrue();
+
+            var second = executor.submit(() -> limiter.call(() -> "second"));
+            await().atMost(Duration.ofSeconds(5)).until(() -> limiter.queued() > 0);
+            assertThat(second.isDone()).isFalse();
+
+            releaseFirst.countDown();
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+            assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("second");
+        }
+
+        assertThat(limiter.queued()).isZero();
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    private AdaptiveLimiter limiter(AdaptiveLimiter.Settings settings) {
+        return new AdaptiveLimiter("test", settings, failure -> failure.getMessage() != null && failure.getMessage().startsWith("429")
+            ? Optional.of("rate_limited")
+            : Optional.empty(), meterRegistry);
+    }
+
+    private static void awaitLatch(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package co.sheet.gpttranslationprovider.flow_control;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+    final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    final CircuitBreaker breaker = new CircuitBreaker(
+        "test",
+        new CircuitBreaker.Settings(0.5, 10, 4, Duration.ofMillis(100), 2),
+        failure -> failure instanceof IllegalStateException,
+        meterRegistry);
+
+    @Test
+    void call_shouldFailFast_whenFailureRateIsReached() {
+        succeed();
+        fail();
+        succeed();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        fail();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> breaker.call(() -> "not called")).isInstanceOf(CallNotPermittedException.class);
+        assertThatThrownBy(breaker::checkPermitted).isInstanceOf(CallNotPermittedException.class);
+        assertThat(meterRegistry.get("translation.breaker.rejections").tag("reason", "open").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void call_shouldNotCountOtherFailures() {
+        for (var i = 0; i < 5; i++) {
+            assertThatThrownBy(() -> breaker.call(() -> {
+                throw new IllegalArgumentException("Unknown key");
+            })).isInstanceOf(IllegalArgumentException.class);
+        }
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void call_shouldCloseAndNotifyListeners_whenProbesSucceed() throws Exception {
+        var closed = new CountDownLatch(1);
+        breaker.onClose(closed::countDown);
+        open();
+
+        Thread.sleep(150);
+        succeed();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        succeed();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(closed.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void call_shouldOpenAgain_whenProbeFails() throws Exception {
+        open();
+
+        Thread.sleep(150);
+        fail();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> breaker.call(() -> "not called")).isInstanceOf(CallNotPermittedException.class);
+    }
+
+    private void open() {
+        for (var i = 0; i < 4; i++) {
+            fail();
+        }
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    private void succeed() {
+        assertThat(breaker.call(() -> "ok")).isEqualTo("ok");
+    }
+
+    private void fail() {
+        assertThatThrownBy(() -> breaker.call(() -> {
+            throw new IllegalStateException("503 - unavailable");
+        })).isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,138 @@
+package co.sheet.gpttranslationprovider.flow_control;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class LaneSchedulerTest {
+
+    final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    final LaneScheduler<String> scheduler = new LaneScheduler<>("test", 1, weights(), meterRegistry);
+
+    @Test
+    void run_shouldDrainLanesByWeight() throws Exception {
+        var order = new CopyOnWriteArrayList<String>();
+        var release = new CountDownLatch(1);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            occupy(scheduler, executor, release);
+            for (var i = 0; i < 3; i++) {
+                enqueue(scheduler, executor, "low", order);
+                enqueue(scheduler, executor, "high", order);
+            }
+            release.countDown();
+        }
+
+        assertThat(order).containsExactly("high", "low", "high", "high", "low", "low");
+        assertThat(meterRegistry.get("translation.lane.wait").tag("lane", "low").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void call_shouldDropQueuedWork_whenDeadlinePasses() throws Exception {
+        var release = new CountDownLatch(1);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            occupy(scheduler, executor, release);
+
+            assertThatThrownBy(() -> scheduler.call("low", Instant.now().plus(Duration.ofMillis(50)), () -> "too late"))
+                .isInstanceOf(DeadlineExceededException.class);
+            release.countDown();
+        }
+
+        assertThat(scheduler.queued("low")).isZero();
+        assertThat(meterRegistry.get("translation.lane.dropped").tag("lane", "low").counter().count()).isEqualTo(1);
+        assertThat(scheduler.call("low", Instant.now().plusSeconds(5), () -> "in time")).isEqualTo("in time");
+    }
+
+    @Test
+    void call_shouldLetUsersTakeTurns_withinLane() throws Exception {
+        var fair = new LaneScheduler<>("fair", 1, Integer.MAX_VALUE, 1, weights(), meterRegistry);
+        var order = new CopyOnWriteArrayList<String>();
+        var release = new CountDownLatch(1);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            occupy(fair, executor, release);
+            for (var i = 0; i < 3; i++) {
+                enqueue(fair, executor, "low", "catalog-importer", order);
+            }
+            enqueue(fair, executor, "low", "editor", order);
+            release.countDown();
+        }
+
+        assertThat(order).containsExactly("catalog-importer", "editor", "catalog-importer", "catalog-importer");
+    }
+
+    @Test
+    void call_shouldLimitRunningCallsPerFlow() throws Exception {
+        var limited = new LaneScheduler<>("limited", 2, 1, 1, weights(), meterRegistry);
+        var release = new CountDownLatch(1);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var running = new CountDownLatch(1);
+            executor.submit(() -> limited.call("low", "user", 1, null, () -> {
+                running.countDown();
+                awaitLatch(release);
+                return null;
+            }));
+            assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+            var second = executor.submit(() -> limited.call("low", "user", 1, null, () -> "second"));
+            var other = executor.submit(() -> limited.call("low", "other", 1, null, () -> "other"));
+
+            assertThat(other.get(5, TimeUnit.SECONDS)).isEqualTo("other");
+            assertThat(second.isDone()).isFalse();
+            release.countDown();
+            assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("second");
+        }
+    }
+
+    private void occupy(LaneScheduler<String> scheduler, ExecutorService executor, CountDownLatch release) throws InterruptedException {
+        var running = new CountDownLatch(1);
+        executor.submit(() -> scheduler.run("high", null, () -> {
+            running.countDown();
+            awaitLatch(release);
+        }));
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private void enqueue(LaneScheduler<String> scheduler, ExecutorService executor, String lane, CopyOnWriteArrayList<String> order) {
+        var queued = scheduler.queued(lane);
+        executor.submit(() -> scheduler.run(lane, null, () -> order.add(lane)));
+        // keep the arrival order within the lane deterministic
+        await().atMost(Duration.ofSeconds(5)).until(() -> scheduler.queued(lane) > queued);
+    }
+
+    private void enqueue(LaneScheduler<String> scheduler, ExecutorService executor, String lane, String flow,
+                         CopyOnWriteArrayList<String> order) {
+        var queued = scheduler.queued(lane);
+        executor.submit(() -> scheduler.call(lane, flow, 1, null, () -> order.add(flow)));
+        // keep the arrival order within the lane deterministic
+        await().atMost(Duration.ofSeconds(5)).until(() -> scheduler.queued(lane) > queued);
+    }
+
+    private static LinkedHashMap<String, Integer> weights() {
+        var weights = new LinkedHashMap<String, Integer>();
+        weights.put("high", 2);
+        weights.put("low", 1);
+        return weights;
+    }
+
+    private static void awaitLatch(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
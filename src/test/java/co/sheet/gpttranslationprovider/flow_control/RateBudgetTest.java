@@ -0,0 +1,72 @@
+package co.sheet.gpttranslationprovider.flow_control;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class RateBudgetTest {
+
+    @Test
+    void acquire_shouldNotWait_whileBudgetIsAvailable() {
+        var budget = new RateBudget("test", 100, Duration.ofMinutes(1));
+
+        var waited = budget.acquire(60);
+
+        assertThat(waited).isLessThan(Duration.ofMillis(100));
+        assertThat(budget.available()).isBetween(40L, 41L);
+    }
+
+    @Test
+    void acquire_shouldWaitForRefill_whenBudgetIsUsedUp() {
+        var budget = new RateBudget("test", 10, Duration.ofSeconds(1));
+        budget.acquire(10);
+
+        var waited = budget.acquire(5);
+
+        assertThat(waited).isBetween(Duration.ofMillis(400), Duration.ofSeconds(2));
+    }
+
+    @Test
+    void adjust_shouldCarryDebt_whenEstimateWasTooLow() {
+        var budget = new RateBudget("test", 100, Duration.ofHours(1));
+        budget.acquire(50);
+
+        budget.adjust(80);
+
+        assertThat(budget.available()).isNegative();
+
+        budget.adjust(-200);
+
+        assertThat(budget.available()).isEqualTo(100);
+    }
+
+    @Test
+    void tryAcquire_shouldTellWhenToRetry_insteadOfWaiting() {
+        var budget = new RateBudget("test", 60, Duration.ofMinutes(1));
+
+        assertThat(budget.tryAcquire(50)).isZero();
+
+        assertThat(budget.tryAcquire(30)).isBetween(Duration.ofSeconds(15), Duration.ofSeconds(21));
+        assertThat(budget.available()).isBetween(10L, 11L);
+    }
+
+    @Test
+    void tryAcquire_shouldRefuseAmountsAboveTheCapacity_evenWithAFullBudget() {
+        var budget = new RateBudget("test", 60, Duration.ofMinutes(1));
+
+        assertThatThrownBy(() -> budget.tryAcquire(61)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(budget.available()).isEqualTo(60);
+    }
+
+    @Test
+    void resize_shouldCapWhatIsAvailable_toTheNewCapacity() {
+        var budget = new RateBudget("test", 90, Duration.ofHours(1));
+
+        budget.resize(30);
+
+        assertThat(budget.available()).isEqualTo(30);
+        assertThatThrownBy(() -> budget.tryAcquire(31)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
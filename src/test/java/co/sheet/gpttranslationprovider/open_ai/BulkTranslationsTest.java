@@ -0,0 +1,101 @@
+package co.sheet.gpttranslationprovider.open_ai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import co.sheet.gpttranslationprovider.TestEvents;
+import co.sheet.gpttranslationprovider.TranslationRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+@SpringBootTest(properties = {
+    // the jobs are processed by the tests, not by the poll
+    "translation.bulk.poll-interval=PT24H",
+    "translation.bulk.max-batch-requests=2",
+    "translation.bulk.max-submit-attempts=2"
+})
+@ActiveProfiles("test")
+class BulkTranslationsTest {
+
+    @Autowired
+    BulkTranslations bulkTranslations;
+
+    @Autowired
+    JdbcClient jdbcClient;
+
+    @MockitoBean
+    BatchTranslationProvider provider;
+
+    @MockitoBean
+    TranslationEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        jdbcClient.sql("DELETE FROM bulk_translation_batch").update();
+        jdbcClient.sql("DELETE FROM bulk_translation_item").update();
+        jdbcClient.sql("DELETE FROM bulk_translation_job").update();
+    }
+
+    @Test
+    void processJobs_shouldSplitJobIntoProviderBatches() throws Exception {
+        var submittedLines = new CopyOnWriteArrayList<Long>();
+        when(provider.submit(any())).thenAnswer(invocation -> {
+            try (var lines = Files.lines(invocation.<Path>getArgument(0))) {
+                submittedLines.add(lines.count());
+            }
+            return "batch-" + submittedLines.size();
+        });
+        var jobId = bulkTranslations.submit(requests(5));
+
+        bulkTranslations.processJobs(0, 1, () -> true);
+
+        assertThat(submittedLines).containsExactly(2L, 2L, 1L);
+        assertThat(jobStatus(jobId)).isEqualTo("SUBMITTED");
+        assertThat(jdbcClient.sql("SELECT provider_batch_id FROM bulk_translation_batch WHERE job_id = :jobId ORDER BY batch_index")
+                             .param("jobId", jobId)
+                             .query(String.class)
+                             .list())
+            .containsExactly("batch-1", "batch-2", "batch-3");
+    }
+
+    @Test
+    void processJobs_shouldFallBackToOnline_afterRepeatedlyFailedSubmits() {
+        when(provider.submit(any())).thenThrow(new IllegalStateException("Batch exceeds the enqueued token limit"));
+        var jobId = bulkTranslations.submit(requests(3));
+
+        bulkTranslations.processJobs(0, 1, () -> true);
+
+        assertThat(jobStatus(jobId)).isEqualTo("PENDING");
+        verify(publisher, never()).publishReadyToTranslate(any(), any());
+
+        bulkTranslations.processJobs(0, 1, () -> true);
+
+        assertThat(jobStatus(jobId)).isEqualTo("FAILED");
+        verify(publisher, times(3)).publishReadyToTranslate(any(), any());
+    }
+
+    private String jobStatus(UUID jobId) {
+        return jdbcClient.sql("SELECT status FROM bulk_translation_job WHERE id = :id").param("id", jobId).query(String.class).single();
+    }
+
+    private static List<TranslationRequest> requests(int count) {
+        return LongStream.rangeClosed(1, count)
+                         .mapToObj(orderId -> TestEvents.request(orderId, 1L))
+                         .toList();
+    }
+}
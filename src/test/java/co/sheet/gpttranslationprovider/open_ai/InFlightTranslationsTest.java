@@ -0,0 +1,75 @@
+package co.sheet.gpttranslationprovider.open_ai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class InFlightTranslationsTest {
+
+    final InFlightTranslations inFlightTranslations = new InFlightTranslations(new SimpleMeterRegistry());
+    final TranslationKey key = new TranslationKey("hash", "en-gb", "de-de");
+
+    @Test
+    void translate_shouldCallTranslationOnce_forConcurrentDuplicates() throws Exception {
+        var calls = new AtomicInteger();
+        var leaderStarted = new CountDownLatch(1);
+        var releaseLeader = new CountDownLatch(1);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var leader = executor.submit(() -> inFlightTranslations.translate(key, () -> {
+                calls.incrementAndGet();
+                leaderStarted.countDown();
+                awaitLatch(releaseLeader);
+                return "Hallo";
+            }));
+            assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+            var followers = new ArrayList<Future<String>>();
+            for (int i = 0; i < 5; i++) {
+                followers.add(executor.submit(() -> inFlightTranslations.translate(key, () -> {
+                    calls.incrementAndGet();
+                    return "unexpected";
+                })));
+            }
+            // followers are parked on the leader's future once they are counted as coalesced
+            await().atMost(Duration.ofSeconds(5)).until(() -> inFlightTranslations.coalesced.count() >= 5);
+            releaseLeader.countDown();
+
+            assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("Hallo");
+            for (var follower : followers) {
+                assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("Hallo");
+            }
+        }
+
+        assertThat(calls).hasValue(1);
+        assertThat(inFlightTranslations.inFlight).isEmpty();
+    }
+
+    @Test
+    void translate_shouldPropagateLeaderFailure_andAllowNextAttempt() {
+        assertThatThrownBy(() -> inFlightTranslations.translate(key, () -> {
+            throw new IllegalStateException("model is down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(inFlightTranslations.inFlight).isEmpty();
+        assertThat(inFlightTranslations.translate(key, () -> "Hallo")).isEqualTo("Hallo");
+    }
+
+    private static void awaitLatch(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package co.sheet.gpttranslationprovider.open_ai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Runs the provider against a local stub of the Files and Batch API.
+ */
+class OpenAiBatchProviderTest {
+
+    static final String RESULTS = """
+        {"custom_id":"0","response":{"status_code":200,"body":{"choices":[{"message":{"content":"{}"}}]}}}
+        """;
+
+    HttpServer stub;
+    OpenAiBatchProvider provider;
+    final CopyOnWriteArrayList<String> requests = new CopyOnWriteArrayList<>();
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stub.createContext("/v1/files", exchange -> {
+            capture(exchange);
+            if (exchange.getRequestURI().getPath().endsWith("/content")) {
+                respond(exchange, RESULTS);
+            } else {
+                respond(exchange, """
+                    {"id": "file-input"}
+                    """);
+            }
+        });
+        stub.createContext("/v1/batches", exchange -> {
+            capture(exchange);
+            if ("POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, """
+                    {"id": "batch-1", "status": "validating"}
+                    """);
+            } else {
+                respond(exchange, """
+                    {"id": "batch-1", "status": "completed", "output_file_id": "file-output", "error_file_id": null}
+                    """);
+            }
+        });
+        stub.start();
+
+        var config = new BulkTranslationConfig("http://localhost:" + stub.getAddress().getPort(), "test-key", 100, 50_000, DataSize.ofMegabytes(190), 5);
+        provider = new OpenAiBatchProvider(config, RestClient.builder());
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.stop(0);
+    }
+
+    @Test
+    void submit_shouldUploadFileAndStartBatch() throws IOException {
+        var requestsFile = Files.writeString(tempDir.resolve("requests.jsonl"), "{\"custom_id\":\"0\"}\n");
+
+        var batchId = provider.submit(requestsFile);
+
+        assertThat(batchId).isEqualTo("batch-1");
+        assertThat(requests).containsExactly("POST /v1/files", "POST /v1/batches");
+    }
+
+    @Test
+    void status_shouldMapBatchState() {
+        var state = provider.status("batch-1");
+
+        assertThat(state.isCompleted()).isTrue();
+        assertThat(state.isFailed()).isFalse();
+        assertThat(state.outputFileId()).isEqualTo("file-output");
+        assertThat(state.errorFileId()).isNull();
+    }
+
+    @Test
+    void download_shouldStoreFileContent() throws IOException {
+        var target = tempDir.resolve("results.jsonl");
+
+        provider.download("file-output", target);
+
+        assertThat(Files.readString(target)).isEqualTo(RESULTS);
+        assertThat(requests).containsExactly("GET /v1/files/file-output/content");
+    }
+
+    private void capture(HttpExchange exchange) {
+        assertThat(exchange.getRequestHeaders().getFirst("Authorization")).isEqualTo("Bearer test-key");
+        requests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath());
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        var bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getRequestBody().readAllBytes();
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (var responseBody = exchange.getResponseBody()) {
+            responseBody.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package co.sheet.gpttranslationprovider.open_ai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import co.sheet.gpttranslationprovider.TranslationRequest;
+import co.sheet.gpttranslationprovider.your_notification.TranslationReadyEvent;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.openapitools.client.api.YourServiceApi;
+import org.openapitools.client.model.TranslationUpdate;
+import org.openapitools.client.model.YourResponse;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.modulith.test.EnableScenarios;
+import org.springframework.modulith.test.Scenario;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import reactor.core.publisher.Flux;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@EnableScenarios
+class StreamingTranslationsTest {
+
+    @Autowired
+    StreamingTranslations streamingTranslations;
+
+    @MockitoBean
+    OpenAiChatModel openAiChatModel;
+
+    @MockitoBean
+    YourServiceApi yourServiceApi;
+
+    @Test
+    void stream_shouldEmitTokens_andPublishFullTranslationWhenDone(Scenario scenario) {
+        var request = new TranslationRequest(3001L, 4001L, "Streamed linen dress", "en-GB", "de-DE", "editor1");
+        when(openAiChatModel.stream(any(Prompt.class)))
+            .thenReturn(Flux.just(chunk("Leinen"), chunk("kleid")));
+        when(yourServiceApi.updateTranslationForKey(any(TranslationUpdate.class)))
+            .thenReturn(new YourResponse(null, null, null, "Success", null));
+
+        scenario.stimulate(() -> streamingTranslations.stream(request, true).collectList().block())
+                .andWaitForEventOfType(TranslationReadyEvent.class)
+                .matching(event -> event.translationRequest().orderId().equals(3001L))
+                .toArriveAndVerify((event, tokens) -> {
+                    assertThat(tokens).containsExactly("Leinen", "kleid");
+                    assertThat(event.translationResult()).isEqualTo("Leinenkleid");
+                });
+    }
+
+    @Test
+    void stream_shouldNotPublish_whenNotRequested() {
+        var request = new TranslationRequest(3002L, 4002L, "Streamed wool coat", "en-GB", "de-DE", "editor1");
+        when(openAiChatModel.stream(any(Prompt.class)))
+            .thenReturn(Flux.just(chunk("Woll"), chunk("mantel")));
+
+        var tokens = streamingTranslations.stream(request, false).collectList().block();
+
+        assertThat(tokens).containsExactly("Woll", "mantel");
+    }
+
+    private ChatResponse chunk(String content) {
+        return new ChatResponse(List.of(new Generation(new AssistantMessage(content))));
+    }
+}
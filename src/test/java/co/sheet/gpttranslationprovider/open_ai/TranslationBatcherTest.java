@@ -0,0 +1,87 @@
+package co.sheet.gpttranslationprovider.open_ai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import co.sheet.gpttranslationprovider.TranslationRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class TranslationBatcherTest {
+
+    final ChatTranslator chatTranslator = mock(ChatTranslator.class);
+    final TranslationBatcher batcher = new TranslationBatcher(
+        chatTranslator,
+        new TranslationBatchingConfig(true, 2, Duration.ofSeconds(5), 50),
+        new SimpleMeterRegistry());
+
+    @AfterEach
+    void tearDown() {
+        batcher.close();
+    }
+
+    @Test
+    void translate_shouldSendShortTextsOfSameLocalePairAsOneBatch() throws Exception {
+        when(chatTranslator.translateBatch("en-GB", "de-DE", List.of("Red shirt", "Blue shirt")))
+            .thenReturn(Map.of(0, "Rotes Hemd", 1, "Blaues Hemd"));
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var red = executor.submit(() -> batcher.translate(request("Red shirt")));
+            // keep the order of the batch deterministic
+            await().atMost(Duration.ofSeconds(5)).until(() -> batcher.accumulator.pendingItems() > 0);
+            var blue = executor.submit(() -> batcher.translate(request("Blue shirt")));
+
+            assertThat(red.get(5, TimeUnit.SECONDS)).isEqualTo("Rotes Hemd");
+            assertThat(blue.get(5, TimeUnit.SECONDS)).isEqualTo("Blaues Hemd");
+        }
+
+        verify(chatTranslator, never()).translate(any(TranslationRequest.class));
+        assertThat(batcher.fallbackItems.count()).isZero();
+    }
+
+    @Test
+    void translate_shouldFallBackToSingleTranslations_whenBatchResponseIsMalformed() throws Exception {
+        when(chatTranslator.translateBatch(anyString(), anyString(), anyList()))
+            .thenThrow(new IllegalArgumentException("Error occurred while parsing gpt batch response!"));
+        when(chatTranslator.translate(any(TranslationRequest.class)))
+            .thenAnswer(invocation -> "translated " + invocation.<TranslationRequest>getArgument(0).value());
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var red = executor.submit(() -> batcher.translate(request("Red shirt")));
+            var blue = executor.submit(() -> batcher.translate(request("Blue shirt")));
+
+            assertThat(red.get(5, TimeUnit.SECONDS)).isEqualTo("translated Red shirt");
+            assertThat(blue.get(5, TimeUnit.SECONDS)).isEqualTo("translated Blue shirt");
+        }
+
+        verify(chatTranslator, times(2)).translate(any(TranslationRequest.class));
+        assertThat(batcher.fallbackItems.count()).isEqualTo(2);
+    }
+
+    @Test
+    void translate_shouldNotBatchLongTexts() {
+        var longText = "A".repeat(51);
+        when(chatTranslator.translate(any(TranslationRequest.class))).thenReturn("translated");
+
+        assertThat(batcher.translate(request(longText))).isEqualTo("translated");
+        verify(chatTranslator, never()).translateBatch(anyString(), anyString(), anyList());
+    }
+
+    private TranslationRequest request(String value) {
+        return new TranslationRequest(1L, 2L, value, "en-GB", "de-DE", "user123");
+    }
+}
@@ -0,0 +1,110 @@
+package co.sheet.gpttranslationprovider.open_ai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import co.sheet.gpttranslationprovider.TranslationRequest;
+import java.sql.Timestamp;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TranslationMemoryTest {
+
+    @Autowired
+    TranslationMemory translationMemory;
+
+    @Autowired
+    JdbcClient jdbcClient;
+
+    @BeforeEach
+    void setUp() {
+        jdbcClient.sql("DELETE FROM translation_memory").update();
+        translationMemory.localCache.invalidateAll();
+    }
+
+    @Test
+    void key_shouldIgnoreWhitespaceDifferencesAndLocaleCase() {
+        var first = TranslationKey.of(request("  Red  cotton\tshirt ", "en-GB", "de-DE"));
+        var second = TranslationKey.of(request("Red cotton shirt", "EN-gb", "de-de"));
+
+        assertThat(first).isEqualTo(second);
+        assertThat(first).isNotEqualTo(TranslationKey.of(request("Red cotton shirt", "en-GB", "fr-FR")));
+    }
+
+    @Test
+    void find_shouldReturnRememberedTranslation() {
+        var key = TranslationKey.of(request("Red cotton shirt", "en-GB", "de-DE"));
+
+        assertThat(translationMemory.find(key)).isEmpty();
+
+        translationMemory.remember(key, "Rotes Baumwollhemd");
+
+        assertThat(translationMemory.find(key)).contains("Rotes Baumwollhemd");
+    }
+
+    @Test
+    void find_shouldFallBackToSharedTier_whenLocalCacheMisses() {
+        var key = TranslationKey.of(request("Blue denim jacket", "en-GB", "sv-SE"));
+        translationMemory.remember(key, "Blå jeansjacka");
+
+        // Simulate another pod: its local cache has never seen this key
+        translationMemory.localCache.invalidateAll();
+
+        assertThat(translationMemory.find(key)).contains("Blå jeansjacka");
+        assertThat(translationMemory.localCache.getIfPresent(key)).isEqualTo("Blå jeansjacka");
+    }
+
+    @Test
+    void find_shouldIgnoreExpiredSharedEntries() {
+        var key = TranslationKey.of(request("Green wool scarf", "en-GB", "fr-FR"));
+        insertExpired(key, "Écharpe en laine verte");
+
+        assertThat(translationMemory.find(key)).isEmpty();
+    }
+
+    @Test
+    void remember_shouldReplaceExpiredSharedEntry() {
+        var key = TranslationKey.of(request("Green wool scarf", "en-GB", "fr-FR"));
+        insertExpired(key, "Écharpe verte");
+
+        translationMemory.remember(key, "Écharpe en laine verte");
+        translationMemory.localCache.invalidateAll();
+
+        assertThat(translationMemory.find(key)).contains("Écharpe en laine verte");
+    }
+
+    @Test
+    void purgeExpired_shouldDeleteOnlyExpiredSharedEntries() {
+        var expired = TranslationKey.of(request("Green wool scarf", "en-GB", "fr-FR"));
+        var recent = TranslationKey.of(request("Blue denim jacket", "en-GB", "sv-SE"));
+        insertExpired(expired, "Écharpe en laine verte");
+        translationMemory.remember(recent, "Blå jeansjacka");
+
+        assertThat(translationMemory.purgeExpired(() -> true)).isEqualTo(1);
+        assertThat(jdbcClient.sql("SELECT translation FROM translation_memory").query(String.class).list())
+            .containsExactly("Blå jeansjacka");
+    }
+
+    private void insertExpired(TranslationKey key, String translation) {
+        jdbcClient.sql("""
+                      INSERT INTO translation_memory (content_hash, source_locale, target_locale, translation, created_at)
+                      VALUES (:contentHash, :sourceLocale, :targetLocale, :translation, :createdAt)
+                      """)
+                  .param("contentHash", key.contentHash())
+                  .param("sourceLocale", key.sourceLocale())
+                  .param("targetLocale", key.targetLocale())
+                  .param("translation", translation)
+                  .param("createdAt", Timestamp.from(Instant.parse("2000-04-06T09:00:00Z")))
+                  .update();
+    }
+
+    private TranslationRequest request(String value, String sourceLocale, String targetLocale) {
+        return new TranslationRequest(1L, 2L, value, sourceLocale, targetLocale, "user123");
+    }
+}
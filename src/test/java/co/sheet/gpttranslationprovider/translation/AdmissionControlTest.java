@@ -0,0 +1,58 @@
+package co.sheet.gpttranslationprovider.translation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import co.sheet.gpttranslationprovider.event_management.PublicationBacklog;
+import co.sheet.gpttranslationprovider.open_ai.TranslationBacklog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+class AdmissionControlTest {
+
+    final TranslationBacklog translationBacklog = mock(TranslationBacklog.class);
+    final PublicationBacklog publicationBacklog = mock(PublicationBacklog.class);
+    final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    final AdmissionControl admissionControl = new AdmissionControl(
+        new AdmissionConfig(true, 100, 1000, 500, 5000, Duration.ofSeconds(30), Duration.ofMinutes(2)),
+        translationBacklog,
+        publicationBacklog,
+        meterRegistry);
+
+    @Test
+    void admitBulk_shouldRejectWithRetryAfter_aboveSoftThreshold() {
+        when(publicationBacklog.pending()).thenReturn(600L);
+
+        assertThatThrownBy(() -> admissionControl.admitBulk(10))
+            .isInstanceOfSatisfying(RetryLaterException.class, e -> {
+                assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+                assertThat(e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("30");
+            });
+        assertThatCode(admissionControl::admitInteractive).doesNotThrowAnyException();
+        assertThat(meterRegistry.get("translation.admission.rejections").tag("kind", "bulk").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void admit_shouldRejectEverything_aboveHardThreshold() {
+        when(translationBacklog.queued()).thenReturn(1000);
+
+        assertThatThrownBy(admissionControl::admitInteractive).isInstanceOf(RetryLaterException.class);
+        assertThatThrownBy(admissionControl::admitOfflineBulk)
+            .isInstanceOfSatisfying(RetryLaterException.class,
+                e -> assertThat(e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("120"));
+    }
+
+    @Test
+    void admitBulk_shouldReject_whenImportAloneWouldReachHardThreshold() {
+        when(translationBacklog.queued()).thenReturn(10);
+
+        assertThatCode(() -> admissionControl.admitBulk(50)).doesNotThrowAnyException();
+        assertThatThrownBy(() -> admissionControl.admitBulk(2000)).isInstanceOf(RetryLaterException.class);
+    }
+}
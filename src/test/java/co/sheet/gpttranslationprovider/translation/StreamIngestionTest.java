@@ -0,0 +1,152 @@
+package co.sheet.gpttranslationprovider.translation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import co.sheet.gpttranslationprovider.event_management.BulkPublications;
+import co.sheet.gpttranslationprovider.open_ai.QuotaExceededException;
+import co.sheet.gpttranslationprovider.open_ai.ReadyToTranslateEvent;
+import co.sheet.gpttranslationprovider.open_ai.UserQuotas;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+
+class StreamIngestionTest {
+
+    final BulkPublications bulkPublications = mock(BulkPublications.class);
+    final AdmissionControl admissionControl = mock(AdmissionControl.class);
+    final UserQuotas userQuotas = mock(UserQuotas.class);
+    final StreamIngestion streamIngestion = new StreamIngestion(
+        new ObjectMapper(),
+        Validation.buildDefaultValidatorFactory().getValidator(),
+        bulkPublications,
+        admissionControl,
+        userQuotas,
+        new IngestionConfig(2, 1),
+        new SimpleMeterRegistry());
+
+    StreamIngestionTest() {
+        when(userQuotas.admit(anyList())).thenReturn(Duration.ZERO);
+    }
+
+    @Test
+    void ingest_shouldPublishNdjsonInChunks_andSkipInvalidRecords() throws Exception {
+        var body = String.join("\n",
+            record(1),
+            record(2),
+            """
+                {"orderId": 3, "masterCopyKeyId": 1, "value": "", "sourceLocale": "en-US", "targetLocale": "de-DE", "userId": "editor"}""",
+            """
+                {"orderId": "three", "masterCopyKeyId": 1}""",
+            record(5),
+            "");
+
+        var summary = streamIngestion.ingest(stream(body), null);
+
+        assertThat(summary.accepted()).isEqualTo(3);
+        assertThat(summary.rejected()).isEqualTo(2);
+        assertThat(summary.rejections()).singleElement().satisfies(rejection -> {
+            assertThat(rejection.index()).isEqualTo(2);
+            assertThat(rejection.reason()).contains("value");
+        });
+        assertThat(summary.stopped()).isNull();
+        assertThat(publishedOrderIds(2)).containsExactly(List.of(1L, 2L), List.of(5L));
+    }
+
+    @Test
+    void ingest_shouldReadJsonArray() throws Exception {
+        var body = IntStream.rangeClosed(1, 3).mapToObj(StreamIngestionTest::record).collect(Collectors.joining(",", "[", "]"));
+
+        var summary = streamIngestion.ingest(stream(body), Duration.ofHours(1));
+
+        assertThat(summary.accepted()).isEqualTo(3);
+        assertThat(summary.rejected()).isZero();
+        assertThat(publishedOrderIds(2)).containsExactly(List.of(1L, 2L), List.of(3L));
+    }
+
+    @Test
+    void ingest_shouldReject_whenFirstChunkIsNotAdmitted() {
+        doThrow(new RetryLaterException(HttpStatus.SERVICE_UNAVAILABLE, "Translation backlog is full", Duration.ofSeconds(30)))
+            .when(admissionControl).admitBulk(anyInt());
+
+        assertThatThrownBy(() -> streamIngestion.ingest(stream(record(1) + "\n" + record(2)), null))
+            .isInstanceOf(RetryLaterException.class);
+        verify(bulkPublications, times(0)).publishAll(any());
+    }
+
+    @Test
+    void ingest_shouldStopAndTellWhereToResume_whenLaterChunkIsOverQuota() throws Exception {
+        when(userQuotas.admit(anyList())).thenReturn(Duration.ZERO, Duration.ofSeconds(20));
+        var body = IntStream.rangeClosed(1, 5).mapToObj(StreamIngestionTest::record).collect(Collectors.joining("\n"));
+
+        var summary = streamIngestion.ingest(stream(body), null);
+
+        assertThat(summary.accepted()).isEqualTo(2);
+        assertThat(summary.stopped()).isEqualTo("Translation quota exceeded");
+        assertThat(summary.resumeFrom()).isEqualTo(2);
+        assertThat(summary.retryAfterSeconds()).isEqualTo(20);
+        assertThat(publishedOrderIds(1)).containsExactly(List.of(1L, 2L));
+    }
+
+    @Test
+    void ingest_shouldStopWithoutRetryAfter_whenLaterChunkIsAboveTheWholeQuota() throws Exception {
+        when(userQuotas.admit(anyList()))
+            .thenReturn(Duration.ZERO)
+            .thenThrow(new QuotaExceededException("Requests of user editor are above the quota"));
+        var body = IntStream.rangeClosed(1, 5).mapToObj(StreamIngestionTest::record).collect(Collectors.joining("\n"));
+
+        var summary = streamIngestion.ingest(stream(body), null);
+
+        assertThat(summary.accepted()).isEqualTo(2);
+        assertThat(summary.stopped()).isEqualTo("Requests of user editor are above the quota");
+        assertThat(summary.resumeFrom()).isEqualTo(2);
+        assertThat(summary.retryAfterSeconds()).isNull();
+    }
+
+    @Test
+    void ingest_shouldKeepPublishedChunks_whenStreamIsMalformed() throws Exception {
+        var body = record(1) + "\n" + record(2) + "\n" + record(3) + "\n{\"orderId\": 4,";
+
+        var summary = streamIngestion.ingest(stream(body), null);
+
+        assertThat(summary.accepted()).isEqualTo(3);
+        assertThat(summary.stopped()).startsWith("Malformed JSON at line 4");
+        assertThat(summary.resumeFrom()).isNull();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Long>> publishedOrderIds(int chunks) {
+        var captor = ArgumentCaptor.forClass(List.class);
+        verify(bulkPublications, times(chunks)).publishAll(captor.capture());
+        return captor.getAllValues().stream()
+                     .map(chunk -> ((List<ReadyToTranslateEvent>) chunk).stream().map(event -> event.translationRequest().orderId()).toList())
+                     .toList();
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String record(int orderId) {
+        return """
+            {"orderId": %d, "masterCopyKeyId": 1, "value": "Linen dress", "sourceLocale": "en-US", "targetLocale": "de-DE", "userId": "editor"}"""
+            .formatted(orderId);
+    }
+}
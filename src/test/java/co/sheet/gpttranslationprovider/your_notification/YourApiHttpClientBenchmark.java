@@ -0,0 +1,97 @@
+package co.sheet.gpttranslationprovider.your_notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.openapitools.client.ApiClient;
+import org.openapitools.client.api.YourServiceApi;
+import org.openapitools.client.model.TranslationUpdate;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Throughput of the Your API client on a bare {@link RestTemplate} compared to the pooled client, against a local stub answering after a
+ * few milliseconds. Disabled by default as it only prints numbers, remove {@code @Disabled} to run it locally.
+ */
+@Disabled
+
+@Slf4j
+class YourApiHttpClientBenchmark {
+
+    static final int REQUESTS = 5_000;
+    static final int CONCURRENCY = 100;
+    static final Duration STUB_LATENCY = Duration.ofMillis(5);
+
+    HttpServer stub;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("localhost", 0), 1_000);
+        stub.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        stub.createContext("/api/translationupdate", exchange -> {
+            try {
+                Thread.sleep(STUB_LATENCY);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            var body = "{\"message\": \"Success\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (var responseBody = exchange.getResponseBody()) {
+                responseBody.write(body);
+            }
+        });
+        stub.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.stop(0);
+    }
+
+    @Test
+    void compareBareAndPooledClient() throws Exception {
+        var settings = new YourApiHttpClient.HttpSettings(
+            false, CONCURRENCY, CONCURRENCY, Duration.ofSeconds(5), Duration.ofSeconds(30), Duration.ofMinutes(1), Duration.ofMinutes(10));
+
+        // warm up both clients and the stub
+        run(new RestTemplate(), 500);
+        run(new RestTemplate(YourApiHttpClient.pooled(settings, new SimpleMeterRegistry())), 500);
+
+        var bare = run(new RestTemplate(), REQUESTS);
+        var pooled = run(new RestTemplate(YourApiHttpClient.pooled(settings, new SimpleMeterRegistry())), REQUESTS);
+
+        log.info("Bare RestTemplate: {} requests/s", String.format("%.0f", bare));
+        log.info("Pooled client:     {} requests/s", String.format("%.0f", pooled));
+        assertThat(pooled).isPositive();
+    }
+
+    private double run(RestTemplate restTemplate, int requests) throws InterruptedException {
+        var apiClient = new ApiClient(restTemplate);
+        apiClient.setBasePath("http://localhost:" + stub.getAddress().getPort());
+        var api = new YourServiceApi(apiClient);
+        var update = new TranslationUpdate().orderId(1L).masterCopyKeyId(2L).targetLocale("de-DE").translationResult("Leinenkleid");
+
+        var started = System.nanoTime();
+        try (var executor = Executors.newFixedThreadPool(CONCURRENCY, Thread.ofVirtual().factory())) {
+            for (var i = 0; i < requests; i++) {
+                executor.submit(() -> api.updateTranslationForKey(update));
+            }
+            executor.shutdown();
+            assertThat(executor.awaitTermination(5, TimeUnit.MINUTES)).isTrue();
+        }
+        return requests / ((System.nanoTime() - started) / 1e9);
+    }
+}
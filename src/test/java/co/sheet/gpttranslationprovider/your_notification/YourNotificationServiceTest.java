@@ -0,0 +1,78 @@
+package co.sheet.gpttranslationprovider.your_notification;
+
+import static co.sheet.gpttranslationprovider.TestEvents.translationReady;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openapitools.client.api.YourServiceApi;
+import org.openapitools.client.model.TranslationUpdate;
+import org.openapitools.client.model.YourResponse;
+import org.springframework.context.ApplicationEventPublisher;
+
+class YourNotificationServiceTest {
+
+    final YourServiceApi yourServiceApi = mock(YourServiceApi.class);
+    final YourApiConfig config = new YourApiConfig(null, null, null, null, null, "key", "http://localhost", 10, 3, Duration.ofSeconds(5), null);
+    final YourApiCircuitConfig circuitConfig = new YourApiCircuitConfig(true, 0.5, 10, 5, Duration.ofSeconds(30), 1, 10, Duration.ofSeconds(1), 100);
+    final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    final YourNotificationService service = new YourNotificationService(
+        yourServiceApi,
+        new NotificationLanes(config, meterRegistry),
+        config,
+        new YourApiCircuit(circuitConfig, mock(ApplicationEventPublisher.class), meterRegistry),
+        meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        service.close();
+    }
+
+    @Test
+    void updateTranslation_shouldSendUpdatesOfOrderInOneBatch_andFailOnlyRejectedItems() throws Exception {
+        when(yourServiceApi.updateTranslationsForKeys(anyList())).thenAnswer(invocation -> {
+            List<TranslationUpdate> updates = invocation.getArgument(0);
+            return updates.stream()
+                          .map(update -> update.getMasterCopyKeyId() == 2L
+                              ? new YourResponse(null, List.of("Unknown key"), null, "Failed", null)
+                              : new YourResponse(null, null, null, "Success", null))
+                          .toList();
+        });
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var first = executor.submit(() -> service.updateTranslationInYourApi(translationReady(5001L, 1L)));
+            var rejected = executor.submit(() -> service.updateTranslationInYourApi(translationReady(5001L, 2L)));
+            var third = executor.submit(() -> service.updateTranslationInYourApi(translationReady(5001L, 3L)));
+
+            first.get(5, TimeUnit.SECONDS);
+            third.get(5, TimeUnit.SECONDS);
+            assertThat(catchFailure(rejected)).isInstanceOf(IllegalStateException.class).hasMessageContaining("Unknown key");
+        }
+
+        verify(yourServiceApi).updateTranslationsForKeys(anyList());
+        verify(yourServiceApi, never()).updateTranslationForKey(any(TranslationUpdate.class));
+        assertThat(meterRegistry.get("translation.notification.batch.size").summary().max()).isEqualTo(3);
+    }
+
+    private static Throwable catchFailure(Future<?> future) throws Exception {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            return null;
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+    }
+}